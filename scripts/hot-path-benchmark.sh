@@ -0,0 +1,24 @@
+#!/usr/bin/env bash
+# Hot path micro-benchmarks: runs HotPathBenchmark cases (after a warm-up round) and reports ns/op and bytes
+# allocated per op.
+#
+# Usage:
+#   scripts/hot-path-benchmark.sh [-n iterations] [case|all]
+#
+# Cases: schema (tool argument and AI output validation), router (ai.intent fast path),
+# ratelimit (GCRA acquire). Needs target/apps-broker-mcp-1.0.0.jar (mvn package).
+set -euo pipefail
+
+ITERATIONS=1000000
+while getopts "n:" opt; do
+  case "$opt" in
+    n) ITERATIONS="$OPTARG" ;;
+    *) echo "usage: $0 [-n iterations] [case|all]" >&2; exit 2 ;;
+  esac
+done
+shift $((OPTIND - 1))
+CASE="${1:-all}"
+JAR=target/apps-broker-mcp-1.0.0.jar
+
+java -cp "$JAR" -Dloader.main=com.ntg.appsbroker.infrastructure.benchmark.HotPathBenchmark \
+  org.springframework.boot.loader.launch.PropertiesLauncher "$CASE" "$ITERATIONS"
@@ -0,0 +1,36 @@
+#!/usr/bin/env bash
+# Package store benchmark: ingests a folder of .NTGapps packages into a fresh content-addressed store and reports
+# the storage ratio (packages vs objects + manifests) and reassembly throughput, after checking that every
+# reassembled package reads back with the stored entries.
+#
+# Usage:
+#   scripts/package-store-benchmark.sh [-n iterations] [-s store-dir] [apps-dir]
+#
+# apps-dir defaults to Apps/ and holds one folder per app (one package per version) or flat package files.
+# The store goes to a temp dir unless -s is given. Needs target/apps-broker-mcp-1.0.0.jar (mvn package).
+set -euo pipefail
+
+ITERATIONS=20
+STORE=""
+while getopts "n:s:" opt; do
+  case "$opt" in
+    n) ITERATIONS="$OPTARG" ;;
+    s) STORE="$OPTARG" ;;
+    *) echo "usage: $0 [-n iterations] [-s store-dir] [apps-dir]" >&2; exit 2 ;;
+  esac
+done
+shift $((OPTIND - 1))
+APPS="${1:-Apps}"
+JAR=target/apps-broker-mcp-1.0.0.jar
+if [[ -z "$STORE" ]]; then
+  STORE=$(mktemp -d)
+  trap 'rm -rf "$STORE"' EXIT
+fi
+
+store() {
+  java -cp "$JAR" -Dloader.main=com.ntg.appsbroker.infrastructure.packages.PackageStoreCommand \
+    org.springframework.boot.loader.launch.PropertiesLauncher "$@"
+}
+
+store ingest "$STORE" "$APPS" | tail -n 1
+store bench "$STORE" "$ITERATIONS"
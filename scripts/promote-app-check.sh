@@ -0,0 +1,107 @@
+#!/usr/bin/env bash
+# promote_app check against two local upstream stubs (scripts/upstream-stub.py): a source environment serving
+# exportApp and a target serving uploadFile, validateAppIdentifier and importApp. Runs the server over stdio and
+# checks each reply:
+#   - a promotion streams the export into the target and imports it
+#   - a 404 export is reported as "exportApp failed" and never reaches the target
+#   - a target that answers the upload with 500 is reported as "uploadFile failed"
+#   - a target that drops the connection mid-upload fails the call without hanging it
+#   - empty and whitespace-only arguments are rejected before any upstream call
+#   - promotions after those failures still succeed (no pooled connection is left behind)
+#
+# Usage:
+#   scripts/promote-app-check.sh [-b export-bytes]
+#
+# Needs target/apps-broker-mcp-1.0.0.jar (mvn package) and python3.
+set -euo pipefail
+
+EXPORT_BYTES=$((3 * 1024 * 1024))
+while getopts "b:" opt; do
+  case "$opt" in
+    b) EXPORT_BYTES="$OPTARG" ;;
+    *) echo "usage: $0 [-b export-bytes]" >&2; exit 2 ;;
+  esac
+done
+JAR=target/apps-broker-mcp-1.0.0.jar
+SOURCE_PORT=7101
+TARGET_PORT=7102
+WORK=$(mktemp -d)
+PIDS=()
+cleanup() {
+  for pid in "${PIDS[@]}"; do kill "$pid" 2>/dev/null || true; done
+  rm -rf "$WORK"
+}
+trap cleanup EXIT
+
+python3 scripts/upstream-stub.py --port "$SOURCE_PORT" --export-bytes "$EXPORT_BYTES" > "$WORK/source.log" & PIDS+=($!)
+python3 scripts/upstream-stub.py --port "$TARGET_PORT" > "$WORK/target.log" & PIDS+=($!)
+sleep 1
+
+call() {
+  local id="$1" app="$2" source_token="${3:-source-token}"
+  printf '{"jsonrpc":"2.0","id":%s,"method":"tools/call","params":{"name":"promote_app","arguments":{"sourceBaseUrl":"http://127.0.0.1:%s","sourceSessionToken":"%s","appIdentifier":"%s","sessionToken":"target-token","appsBaseUrl":"http://127.0.0.1:%s"}}}\n' \
+    "$id" "$SOURCE_PORT" "$source_token" "$app" "$TARGET_PORT"
+}
+
+{
+  printf '{"jsonrpc":"2.0","id":0,"method":"initialize","params":{}}\n'
+  call 1 SAL
+  call 2 MIS
+  call 3 BAD
+  call 4 CUT
+  call 5 ""
+  call 6 "   "
+  call 7 SAL " "
+  for i in 8 9 10; do call "$i" SAL; done
+} > "$WORK/requests.jsonl"
+
+MCP_STDIO_MODE=true MCP_APPS_INTEGRATION_ENABLED=true MCP_APPS_BASE_URL="http://127.0.0.1:$TARGET_PORT" \
+  MCP_RATELIMIT_ENABLED=false MCP_HEALTH_PROBE_ENABLED=false MCP_WARMUP_ENABLED=false \
+  java -jar "$JAR" < "$WORK/requests.jsonl" > "$WORK/responses.jsonl" 2> "$WORK/server.log"
+
+python3 - "$WORK" "$EXPORT_BYTES" <<'EOF'
+import json, sys
+work, export_bytes = sys.argv[1], int(sys.argv[2])
+replies = {}
+for line in open(work + "/responses.jsonl"):
+    line = line.strip()
+    if line.startswith("{"):
+        msg = json.loads(line)
+        if "id" in msg:
+            replies[msg["id"]] = msg
+
+def outcome(i):
+    msg = replies[i]
+    return json.loads(msg["result"]["content"][0]["text"])
+
+def uploads():
+    return [json.loads(l) for l in open(work + "/target.log") if '"uploadFile' in l]
+
+failures = []
+def check(name, ok, detail):
+    print(("ok   " if ok else "FAIL ") + name)
+    if not ok:
+        failures.append(name)
+        print("     " + json.dumps(detail)[:400])
+
+r = outcome(1)
+check("promotion imports the exported package", r.get("message") == "imported", r)
+r = outcome(2)
+check("404 export reported as exportApp failed",
+      r.get("message") == "exportApp failed" and r["details"]["status_code"] == 404, r)
+r = outcome(3)
+check("rejected upload reported as uploadFile failed",
+      r.get("message") == "uploadFile failed" and r["details"]["status_code"] == 500, r)
+r = outcome(4)
+check("dropped upload fails the call", r.get("code") == "internal_error"
+      and "Failed to stream exported app" in r.get("message", ""), r)
+for i in (5, 6, 7):
+    r = outcome(i)
+    check("blank argument rejected (call %d)" % i, r.get("code") == "validation_failed", r)
+for i in (8, 9, 10):
+    r = outcome(i)
+    check("promotion after failures (call %d)" % i, r.get("message") == "imported", r)
+sizes = [u["bytes"] for u in uploads() if u["call"] == "uploadFile"]
+check("four complete uploads reached the target", len(sizes) == 4 and min(sizes) > export_bytes, sizes)
+sys.exit(1 if failures else 0)
+EOF
@@ -0,0 +1,77 @@
+#!/usr/bin/env bash
+# Time-to-first-response benchmark: starts the server, sends a `ping` tool call as soon as possible and
+# reports the time until the first JSON-RPC response, for the stdio and HTTP transports.
+#
+# Usage:
+#   scripts/startup-benchmark.sh [-m stdio|http|both] [-n runs] [-- launch command...]
+#
+# The launch command defaults to `java -jar target/apps-broker-mcp-1.0.0.jar`. To compare the fast-start
+# image layout (AOT + AppCDS, see Dockerfile), pass its java command line after `--`, e.g.
+#   scripts/startup-benchmark.sh -m http -- java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true \
+#       -cp 'mcp-server.jar:lib/*' com.ntg.appsbroker.AppsBrokerApplication
+set -euo pipefail
+
+MODE=both
+RUNS=5
+while getopts "m:n:" opt; do
+  case "$opt" in
+    m) MODE="$OPTARG" ;;
+    n) RUNS="$OPTARG" ;;
+    *) echo "usage: $0 [-m stdio|http|both] [-n runs] [-- command...]" >&2; exit 2 ;;
+  esac
+done
+shift $((OPTIND - 1))
+[[ "${1:-}" == "--" ]] && shift
+if [[ $# -eq 0 ]]; then
+  set -- java -jar target/apps-broker-mcp-1.0.0.jar
+fi
+
+PING='{"jsonrpc":"2.0","id":1,"method":"tools/call","params":{"name":"ping","arguments":{}}}'
+now_ms() { date +%s%3N; }
+
+median() { sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'; }
+
+# stdio: the request is queued on stdin before the JVM starts.
+run_stdio() {
+  local start end
+  start=$(now_ms)
+  # The end time is taken when the response line arrives, not when the server exits on EOF.
+  end=$(echo "$PING" | MCP_STDIO_MODE=true MCP_HTTP_SSE_MODE=false MCP_LOG_TO_FILE=false "$@" 2>/dev/null \
+    | { grep -m1 -q '"jsonrpc"'; now_ms; })
+  echo $((end - start))
+}
+
+# http: poll POST /mcp until the first 200.
+run_http() {
+  local port=$((18000 + RANDOM % 1000)) pid start end
+  start=$(now_ms)
+  MCP_HTTP_SSE_MODE=true MCP_STDIO_MODE=false MCP_LOG_TO_FILE=false PORT=$port "$@" > /dev/null 2>&1 &
+  pid=$!
+  until curl -sf -o /dev/null -H 'Content-Type: application/json' -d "$PING" "http://127.0.0.1:$port/mcp"; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "server exited before responding" >&2
+      return 1
+    fi
+    sleep 0.02
+  done
+  end=$(now_ms)
+  kill "$pid" 2>/dev/null || true
+  wait "$pid" 2>/dev/null || true
+  echo $((end - start))
+}
+
+bench() {
+  local mode=$1; shift
+  local results=()
+  for ((i = 1; i <= RUNS; i++)); do
+    results+=("$("run_$mode" "$@")")
+  done
+  printf '%-6s runs=%d median=%sms all=[%s]\n' "$mode" "$RUNS" \
+    "$(printf '%s\n' "${results[@]}" | median)" "${results[*]}"
+}
+
+case "$MODE" in
+  stdio|http) bench "$MODE" "$@" ;;
+  both) bench stdio "$@"; bench http "$@" ;;
+  *) echo "unknown mode: $MODE" >&2; exit 2 ;;
+esac
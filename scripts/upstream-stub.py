@@ -0,0 +1,130 @@
+#!/usr/bin/env python3
+"""Smart2Go Import/Export stand-in for local checks of import_app and promote_app.
+
+One process plays one environment; start two (source and target) for promote_app:
+
+    scripts/upstream-stub.py --port 7101 &   # source: serves exportApp
+    scripts/upstream-stub.py --port 7102 &   # target: uploadFile, validateAppIdentifier, importApp
+
+exportApp answers a package of --export-bytes bytes named <appIdentifier>.NTGapps; appIdentifier MIS answers 404.
+uploadFile reads the multipart body and answers the uploadFile JSON; a package named BAD.NTGapps is answered with
+500, and for CUT.NTGapps the connection is closed after the first bytes, like an upstream that gives up mid-upload.
+Every request is logged to stdout as one JSON line.
+"""
+import argparse
+import http.server
+import json
+import sys
+import urllib.parse
+
+
+def main():
+    parser = argparse.ArgumentParser()
+    parser.add_argument("--port", type=int, required=True)
+    parser.add_argument("--export-bytes", type=int, default=3 * 1024 * 1024)
+    args = parser.parse_args()
+
+    class Handler(http.server.BaseHTTPRequestHandler):
+        protocol_version = "HTTP/1.1"
+
+        def do_HEAD(self):
+            self.send_response(200)
+            self.send_header("Content-Length", "0")
+            self.end_headers()
+
+        def do_GET(self):
+            url = urllib.parse.urlparse(self.path)
+            if url.path != "/rest/importExport/exportApp":
+                return self.status(404, {"error": "not found"})
+            app = urllib.parse.parse_qs(url.query).get("appIdentifier", [""])[0]
+            if app == "MIS":
+                return self.status(404, {"error": "app " + app + " not found"})
+            self.log_call("exportApp", app=app, bytes=args.export_bytes)
+            self.send_response(200)
+            self.send_header("Content-Type", "application/octet-stream")
+            self.send_header("Content-Disposition", 'attachment; filename="%s.NTGapps"' % app)
+            self.send_header("Content-Length", str(args.export_bytes))
+            self.end_headers()
+            chunk = b"x" * 65536
+            left = args.export_bytes
+            try:
+                while left > 0:
+                    n = min(left, len(chunk))
+                    self.wfile.write(chunk[:n])
+                    left -= n
+            except (BrokenPipeError, ConnectionResetError):
+                self.log_call("exportApp aborted", app=app, unsent=left)
+
+        def do_POST(self):
+            path = urllib.parse.urlparse(self.path).path
+            if path == "/rest/importExport/uploadFile":
+                return self.upload()
+            body = self.read_body()
+            payload = json.loads(body or b"{}")
+            if path == "/rest/importExport/validateAppIdentifier":
+                self.log_call("validateAppIdentifier", app=payload.get("appIdentifier"))
+                return self.status(200, {"isValid": True, "existAppName": "", "allowMerge": False})
+            if path == "/rest/importExport/importApp":
+                self.log_call("importApp", app=payload.get("appIdentifier"))
+                return self.status(200, {"returnValue": "ok"})
+            return self.status(404, {"error": "not found"})
+
+        def upload(self):
+            chunks = self.body_chunks()
+            head = b""
+            for chunk in chunks:
+                head += chunk
+                if len(head) >= 4096:
+                    break
+            if b'filename="CUT.NTGapps"' in head[:4096]:
+                self.log_call("uploadFile cut", app="CUT")
+                self.close_connection = True
+                return
+            total = len(head) + sum(len(c) for c in chunks)
+            if b'filename="BAD.NTGapps"' in head[:4096]:
+                self.log_call("uploadFile rejected", app="BAD", bytes=total)
+                return self.status(500, {"error": "rejected"})
+            self.log_call("uploadFile", bytes=total)
+            self.status(200, {"appName": "Promoted", "appIdentifier": "PRO", "appUuid": "u-1", "version": "1"})
+
+        def body_chunks(self):
+            if self.headers.get("Transfer-Encoding", "").lower() != "chunked":
+                yield self.rfile.read(int(self.headers.get("Content-Length", 0)))
+                return
+            while True:
+                size = int(self.rfile.readline().strip().split(b";")[0], 16)
+                if size == 0:
+                    self.rfile.readline()
+                    return
+                data = self.rfile.read(size)
+                self.rfile.readline()
+                yield data
+
+        def read_body(self):
+            return b"".join(self.body_chunks())
+
+        def status(self, code, obj, close=False):
+            body = json.dumps(obj).encode()
+            self.send_response(code)
+            self.send_header("Content-Type", "application/json")
+            self.send_header("Content-Length", str(len(body)))
+            if close:
+                self.send_header("Connection", "close")
+            self.end_headers()
+            self.wfile.write(body)
+
+        def log_call(self, call, **fields):
+            print(json.dumps(dict(port=args.port, call=call, **fields)), flush=True)
+
+        def log_message(self, *a):
+            pass
+
+    class Server(http.server.ThreadingHTTPServer):
+        def handle_error(self, request, client_address):
+            print(json.dumps(dict(port=args.port, call="connection error", error=str(sys.exc_info()[1]))), flush=True)
+
+    Server(("127.0.0.1", args.port), Handler).serve_forever()
+
+
+if __name__ == "__main__":
+    sys.exit(main())
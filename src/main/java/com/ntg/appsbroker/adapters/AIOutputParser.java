@@ -1,56 +1,143 @@
 package com.ntg.appsbroker.adapters;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ntg.appsbroker.adapters.schema.CompiledSchema;
+import com.ntg.appsbroker.adapters.schema.SchemaViolation;
+import com.ntg.appsbroker.adapters.schema.SchemaViolationException;
+import com.ntg.appsbroker.adapters.schema.StreamingSchemaReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Adapter: Validates and parses AI output against strict schemas.
+ *
+ * <p>Schemas are compiled once and cached by identity (callers pass the same schema constant on every call).
+ * Output is validated token by token while it is parsed, so oversized or malformed output is rejected at the
+ * first violating token.</p>
  */
 @Component
 public class AIOutputParser {
     private static final Logger log = LoggerFactory.getLogger(AIOutputParser.class);
+    private static final int MAX_CACHED_SCHEMAS = 256;
+    private static final CompiledSchema ANY_OBJECT = CompiledSchema.compile(Map.of("type", "object"));
+
     private final ObjectMapper objectMapper;
-    
-    public AIOutputParser(ObjectMapper objectMapper) {
+    private final StreamingSchemaReader reader;
+    private final int maxChars;
+    private final Map<SchemaKey, CompiledSchema> compiledSchemas = new ConcurrentHashMap<>();
+
+    public AIOutputParser(
+        ObjectMapper objectMapper,
+        @Value("${mcp.ai.output.max-chars:262144}") int maxChars,
+        @Value("${mcp.ai.output.max-depth:32}") int maxDepth
+    ) {
         this.objectMapper = objectMapper;
+        this.maxChars = maxChars;
+        this.reader = new StreamingSchemaReader(maxDepth);
     }
-    
+
     public Map<String, Object> parseAndValidate(String aiOutput, Map<String, Object> expectedSchema) {
-        try {
-            // Parse JSON output
-            Map<String, Object> parsed = objectMapper.readValue(aiOutput, new TypeReference<Map<String, Object>>() {});
-            
-            // Basic validation (can be extended)
-            if (expectedSchema != null) {
-                validateAgainstSchema(parsed, expectedSchema);
+        if (aiOutput != null && aiOutput.length() > maxChars) {
+            log.error("Failed to parse AI output: {} chars exceeds limit of {}", aiOutput.length(), maxChars);
+            throw new RuntimeException("Invalid AI output format",
+                new SchemaViolationException(new SchemaViolation("", "output exceeds " + maxChars + " characters")));
+        }
+        return parseAndValidate(new StringReader(aiOutput == null ? "" : aiOutput), expectedSchema);
+    }
+
+    /**
+     * Parses AI output as it is read (e.g. from a streaming model response), stopping at the first violation.
+     */
+    public Map<String, Object> parseAndValidate(Reader aiOutput, Map<String, Object> expectedSchema) {
+        CompiledSchema schema = expectedSchema != null ? compiledSchema(expectedSchema) : ANY_OBJECT;
+        try (JsonParser parser = objectMapper.getFactory().createParser(new BoundedReader(aiOutput, maxChars))) {
+            Object parsed = reader.readDocument(parser, schema);
+            if (!(parsed instanceof Map<?, ?>)) {
+                throw new SchemaViolationException(new SchemaViolation("", "AI output must be a JSON object"));
             }
-            
-            return parsed;
+            @SuppressWarnings("unchecked")
+            Map<String, Object> result = (Map<String, Object>) parsed;
+            return result;
         } catch (Exception e) {
             log.error("Failed to parse AI output", e);
             throw new RuntimeException("Invalid AI output format", e);
         }
     }
-    
-    private void validateAgainstSchema(Map<String, Object> parsed, Map<String, Object> schema) {
-        // Basic schema validation - can be extended with JSON Schema library
-        // For now, just ensure required fields exist
-        Object required = schema.get("required");
-        if (required instanceof java.util.List<?> requiredFields) {
-            for (Object fieldObj : requiredFields) {
-                if (!(fieldObj instanceof String field) || field.isBlank()) {
-                    continue;
-                }
-                if (!parsed.containsKey(field)) {
-                    throw new RuntimeException("Missing required field: " + field);
-                }
+
+    private CompiledSchema compiledSchema(Map<String, Object> schema) {
+        SchemaKey key = new SchemaKey(schema);
+        CompiledSchema compiled = compiledSchemas.get(key);
+        if (compiled != null) {
+            return compiled;
+        }
+        if (compiledSchemas.size() >= MAX_CACHED_SCHEMAS) {
+            // Schemas are expected to be constants; a growing cache means callers build them per call.
+            log.warn("AI output schema cache exceeded {} entries; clearing", MAX_CACHED_SCHEMAS);
+            compiledSchemas.clear();
+        }
+        return compiledSchemas.computeIfAbsent(key, k -> CompiledSchema.compile(schema));
+    }
+
+    /**
+     * Identity key: the same schema instance always maps to the same compiled schema.
+     */
+    private record SchemaKey(Map<String, Object> schema) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof SchemaKey other && other.schema == schema;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(schema);
+        }
+    }
+
+    /**
+     * Fails the read once more than {@code maxChars} characters have been consumed.
+     */
+    private static final class BoundedReader extends FilterReader {
+        private final int maxChars;
+        private long read;
+
+        BoundedReader(Reader in, int maxChars) {
+            super(in);
+            this.maxChars = maxChars;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int c = super.read();
+            if (c >= 0) {
+                count(1);
+            }
+            return c;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            int n = super.read(cbuf, off, len);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) {
+            read += n;
+            if (read > maxChars) {
+                throw new SchemaViolationException(new SchemaViolation("", "output exceeds " + maxChars + " characters"));
             }
         }
     }
 }
-
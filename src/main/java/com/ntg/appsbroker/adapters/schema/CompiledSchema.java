@@ -0,0 +1,318 @@
+package com.ntg.appsbroker.adapters.schema;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Adapter: a JSON Schema (the subset used by MCP tool input schemas and AI output schemas) compiled once into
+ * a tree of plain nodes.
+ *
+ * <p>Supported keywords: {@code type} (single or list), {@code enum}, {@code properties}, {@code required},
+ * {@code additionalProperties} (boolean), {@code items}, {@code minLength}, {@code maxLength}, {@code maxItems}.
+ * Unknown keywords are ignored, as the spec allows. As in the spec, a number with a zero fractional part
+ * ({@code 1.0}) is an {@code integer}. An explicit {@code null} on a property that is not required, and whose type
+ * does not allow {@code null}, counts as absent.</p>
+ *
+ * <p>{@link #validate(Object)} checks decoded JSON values ({@code Map}/{@code List}/scalars) with
+ * {@code instanceof} tests only: no reflection, and nothing is allocated unless a violation is reported.</p>
+ */
+public final class CompiledSchema {
+    static final int T_STRING = 1;
+    static final int T_INTEGER = 1 << 1;
+    static final int T_NUMBER = 1 << 2;
+    static final int T_BOOLEAN = 1 << 3;
+    static final int T_OBJECT = 1 << 4;
+    static final int T_ARRAY = 1 << 5;
+    static final int T_NULL = 1 << 6;
+    static final int T_ANY = T_STRING | T_INTEGER | T_NUMBER | T_BOOLEAN | T_OBJECT | T_ARRAY | T_NULL;
+    static final Node ANY = compileNode(Map.of());
+
+    private final Node root;
+
+    private CompiledSchema(Node root) {
+        this.root = root;
+    }
+
+    public static CompiledSchema compile(Map<String, Object> schema) {
+        return new CompiledSchema(compileNode(schema == null ? Map.of() : schema));
+    }
+
+    /**
+     * Returns {@code null} when {@code value} conforms, otherwise the first violation found.
+     */
+    public SchemaViolation validate(Object value) {
+        return validate(root, value);
+    }
+
+    Node root() {
+        return root;
+    }
+
+    private static SchemaViolation validate(Node node, Object value) {
+        int actual = typeOf(value);
+        if ((node.types & actual) == 0) {
+            return new SchemaViolation("", "expected " + node.typeNames() + " but got " + typeName(actual));
+        }
+        if (node.enumValues != null && !node.enumContains(value)) {
+            return new SchemaViolation("", "value is not one of " + node.enumDisplay());
+        }
+        switch (actual) {
+            case T_STRING -> {
+                return node.checkLength((String) value);
+            }
+            case T_OBJECT -> {
+                return validateObject(node, (Map<?, ?>) value);
+            }
+            case T_ARRAY -> {
+                return validateArray(node, (List<?>) value);
+            }
+            default -> {
+            }
+        }
+        return null;
+    }
+
+    private static SchemaViolation validateObject(Node node, Map<?, ?> map) {
+        String[] required = node.required;
+        for (int i = 0; i < required.length; i++) {
+            if (!map.containsKey(required[i])) {
+                return new SchemaViolation("", "missing required property '" + required[i] + "'");
+            }
+        }
+
+        String[] names = node.propertyNames;
+        Node[] schemas = node.propertySchemas;
+        int known = 0;
+        for (int i = 0; i < names.length; i++) {
+            Object v = map.get(names[i]);
+            if (v == null && !map.containsKey(names[i])) {
+                continue;
+            }
+            known++;
+            if (v == null && node.nullAsAbsent[i]) {
+                continue;
+            }
+            SchemaViolation violation = validate(schemas[i], v);
+            if (violation != null) {
+                return violation.under(names[i]);
+            }
+        }
+
+        if (!node.additionalProperties && map.size() > known) {
+            for (Object key : map.keySet()) {
+                if (!node.properties.containsKey(key)) {
+                    return new SchemaViolation("", "unexpected property '" + key + "'");
+                }
+            }
+        }
+        return null;
+    }
+
+    private static SchemaViolation validateArray(Node node, List<?> list) {
+        int size = list.size();
+        if (node.maxItems >= 0 && size > node.maxItems) {
+            return new SchemaViolation("", "array longer than " + node.maxItems);
+        }
+        if (node.items == null) {
+            return null;
+        }
+        for (int i = 0; i < size; i++) {
+            SchemaViolation violation = validate(node.items, list.get(i));
+            if (violation != null) {
+                return violation.under(Integer.toString(i));
+            }
+        }
+        return null;
+    }
+
+    static int typeOf(Object value) {
+        if (value == null) return T_NULL;
+        if (value instanceof String) return T_STRING;
+        if (value instanceof Boolean) return T_BOOLEAN;
+        if (value instanceof Integer || value instanceof Long || value instanceof Short
+            || value instanceof Byte || value instanceof BigInteger) return T_INTEGER;
+        if (value instanceof Number n) return isIntegral(n) ? T_INTEGER : T_NUMBER;
+        if (value instanceof Map<?, ?>) return T_OBJECT;
+        if (value instanceof List<?>) return T_ARRAY;
+        return 0;
+    }
+
+    static boolean isIntegral(Number n) {
+        if (n instanceof BigDecimal d) {
+            return d.signum() == 0 || d.stripTrailingZeros().scale() <= 0;
+        }
+        double d = n.doubleValue();
+        return d == Math.rint(d) && !Double.isInfinite(d);
+    }
+
+    static String typeName(int type) {
+        return switch (type) {
+            case T_STRING -> "string";
+            case T_INTEGER -> "integer";
+            case T_NUMBER -> "number";
+            case T_BOOLEAN -> "boolean";
+            case T_OBJECT -> "object";
+            case T_ARRAY -> "array";
+            case T_NULL -> "null";
+            default -> "unsupported value";
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Node compileNode(Map<String, Object> schema) {
+        Node node = new Node();
+        node.types = parseTypes(schema.get("type"));
+
+        if (schema.get("enum") instanceof List<?> values) {
+            node.enumValues = new HashSet<>();
+            List<Double> numbers = new ArrayList<>();
+            for (Object v : values) {
+                if (v instanceof Number n) {
+                    numbers.add(n.doubleValue());
+                } else {
+                    node.enumValues.add(v);
+                }
+            }
+            node.enumNumbers = numbers.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+            node.enumDisplay = values.toString();
+        }
+
+        Map<String, Node> properties = new HashMap<>();
+        if (schema.get("properties") instanceof Map<?, ?> props) {
+            props.forEach((k, v) -> {
+                if (k instanceof String name && v instanceof Map<?, ?> sub) {
+                    properties.put(name, compileNode((Map<String, Object>) sub));
+                }
+            });
+        }
+        node.properties = properties;
+        node.propertyNames = properties.keySet().toArray(new String[0]);
+        Arrays.sort(node.propertyNames);
+        node.propertySchemas = new Node[node.propertyNames.length];
+        for (int i = 0; i < node.propertyNames.length; i++) {
+            node.propertySchemas[i] = properties.get(node.propertyNames[i]);
+        }
+
+        List<String> required = new ArrayList<>();
+        if (schema.get("required") instanceof List<?> req) {
+            for (Object r : req) {
+                if (r instanceof String s && !s.isBlank()) {
+                    required.add(s);
+                }
+            }
+        }
+        node.required = required.toArray(new String[0]);
+        node.nullAsAbsent = new boolean[node.propertyNames.length];
+        for (int i = 0; i < node.propertyNames.length; i++) {
+            node.nullAsAbsent[i] = (node.propertySchemas[i].types & T_NULL) == 0 && !required.contains(node.propertyNames[i]);
+        }
+        node.additionalProperties = !Boolean.FALSE.equals(schema.get("additionalProperties"));
+
+        if (schema.get("items") instanceof Map<?, ?> items) {
+            node.items = compileNode((Map<String, Object>) items);
+        }
+        node.minLength = schema.get("minLength") instanceof Number n ? n.intValue() : -1;
+        node.maxLength = schema.get("maxLength") instanceof Number n ? n.intValue() : -1;
+        node.maxItems = schema.get("maxItems") instanceof Number n ? n.intValue() : -1;
+        return node;
+    }
+
+    private static int parseTypes(Object type) {
+        if (type instanceof String s) {
+            return parseType(s);
+        }
+        if (type instanceof List<?> list && !list.isEmpty()) {
+            int mask = 0;
+            for (Object t : list) {
+                if (t instanceof String s) {
+                    mask |= parseType(s);
+                }
+            }
+            return mask == 0 ? T_ANY : mask;
+        }
+        return T_ANY;
+    }
+
+    private static int parseType(String type) {
+        return switch (type) {
+            case "string" -> T_STRING;
+            case "integer" -> T_INTEGER;
+            // An integral value is also a valid "number".
+            case "number" -> T_NUMBER | T_INTEGER;
+            case "boolean" -> T_BOOLEAN;
+            case "object" -> T_OBJECT;
+            case "array" -> T_ARRAY;
+            case "null" -> T_NULL;
+            default -> T_ANY;
+        };
+    }
+
+    /**
+     * One compiled schema level. Property lookups use the sorted arrays on the hot path; the map is only
+     * consulted when reporting an unexpected property. Numeric enum members are kept as a sorted
+     * {@code double[]} so a number is matched without boxing.
+     */
+    static final class Node {
+        int types;
+        Set<Object> enumValues;
+        double[] enumNumbers;
+        String enumDisplay;
+        Map<String, Node> properties;
+        String[] propertyNames;
+        Node[] propertySchemas;
+        String[] required;
+        boolean[] nullAsAbsent;
+        boolean additionalProperties;
+        Node items;
+        int minLength;
+        int maxLength;
+        int maxItems;
+
+        boolean enumContains(Object value) {
+            if (value instanceof Number n) {
+                return Arrays.binarySearch(enumNumbers, n.doubleValue()) >= 0;
+            }
+            return enumValues.contains(value);
+        }
+
+        /**
+         * Whether an explicit {@code null} for property {@code name} is read as if it were absent.
+         */
+        boolean nullAsAbsent(String name) {
+            int i = Arrays.binarySearch(propertyNames, name);
+            return i >= 0 && nullAsAbsent[i];
+        }
+
+        String enumDisplay() {
+            return enumDisplay;
+        }
+
+        SchemaViolation checkLength(String s) {
+            if (minLength >= 0 && s.length() < minLength) {
+                return new SchemaViolation("", "string shorter than " + minLength);
+            }
+            if (maxLength >= 0 && s.length() > maxLength) {
+                return new SchemaViolation("", "string longer than " + maxLength);
+            }
+            return null;
+        }
+
+        String typeNames() {
+            if (types == T_ANY) return "any";
+            List<String> names = new ArrayList<>();
+            for (int t = T_STRING; t <= T_NULL; t <<= 1) {
+                if ((types & t) != 0 && !(t == T_INTEGER && (types & T_NUMBER) != 0)) {
+                    names.add(typeName(t));
+                }
+            }
+            return String.join("|", names);
+        }
+    }
+}
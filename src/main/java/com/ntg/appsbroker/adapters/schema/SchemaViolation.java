@@ -0,0 +1,19 @@
+package com.ntg.appsbroker.adapters.schema;
+
+/**
+ * Adapter: first violation found while validating a value against a {@link CompiledSchema}.
+ *
+ * @param path    JSON-pointer-like location of the offending value ("" for the root)
+ * @param message human-readable reason
+ */
+public record SchemaViolation(String path, String message) {
+
+    SchemaViolation under(String segment) {
+        return new SchemaViolation("/" + segment + path, message);
+    }
+
+    @Override
+    public String toString() {
+        return (path.isEmpty() ? "/" : path) + ": " + message;
+    }
+}
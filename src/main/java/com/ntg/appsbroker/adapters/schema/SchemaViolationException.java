@@ -0,0 +1,17 @@
+package com.ntg.appsbroker.adapters.schema;
+
+/**
+ * Adapter: thrown when a value read from a stream does not conform to a {@link CompiledSchema}.
+ */
+public class SchemaViolationException extends RuntimeException {
+    private final transient SchemaViolation violation;
+
+    public SchemaViolationException(SchemaViolation violation) {
+        super(violation.toString());
+        this.violation = violation;
+    }
+
+    public SchemaViolation violation() {
+        return violation;
+    }
+}
@@ -0,0 +1,165 @@
+package com.ntg.appsbroker.adapters.schema;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.ntg.appsbroker.adapters.schema.CompiledSchema.Node;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adapter: reads one JSON value from a Jackson streaming parser while validating it against a
+ * {@link CompiledSchema}.
+ *
+ * <p>Each token is checked as soon as it is read, so wrong types, unexpected properties, enum misses and
+ * oversized arrays/strings fail on the first violating token instead of after the whole document has been
+ * materialized. Only the valid prefix is ever built into {@code Map}/{@code List} values. A {@code null} that
+ * {@link CompiledSchema} reads as an absent optional property is left out of the result.</p>
+ */
+public final class StreamingSchemaReader {
+    private final int maxDepth;
+
+    public StreamingSchemaReader(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Reads the next complete value from {@code parser} (which must be positioned before it) and requires that
+     * nothing but whitespace follows.
+     *
+     * @throws SchemaViolationException on the first token that violates the schema
+     */
+    public Object readDocument(JsonParser parser, CompiledSchema schema) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == null) {
+            throw violation("empty document");
+        }
+        Object value = readValue(parser, token, schema.root(), 0);
+        if (parser.nextToken() != null) {
+            throw violation("unexpected content after the JSON document");
+        }
+        return value;
+    }
+
+    private Object readValue(JsonParser p, JsonToken token, Node node, int depth) throws IOException {
+        switch (token) {
+            case START_OBJECT -> {
+                expect(node, CompiledSchema.T_OBJECT);
+                return readObject(p, node, depth + 1);
+            }
+            case START_ARRAY -> {
+                expect(node, CompiledSchema.T_ARRAY);
+                return readArray(p, node, depth + 1);
+            }
+            case VALUE_STRING -> {
+                expect(node, CompiledSchema.T_STRING);
+                String s = p.getText();
+                SchemaViolation length = node.checkLength(s);
+                if (length != null) {
+                    throw new SchemaViolationException(length);
+                }
+                return checkEnum(node, s);
+            }
+            case VALUE_NUMBER_INT -> {
+                expect(node, CompiledSchema.T_INTEGER);
+                return checkEnum(node, p.getNumberValue());
+            }
+            case VALUE_NUMBER_FLOAT -> {
+                Number n = p.getNumberValue();
+                expect(node, CompiledSchema.isIntegral(n) ? CompiledSchema.T_INTEGER : CompiledSchema.T_NUMBER);
+                return checkEnum(node, n);
+            }
+            case VALUE_TRUE, VALUE_FALSE -> {
+                expect(node, CompiledSchema.T_BOOLEAN);
+                return checkEnum(node, token == JsonToken.VALUE_TRUE);
+            }
+            case VALUE_NULL -> {
+                expect(node, CompiledSchema.T_NULL);
+                return checkEnum(node, null);
+            }
+            default -> throw violation("unexpected token " + token);
+        }
+    }
+
+    private Map<String, Object> readObject(JsonParser p, Node node, int depth) throws IOException {
+        checkDepth(depth);
+        Map<String, Object> result = new LinkedHashMap<>();
+        JsonToken token;
+        while ((token = p.nextToken()) == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            Node child = node.properties.get(name);
+            if (child == null) {
+                if (!node.additionalProperties) {
+                    throw violation("unexpected property '" + name + "'");
+                }
+                child = CompiledSchema.ANY;
+            }
+            JsonToken valueToken = p.nextToken();
+            if (valueToken == JsonToken.VALUE_NULL && node.nullAsAbsent(name)) {
+                continue;
+            }
+            try {
+                result.put(name, readValue(p, valueToken, child, depth));
+            } catch (SchemaViolationException e) {
+                throw new SchemaViolationException(e.violation().under(name));
+            }
+        }
+        if (token != JsonToken.END_OBJECT) {
+            throw violation("unterminated object");
+        }
+        for (String required : node.required) {
+            if (!result.containsKey(required)) {
+                throw violation("missing required property '" + required + "'");
+            }
+        }
+        return result;
+    }
+
+    private List<Object> readArray(JsonParser p, Node node, int depth) throws IOException {
+        checkDepth(depth);
+        Node items = node.items != null ? node.items : CompiledSchema.ANY;
+        List<Object> result = new ArrayList<>();
+        JsonToken token;
+        while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) {
+                throw violation("unterminated array");
+            }
+            int index = result.size();
+            if (node.maxItems >= 0 && index >= node.maxItems) {
+                throw violation("array longer than " + node.maxItems);
+            }
+            try {
+                result.add(readValue(p, token, items, depth));
+            } catch (SchemaViolationException e) {
+                throw new SchemaViolationException(e.violation().under(Integer.toString(index)));
+            }
+        }
+        return result;
+    }
+
+    private void checkDepth(int depth) {
+        if (depth > maxDepth) {
+            throw violation("nesting deeper than " + maxDepth);
+        }
+    }
+
+    private static void expect(Node node, int type) {
+        if ((node.types & type) == 0) {
+            throw violation("expected " + node.typeNames() + " but got " + CompiledSchema.typeName(type));
+        }
+    }
+
+    private static Object checkEnum(Node node, Object value) {
+        if (node.enumValues != null && !node.enumContains(value)) {
+            throw violation("value is not one of " + node.enumDisplay());
+        }
+        return value;
+    }
+
+    private static SchemaViolationException violation(String message) {
+        return new SchemaViolationException(new SchemaViolation("", message));
+    }
+}
@@ -0,0 +1,32 @@
+package com.ntg.appsbroker.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Domain: one-way digest of a secret (session token, bearer token) for use in cache and bucket keys, so the
+ * secret itself is never kept or exposed in metrics.
+ */
+public final class TokenDigest {
+    private static final int BYTES = 16;
+
+    private TokenDigest() {
+    }
+
+    /**
+     * First 128 bits of the SHA-256 of {@code token}, hex-encoded; {@code null} for a missing or blank token.
+     */
+    public static String of(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, BYTES);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
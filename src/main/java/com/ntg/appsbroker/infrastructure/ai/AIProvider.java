@@ -0,0 +1,15 @@
+package com.ntg.appsbroker.infrastructure.ai;
+
+import java.io.Reader;
+
+/**
+ * Infrastructure: pluggable model backend behind {@link CachingAIGateway}.
+ *
+ * <p>Providers are Spring beans selected by {@code mcp.ai.provider}. The returned reader yields the completion
+ * as the model produces it, so callers can consume (and validate) tokens before generation finishes.</p>
+ */
+public interface AIProvider {
+    String name();
+
+    Reader stream(String prompt, String model);
+}
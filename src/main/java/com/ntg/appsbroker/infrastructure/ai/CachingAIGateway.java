@@ -0,0 +1,238 @@
+package com.ntg.appsbroker.infrastructure.ai;
+
+import com.ntg.appsbroker.adapters.AIOutputParser;
+import com.ntg.appsbroker.ports.AIGateway;
+import com.ntg.appsbroker.ports.MetricsSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Infrastructure: AIGateway over a pluggable {@link AIProvider} with a bounded response cache.
+ *
+ * <p>Responses are cached by (model, SHA-256 of the whitespace-normalized prompt) in an LRU of
+ * {@code mcp.ai.cache.max-entries}. Concurrent identical prompts share one in-flight model call, so an
+ * identical prompt reaches the model at most once while its response stays cached. Structured output is
+ * validated while the provider streams it.</p>
+ */
+@Service
+public class CachingAIGateway implements AIGateway, MetricsSource {
+    private static final Logger log = LoggerFactory.getLogger(CachingAIGateway.class);
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final AIProvider provider;
+    private final AIOutputParser outputParser;
+    private final String defaultModel;
+    private final Map<CacheKey, String> cache;
+    private final ConcurrentHashMap<CacheKey, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public CachingAIGateway(
+        List<AIProvider> providers,
+        AIOutputParser outputParser,
+        @Value("${mcp.ai.provider:local}") String providerName,
+        @Value("${mcp.ai.model:local-intent-v1}") String defaultModel,
+        @Value("${mcp.ai.cache.max-entries:512}") int maxEntries
+    ) {
+        this.provider = providers.stream()
+            .filter(p -> p.name().equalsIgnoreCase(providerName))
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException("Unknown mcp.ai.provider: " + providerName
+                + " (available: " + providers.stream().map(AIProvider::name).toList() + ")"));
+        this.outputParser = outputParser;
+        this.defaultModel = defaultModel;
+        int capacity = Math.max(1, maxEntries);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, String> eldest) {
+                return size() > capacity;
+            }
+        };
+        log.info("AI gateway: provider={}, defaultModel={}, cacheEntries={}", provider.name(), defaultModel, capacity);
+    }
+
+    @Override
+    public String generate(String prompt, String model) {
+        String effectiveModel = effectiveModel(model);
+        return load(prompt, effectiveModel, CachingAIGateway::readFully, text -> text);
+    }
+
+    @Override
+    public Map<String, Object> generateStructured(String prompt, String model, Map<String, Object> schema) {
+        String effectiveModel = effectiveModel(model);
+        return load(
+            prompt,
+            effectiveModel,
+            reader -> outputParser.parseAndValidate(reader, schema),
+            text -> outputParser.parseAndValidate(text, schema)
+        );
+    }
+
+    @Override
+    public String metricsName() {
+        return "ai.gateway";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        long h = hits.sum();
+        long m = misses.sum();
+        int size;
+        synchronized (cache) {
+            size = cache.size();
+        }
+        return Map.of(
+            "provider", provider.name(),
+            "hits", h,
+            "misses", m,
+            "coalesced", coalesced.sum(),
+            "hitRatio", h + m == 0 ? 0.0 : (double) h / (h + m),
+            "entries", size
+        );
+    }
+
+    /**
+     * Serves from cache, joins an identical in-flight call, or becomes the single caller of the provider.
+     * {@code consume} reads the provider stream directly; {@code fromText} rebuilds the result from cached text.
+     */
+    private <T> T load(String prompt, String model, Function<CapturingReader, T> consume, Function<String, T> fromText) {
+        CacheKey key = new CacheKey(model, hash(prompt));
+
+        String cached = cacheGet(key);
+        if (cached != null) {
+            hits.increment();
+            return fromText.apply(cached);
+        }
+
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        CompletableFuture<String> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            coalesced.increment();
+            return fromText.apply(join(leader));
+        }
+
+        try {
+            // A previous leader may have finished between the cache check and registering ourselves.
+            cached = cacheGet(key);
+            if (cached != null) {
+                hits.increment();
+                mine.complete(cached);
+                return fromText.apply(cached);
+            }
+
+            misses.increment();
+            CapturingReader reader = new CapturingReader(provider.stream(prompt, model));
+            T result = consume.apply(reader);
+            String text = reader.captured();
+            synchronized (cache) {
+                cache.put(key, text);
+            }
+            mine.complete(text);
+            return result;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private String cacheGet(CacheKey key) {
+        synchronized (cache) {
+            return cache.get(key);
+        }
+    }
+
+    private String effectiveModel(String model) {
+        return model == null || model.isBlank() ? defaultModel : model.trim();
+    }
+
+    private static String join(CompletableFuture<String> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw e;
+        }
+    }
+
+    private static String hash(String prompt) {
+        String normalized = WHITESPACE.matcher(prompt == null ? "" : prompt.strip()).replaceAll(" ");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String readFully(CapturingReader reader) {
+        try (reader) {
+            char[] buf = new char[1024];
+            while (reader.read(buf) >= 0) {
+                // the reader keeps what was read
+            }
+            return reader.captured();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record CacheKey(String model, String promptHash) {}
+
+    /**
+     * Records everything read from the provider stream so it can be cached once consumption succeeds.
+     */
+    private static final class CapturingReader extends FilterReader {
+        private final StringBuilder captured = new StringBuilder();
+
+        CapturingReader(Reader in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int c = super.read();
+            if (c >= 0) {
+                captured.append((char) c);
+            }
+            return c;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            int n = super.read(cbuf, off, len);
+            if (n > 0) {
+                captured.append(cbuf, off, n);
+            }
+            return n;
+        }
+
+        String captured() {
+            return captured.toString();
+        }
+    }
+}
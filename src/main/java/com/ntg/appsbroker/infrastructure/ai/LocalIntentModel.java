@@ -0,0 +1,106 @@
+package com.ntg.appsbroker.infrastructure.ai;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Infrastructure: deterministic local stand-in for a language model ({@code mcp.ai.provider=local}).
+ *
+ * <p>Reads the "User message:" line of an intent prompt and answers with a fixed JSON shape based on keywords,
+ * emitted in small chunks to exercise the streaming path. Same prompt, same output; no network.</p>
+ */
+@Component
+public class LocalIntentModel implements AIProvider {
+    private static final Pattern USER_MESSAGE = Pattern.compile("(?m)^User message: (.*)$");
+    private static final Pattern QUOTED = Pattern.compile("[\"']([^\"']+)[\"']");
+    private static final Pattern APP_AFTER_VERB = Pattern.compile(
+        "(?i)\\b(?:create|import|make|add)\\s+(?:a\\s+|an\\s+|the\\s+|new\\s+)*(?:app(?:lication)?\\s+)?(?:called\\s+|named\\s+)?([A-Za-z0-9_\\- ]+)");
+    private static final int CHUNK_CHARS = 8;
+
+    private final ObjectMapper objectMapper;
+
+    public LocalIntentModel(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String name() {
+        return "local";
+    }
+
+    @Override
+    public Reader stream(String prompt, String model) {
+        String output = complete(prompt);
+        return new ChunkedReader(output, CHUNK_CHARS);
+    }
+
+    private String complete(String prompt) {
+        Matcher m = USER_MESSAGE.matcher(prompt == null ? "" : prompt);
+        String message = m.find() ? m.group(1).trim() : "";
+        String lower = message.toLowerCase();
+
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        String intent;
+        if (lower.contains("ping") || lower.contains("health")) {
+            intent = "ping";
+        } else if (lower.contains("import")) {
+            intent = "import_app";
+            putAppName(parameters, message);
+        } else if (lower.contains("create") || lower.contains("new app")) {
+            intent = "create_app";
+            putAppName(parameters, message);
+        } else if (lower.contains("log in") || lower.contains("login")) {
+            intent = "login";
+        } else {
+            intent = "unknown";
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("intent", intent);
+        result.put("parameters", parameters);
+        result.put("confidence", "unknown".equals(intent) ? 0.0 : 0.6);
+        try {
+            return objectMapper.writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void putAppName(Map<String, Object> parameters, String message) {
+        Matcher quoted = QUOTED.matcher(message);
+        if (quoted.find()) {
+            parameters.put("appName", quoted.group(1).trim());
+            return;
+        }
+        Matcher verb = APP_AFTER_VERB.matcher(message);
+        if (verb.find() && !verb.group(1).isBlank()) {
+            parameters.put("appName", verb.group(1).trim());
+        }
+    }
+
+    /**
+     * Hands out at most {@code chunk} characters per read, like a token stream.
+     */
+    private static final class ChunkedReader extends StringReader {
+        private final int chunk;
+
+        ChunkedReader(String s, int chunk) {
+            super(s);
+            this.chunk = chunk;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            return super.read(cbuf, off, Math.min(len, chunk));
+        }
+    }
+}
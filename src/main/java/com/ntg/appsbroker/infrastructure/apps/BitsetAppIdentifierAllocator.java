@@ -0,0 +1,285 @@
+package com.ntg.appsbroker.infrastructure.apps;
+
+import com.ntg.appsbroker.infrastructure.context.UpstreamBaseUrlContext;
+import com.ntg.appsbroker.infrastructure.util.BaseUrlUtil;
+import com.ntg.appsbroker.ports.AppIdentifierAllocator;
+import com.ntg.appsbroker.ports.AppsService;
+import com.ntg.appsbroker.ports.MetricsSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Infrastructure: identifier allocator keeping one 26³-bit set of taken identifiers per apps environment.
+ *
+ * <p>A set is seeded from {@link AppsService#listAppIdentifiers} on first use and re-seeded every
+ * {@code mcp.apps.identifiers.refresh-ms}; a re-seed replaces everything except pending claims and identifiers
+ * confirmed while the listing was in flight. Without a listing endpoint it only knows what this server has claimed or seen confirmed.</p>
+ */
+@Component
+public class BitsetAppIdentifierAllocator implements AppIdentifierAllocator, MetricsSource {
+    private static final Logger log = LoggerFactory.getLogger(BitsetAppIdentifierAllocator.class);
+    private static final int SPACE = 26 * 26 * 26;
+    private static final int MAX_ENVIRONMENTS = 64;
+    private static final long SEED_RETRY_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final SecureRandom RNG = new SecureRandom();
+
+    private final AppsService appsService;
+    private final UpstreamBaseUrlContext upstreamBaseUrlContext;
+    private final String baseUrl;
+    private final long refreshNanos;
+    private final Map<String, Space> spaces = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Space> eldest) {
+            return size() > MAX_ENVIRONMENTS;
+        }
+    };
+
+    private final LongAdder allocated = new LongAdder();
+    private final LongAdder reassigned = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+    private final LongAdder seeds = new LongAdder();
+    private final LongAdder seedFailures = new LongAdder();
+
+    public BitsetAppIdentifierAllocator(
+        AppsService appsService,
+        UpstreamBaseUrlContext upstreamBaseUrlContext,
+        @Value("${mcp.apps.base-url:http://localhost:7070/Smart2Go}") String baseUrl,
+        @Value("${mcp.apps.identifiers.refresh-ms:600000}") long refreshMs
+    ) {
+        this.appsService = appsService;
+        this.upstreamBaseUrlContext = upstreamBaseUrlContext;
+        this.baseUrl = BaseUrlUtil.normalize(baseUrl);
+        this.refreshNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, refreshMs));
+    }
+
+    @Override
+    public String allocate(String preferred, String sessionToken) {
+        Space space = space();
+        seed(space, sessionToken);
+        int wanted = index(preferred);
+        synchronized (space) {
+            int free;
+            if (wanted < 0) {
+                free = firstFree(space.taken, RNG.nextInt(SPACE), 0, SPACE);
+            } else {
+                free = firstFree(space.taken, wanted, wanted - wanted % 26, wanted - wanted % 26 + 26);
+                if (free < 0) {
+                    free = firstFree(space.taken, wanted, wanted - wanted % 676, wanted - wanted % 676 + 676);
+                }
+                if (free < 0) {
+                    free = firstFree(space.taken, wanted, 0, SPACE);
+                }
+            }
+            if (free < 0) {
+                exhausted.increment();
+                return null;
+            }
+            space.taken.set(free);
+            space.pending.set(free);
+            allocated.increment();
+            if (wanted >= 0 && free != wanted) {
+                reassigned.increment();
+            }
+            return identifier(free);
+        }
+    }
+
+    @Override
+    public boolean claim(String identifier) {
+        int i = index(identifier);
+        if (i < 0) {
+            return false;
+        }
+        Space space = space();
+        synchronized (space) {
+            if (space.taken.get(i)) {
+                return false;
+            }
+            space.taken.set(i);
+            space.pending.set(i);
+            return true;
+        }
+    }
+
+    @Override
+    public void confirm(String identifier) {
+        int i = index(identifier);
+        if (i < 0) {
+            return;
+        }
+        Space space = space();
+        synchronized (space) {
+            space.taken.set(i);
+            space.pending.clear(i);
+            space.confirmedSinceListing.set(i);
+        }
+    }
+
+    @Override
+    public void release(String identifier) {
+        int i = index(identifier);
+        if (i < 0) {
+            return;
+        }
+        Space space = space();
+        synchronized (space) {
+            if (space.pending.get(i)) {
+                space.pending.clear(i);
+                space.taken.clear(i);
+            }
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "apps.identifier_allocator";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        int environments;
+        synchronized (spaces) {
+            environments = spaces.size();
+        }
+        return Map.of(
+            "environments", environments,
+            "allocated", allocated.sum(),
+            "reassigned", reassigned.sum(),
+            "exhausted", exhausted.sum(),
+            "seeds", seeds.sum(),
+            "seedFailures", seedFailures.sum()
+        );
+    }
+
+    private Space space() {
+        String overrideBaseUrl = upstreamBaseUrlContext.getAppsBaseUrlOrNull();
+        String effectiveBaseUrl = overrideBaseUrl != null ? BaseUrlUtil.normalize(overrideBaseUrl) : baseUrl;
+        synchronized (spaces) {
+            return spaces.computeIfAbsent(effectiveBaseUrl, Space::new);
+        }
+    }
+
+    /**
+     * First seed blocks concurrent allocations for the environment; refreshes are done by one caller while the
+     * others keep allocating from the current set.
+     */
+    private void seed(Space space, String sessionToken) {
+        if (!space.seedDue(System.nanoTime(), refreshNanos)) {
+            return;
+        }
+        if (!space.seeded) {
+            space.seedLock.lock();
+        } else if (!space.seedLock.tryLock()) {
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            if (!space.seedDue(now, refreshNanos)) {
+                return;
+            }
+            synchronized (space) {
+                space.confirmedSinceListing.clear();
+            }
+            List<String> identifiers;
+            try {
+                identifiers = appsService.listAppIdentifiers(sessionToken);
+            } catch (RuntimeException e) {
+                seedFailures.increment();
+                space.retrying = true;
+                space.retryAt = now + SEED_RETRY_NANOS;
+                log.warn("Could not list app identifiers of {}: {}", space.baseUrl, e.getMessage());
+                return;
+            }
+            if (identifiers == null) {
+                space.listable = false;
+                return;
+            }
+            BitSet upstream = new BitSet(SPACE);
+            for (String identifier : identifiers) {
+                int i = index(identifier);
+                if (i >= 0) {
+                    upstream.set(i);
+                }
+            }
+            synchronized (space) {
+                // The listing may predate confirmations made while it was in flight.
+                upstream.or(space.pending);
+                upstream.or(space.confirmedSinceListing);
+                space.taken = upstream;
+            }
+            space.seeded = true;
+            space.seededAt = now;
+            space.retrying = false;
+            seeds.increment();
+            log.info("App identifiers of {}: {} in use", space.baseUrl, upstream.cardinality());
+        } finally {
+            space.seedLock.unlock();
+        }
+    }
+
+    /**
+     * First clear bit in [from, end), then in [start, from); -1 when there is none.
+     */
+    private static int firstFree(BitSet taken, int from, int start, int end) {
+        int i = taken.nextClearBit(from);
+        if (i < end) {
+            return i;
+        }
+        i = taken.nextClearBit(start);
+        return i < from ? i : -1;
+    }
+
+    private static int index(String identifier) {
+        if (identifier == null || identifier.length() != 3) {
+            return -1;
+        }
+        int index = 0;
+        for (int k = 0; k < 3; k++) {
+            char c = Character.toUpperCase(identifier.charAt(k));
+            if (c < 'A' || c > 'Z') {
+                return -1;
+            }
+            index = index * 26 + (c - 'A');
+        }
+        return index;
+    }
+
+    private static String identifier(int index) {
+        return "" + (char) ('A' + index / 676) + (char) ('A' + index / 26 % 26) + (char) ('A' + index % 26);
+    }
+
+    private static final class Space {
+        final String baseUrl;
+        final ReentrantLock seedLock = new ReentrantLock();
+        BitSet taken = new BitSet(SPACE);
+        final BitSet pending = new BitSet(SPACE);
+        final BitSet confirmedSinceListing = new BitSet(SPACE);
+        volatile boolean seeded;
+        volatile long seededAt;
+        volatile boolean retrying;
+        volatile long retryAt;
+        volatile boolean listable = true;
+
+        Space(String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+
+        boolean seedDue(long now, long refreshNanos) {
+            if (!listable || (retrying && now - retryAt < 0)) {
+                return false;
+            }
+            return !seeded || (refreshNanos > 0 && now - seededAt >= refreshNanos);
+        }
+    }
+}
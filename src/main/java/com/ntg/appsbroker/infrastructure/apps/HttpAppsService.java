@@ -1,7 +1,21 @@
 package com.ntg.appsbroker.infrastructure.apps;
 
+import com.ntg.appsbroker.infrastructure.context.CancellationContext;
+import com.ntg.appsbroker.infrastructure.context.ProgressContext;
 import com.ntg.appsbroker.infrastructure.context.UpstreamBaseUrlContext;
+import com.ntg.appsbroker.infrastructure.upstream.UpstreamBulkheads;
 import com.ntg.appsbroker.ports.AppsService;
+import com.ntg.appsbroker.ports.CallCancelledException;
+import com.ntg.appsbroker.ports.CancellationSignal;
+import com.ntg.appsbroker.ports.Deadline;
+import com.ntg.appsbroker.ports.DeadlineExceededException;
+import com.ntg.appsbroker.ports.ExportFailedException;
+import com.ntg.appsbroker.ports.ImportPackage;
+import com.ntg.appsbroker.ports.ProgressReporter;
+import com.ntg.appsbroker.ports.UploadedPackage;
+import com.ntg.appsbroker.ports.UpstreamBusyException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,20 +25,44 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.web.reactive.function.client.WebClientRequestException;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.ExchangeStrategies;
 import org.springframework.http.client.MultipartBodyBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
 import reactor.util.retry.Retry;
 import com.ntg.appsbroker.infrastructure.util.BaseUrlUtil;
+import com.ntg.appsbroker.infrastructure.util.CompressionUtil;
 
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.Duration;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Infrastructure: HTTP implementation of AppsService.
+ *
+ * <p>Calls wait for their exchange through {@link #await}: when the tool call is cancelled the exchange is disposed
+ * (closing its connection and the package being read) and {@link CallCancelledException} is thrown.</p>
+ *
+ * <p>Import-pipeline calls are bounded by the caller's {@link Deadline} as well as by their own timeout: validate
+ * and importApp use {@code mcp.apps.timeouts.*}, uploads the transfer time estimated by {@link UploadThroughput}
+ * (importApp adds it for the package it sends back).</p>
  */
 @Service
 public class HttpAppsService implements AppsService {
@@ -34,14 +72,56 @@ public class HttpAppsService implements AppsService {
     private final WebClient webClient;
     private final String baseUrl;
     private final UpstreamBaseUrlContext upstreamBaseUrlContext;
+    private final ProgressContext progressContext;
+    private final CancellationContext cancellationContext;
+    private final UpstreamBulkheads bulkheads;
+    private final ObjectMapper objectMapper;
+    private final long uploadSpoolThresholdBytes;
+    private final String exportPath;
+    private final ValidationCache validationCache;
+    private final UploadThroughput uploadThroughput;
+    private final Duration validateTimeout;
+    private final Duration importTimeout;
+    private final String identifiersListPath;
+    private final boolean compressRequests;
+    private final int minCompressedRequestBytes;
+    private final int compressionLevel;
     
     public HttpAppsService(
         @Value("${mcp.apps.base-url:http://localhost:7070/Smart2Go}") String baseUrl,
-        UpstreamBaseUrlContext upstreamBaseUrlContext
+        UpstreamBaseUrlContext upstreamBaseUrlContext,
+        ProgressContext progressContext,
+        CancellationContext cancellationContext,
+        UpstreamBulkheads bulkheads,
+        ObjectMapper objectMapper,
+        @Value("${mcp.apps.upload.spool-threshold-bytes:1048576}") long uploadSpoolThresholdBytes,
+        @Value("${mcp.apps.export.path:/rest/importExport/exportApp}") String exportPath,
+        ValidationCache validationCache,
+        UploadThroughput uploadThroughput,
+        @Value("${mcp.apps.timeouts.validate-ms:15000}") long validateTimeoutMs,
+        @Value("${mcp.apps.timeouts.import-ms:60000}") long importTimeoutMs,
+        @Value("${mcp.apps.identifiers.list-path:}") String identifiersListPath,
+        @Value("${mcp.apps.compression.requests-enabled:false}") boolean compressRequests,
+        @Value("${mcp.apps.compression.min-request-bytes:65536}") int minCompressedRequestBytes,
+        @Value("${mcp.apps.compression.level:6}") int compressionLevel
     ) {
         this.baseUrl = BaseUrlUtil.normalize(baseUrl);
         this.upstreamBaseUrlContext = upstreamBaseUrlContext;
-        // Bump in-memory buffer in case uploadFile returns larger payloads (integrationRepositories etc.)
+        this.progressContext = progressContext;
+        this.cancellationContext = cancellationContext;
+        this.bulkheads = bulkheads;
+        this.objectMapper = objectMapper;
+        this.uploadSpoolThresholdBytes = uploadSpoolThresholdBytes;
+        this.exportPath = exportPath;
+        this.validationCache = validationCache;
+        this.uploadThroughput = uploadThroughput;
+        this.validateTimeout = Duration.ofMillis(validateTimeoutMs);
+        this.importTimeout = Duration.ofMillis(importTimeoutMs);
+        this.identifiersListPath = identifiersListPath == null ? "" : identifiersListPath.trim();
+        this.compressRequests = compressRequests;
+        this.minCompressedRequestBytes = Math.max(0, minCompressedRequestBytes);
+        this.compressionLevel = Math.max(1, Math.min(9, compressionLevel));
+        // Decoded replies (saveApp/validate/importApp) stay small; the large uploadFile reply is spooled raw.
         var strategies = ExchangeStrategies.builder()
             .codecs(c -> c.defaultCodecs().maxInMemorySize(10 * 1024 * 1024))
             .build();
@@ -54,30 +134,101 @@ public class HttpAppsService implements AppsService {
     
     @Override
     public AppsResponse saveApp(Map<String, Object> spec, String sessionToken) {
+        String overrideBaseUrl = upstreamBaseUrlContext.getAppsBaseUrlOrNull();
+        return saveApp(overrideBaseUrl != null ? overrideBaseUrl : baseUrl, spec, sessionToken,
+            cancellationContext.current());
+    }
+
+    @Override
+    public List<SaveResult> saveApps(List<Map<String, Object>> specs, String sessionToken, int parallelism) {
+        // The calls run on worker threads: resolve the per-request base URL, progress sink and cancellation here.
+        String overrideBaseUrl = upstreamBaseUrlContext.getAppsBaseUrlOrNull();
+        String effectiveBaseUrl = overrideBaseUrl != null ? overrideBaseUrl : baseUrl;
+        ProgressReporter progress = progressContext.current();
+        CancellationSignal cancellation = cancellationContext.current();
+        AtomicInteger done = new AtomicInteger();
+
+        log.info("Calling saveApp API for {} apps ({} at a time): {}", specs.size(), parallelism,
+            effectiveBaseUrl + "/rest/Apps/saveApp");
+        return Flux.fromIterable(specs)
+            .flatMapSequential(spec -> Mono.fromCallable(() -> saveApp(effectiveBaseUrl, spec, sessionToken, cancellation))
+                .map(response -> new SaveResult(response, null))
+                .onErrorResume(RuntimeException.class, e -> Mono.just(new SaveResult(null, e)))
+                .doOnNext(r -> progress.stage(done.incrementAndGet(), specs.size(), "saveApp"))
+                .subscribeOn(Schedulers.boundedElastic()), Math.max(1, parallelism))
+            .collectList()
+            .block();
+    }
+
+    /**
+     * The listing reply may be a JSON array, or an object holding one; items are identifier strings or objects with
+     * an {@code appIdentifier} field.
+     */
+    @Override
+    public List<String> listAppIdentifiers(String sessionToken) {
+        if (identifiersListPath.isEmpty()) {
+            return null;
+        }
         String overrideBaseUrl = upstreamBaseUrlContext.getAppsBaseUrlOrNull();
         String effectiveBaseUrl = overrideBaseUrl != null ? overrideBaseUrl : baseUrl;
-        WebClient client = webClient.mutate().baseUrl(effectiveBaseUrl).build();
+        WebClient client = bulkheads.client(effectiveBaseUrl, webClient);
+
+        log.info("Listing app identifiers: {}", effectiveBaseUrl + identifiersListPath);
+        UpstreamBulkheads.Permit permit = bulkheads.acquire(effectiveBaseUrl);
+        try {
+            Object body = client.get()
+                .uri(identifiersListPath)
+                .headers(h -> applySessionHeaders(h, sessionToken))
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToMono(Object.class)
+                .timeout(Duration.ofSeconds(15))
+                .block();
+            if (body instanceof Map<?, ?> map) {
+                body = map.values().stream().filter(v -> v instanceof List<?>).findFirst().orElse(null);
+            }
+            if (!(body instanceof List<?> items)) {
+                throw new IllegalStateException("Unexpected app listing reply from " + identifiersListPath);
+            }
+            return items.stream()
+                .map(item -> item instanceof Map<?, ?> app ? app.get("appIdentifier") : item)
+                .filter(id -> id instanceof String)
+                .map(id -> ((String) id).trim().toUpperCase())
+                .toList();
+        } catch (WebClientResponseException e) {
+            throw new IllegalStateException("App listing failed: status=" + e.getStatusCode(), e);
+        } finally {
+            permit.release();
+        }
+    }
+
+    private AppsResponse saveApp(String effectiveBaseUrl, Map<String, Object> spec, String sessionToken,
+                                 CancellationSignal cancellation) {
+        WebClient client = bulkheads.client(effectiveBaseUrl, webClient);
         
         log.info("Calling saveApp API: {}", effectiveBaseUrl + "/rest/Apps/saveApp");
         log.debug("App spec: {}, sessionToken: {}", spec, sessionToken != null ? "***" : "null");
         
+
+        boolean written = true;
+        UpstreamBulkheads.Permit permit = bulkheads.acquire(effectiveBaseUrl);
         try {
-            var response = client.post()
-                .uri("/rest/Apps/saveApp")
-                .headers(h -> applySessionHeaders(h, sessionToken))
-                .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(spec)
+            var response = jsonBody(client.post()
+                    .uri("/rest/Apps/saveApp")
+                    .headers(h -> applySessionHeaders(h, sessionToken))
+                    .contentType(MediaType.APPLICATION_JSON), spec)
                 .retrieve()
                 .bodyToMono(Object.class)
                 .retryWhen(Retry.backoff(2, Duration.ofSeconds(1))
                     .filter(throwable -> throwable instanceof java.net.ConnectException))
                 .timeout(Duration.ofSeconds(10))
-                .block();
+                .as(exchange -> await(exchange, cancellation, Deadline.NONE));
             
             log.info("saveApp API response received: status=200");
             
             return new AppsResponse(200, response);
         } catch (WebClientResponseException e) {
+            written = !e.getStatusCode().is4xxClientError();
             log.error("saveApp API call failed: status={}", e.getStatusCode(), e);
             return new AppsResponse(
                 e.getStatusCode().value(),
@@ -87,56 +238,77 @@ public class HttpAppsService implements AppsService {
                     "status", e.getStatusCode().toString()
                 )
             );
+        } catch (CallCancelledException e) {
+            throw e;
         } catch (Exception e) {
             log.error("saveApp API call failed", e);
             throw new RuntimeException("Failed to save app: " + e.getMessage(), e);
+        } finally {
+            if (written) {
+                validationCache.invalidate(effectiveBaseUrl, Arrays.asList(spec.get("appIdentifier")),
+                    Arrays.asList(spec.get("appName")), List.of());
+            }
+            permit.release();
         }
     }
 
     @Override
-    public AppsResponse uploadImportFile(Path file, String sessionToken) {
+    public AppsResponse uploadImportFile(ImportPackage file, String sessionToken, Deadline deadline) {
+        deadline.throwIfExpired();
         String overrideBaseUrl = upstreamBaseUrlContext.getAppsBaseUrlOrNull();
         String effectiveBaseUrl = overrideBaseUrl != null ? overrideBaseUrl : baseUrl;
-        WebClient client = webClient.mutate().baseUrl(effectiveBaseUrl).build();
+        WebClient client = bulkheads.client(effectiveBaseUrl, webClient);
 
         log.info("Calling uploadFile API: {}", effectiveBaseUrl + "/rest/importExport/uploadFile");
-        log.debug("Uploading import file: {}, sessionToken: {}", file != null ? file.toString() : "null", sessionToken != null ? "***" : "null");
+        log.debug("Uploading import file: {}, sessionToken: {}", file != null ? file.location() : "null", sessionToken != null ? "***" : "null");
 
+
+        UpstreamBulkheads.Permit permit = bulkheads.acquire(effectiveBaseUrl);
         try {
             if (file == null) {
                 return new AppsResponse(400, Map.of("error", "file is required"));
             }
-            if (!Files.exists(file) || !Files.isRegularFile(file)) {
-                return new AppsResponse(404, Map.of("error", "File not found: " + file));
-            }
 
             // Match Python script behavior: enforce .NTGapps extension only (case-insensitive).
-            String filename = file.getFileName() != null ? file.getFileName().toString() : "";
+            String filename = file.filename();
             if (!filename.toLowerCase().endsWith(".ntgapps")) {
                 return new AppsResponse(400, Map.of("error", "Only .NTGapps files are supported.", "file", filename));
             }
 
-            long fileSize = Files.size(file);
+            long fileSize = file.size();
             if (fileSize <= 0) {
                 return new AppsResponse(400, Map.of("error", "File is empty", "file", filename));
             }
 
-            // Match Python script: read fully into memory and upload as raw bytes (octet-stream) inside multipart.
-            byte[] bytes = Files.readAllBytes(file);
-            if (bytes.length != fileSize) {
-                return new AppsResponse(400, Map.of(
-                    "error", "File read incomplete",
-                    "expectedBytes", fileSize,
-                    "actualBytes", bytes.length,
-                    "file", filename
-                ));
-            }
-
-            ByteArrayResource fileResource = new ByteArrayResource(bytes) {
+            // Streamed from the package (a file, or reassembled from the package store) as raw bytes
+            // (octet-stream) inside multipart; every subscription (retry) reads it afresh.
+            // The multipart encoder pulls the part body on Netty threads; capture the caller's reporter here.
+            ProgressReporter progress = progressContext.current();
+            AbstractResource fileResource = new AbstractResource() {
                 @Override
                 public String getFilename() {
                     return filename;
                 }
+
+                @Override
+                public String getDescription() {
+                    return "import package " + file.location();
+                }
+
+                @Override
+                public boolean exists() {
+                    return true;
+                }
+
+                @Override
+                public long contentLength() {
+                    return fileSize;
+                }
+
+                @Override
+                public InputStream getInputStream() throws IOException {
+                    return new ProgressInputStream(file.open(), fileSize, progress);
+                }
             };
 
             MultipartBodyBuilder builder = new MultipartBodyBuilder();
@@ -144,20 +316,28 @@ public class HttpAppsService implements AppsService {
                 .filename(filename)
                 .contentType(MediaType.APPLICATION_OCTET_STREAM);
 
-            var response = client.post()
+            // The reply echoes the whole package (integrationRepositories etc.): spool it raw instead of decoding it.
+            Duration timeout = uploadThroughput.uploadTimeout(effectiveBaseUrl, fileSize);
+            long started = System.nanoTime();
+            SpooledUploadedPackage uploaded = client.post()
                 .uri("/rest/importExport/uploadFile")
                 .headers(h -> applyUploadHeadersWithoutTimeOffset(h, sessionToken))
                 .contentType(MediaType.MULTIPART_FORM_DATA)
                 .body(BodyInserters.fromMultipartData(builder.build()))
                 .retrieve()
-                .bodyToMono(Object.class)
+                .bodyToFlux(DataBuffer.class)
+                // Spooling may create and write a temp file: keep it off the event loop.
+                .publishOn(Schedulers.boundedElastic())
+                .collect(() -> new SpooledUploadedPackage(uploadSpoolThresholdBytes), SpooledUploadedPackage::append)
+                .doOnDiscard(SpooledUploadedPackage.class, SpooledUploadedPackage::close)
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
                 .retryWhen(Retry.backoff(2, Duration.ofSeconds(1))
                     .filter(t -> t instanceof java.net.ConnectException || t instanceof WebClientRequestException))
-                // Match Python script behavior: allow large files (10 minutes).
-                .timeout(Duration.ofSeconds(600))
-                .block();
+                .timeout(deadline.cap(timeout))
+                .as(exchange -> await(exchange, deadline));
+            uploadThroughput.record(effectiveBaseUrl, fileSize, System.nanoTime() - started);
 
-            return new AppsResponse(200, response);
+            return new AppsResponse(200, uploaded.finish(objectMapper));
         } catch (WebClientResponseException e) {
             log.error("uploadFile API call failed: status={}", e.getStatusCode(), e);
             return new AppsResponse(
@@ -168,34 +348,149 @@ public class HttpAppsService implements AppsService {
                     "status", e.getStatusCode().toString()
                 )
             );
+        } catch (CallCancelledException | DeadlineExceededException e) {
+            throw e;
         } catch (Exception e) {
             log.error("uploadFile API call failed", e);
             throw new RuntimeException("Failed to upload import file: " + e.getMessage(), e);
+        } finally {
+            permit.release();
         }
     }
 
     @Override
-    public AppsResponse validateAppIdentifier(Map<String, Object> payload, String sessionToken) {
+    public AppsResponse uploadExportedApp(String sourceBaseUrl, String sourceSessionToken, String appIdentifier, String sessionToken,
+                                          Deadline deadline) {
+        deadline.throwIfExpired();
         String overrideBaseUrl = upstreamBaseUrlContext.getAppsBaseUrlOrNull();
         String effectiveBaseUrl = overrideBaseUrl != null ? overrideBaseUrl : baseUrl;
-        WebClient client = webClient.mutate().baseUrl(effectiveBaseUrl).build();
+        String normalizedSource = BaseUrlUtil.normalize(sourceBaseUrl);
+        WebClient source = bulkheads.client(normalizedSource, webClient);
+        WebClient target = bulkheads.client(effectiveBaseUrl, webClient);
+
+        log.info("Promoting app {}: {} -> {}", appIdentifier, normalizedSource + exportPath, effectiveBaseUrl + "/rest/importExport/uploadFile");
+
+        UpstreamBulkheads.Permit sourcePermit = bulkheads.acquire(normalizedSource);
+        UpstreamBulkheads.Permit targetPermit = null;
+        try {
+            targetPermit = bulkheads.acquire(effectiveBaseUrl);
+            ProgressReporter progress = progressContext.current();
+
+            // Export body -> multipart part -> uploadFile request, chunk by chunk: Netty demand on the target
+            // connection drives reads from the source connection. exchangeToMono releases the export body when the
+            // upload fails or times out (a partly read body closes its connection instead of returning it to the pool).
+            SpooledUploadedPackage uploaded = source.get()
+                .uri(b -> b.path(exportPath).queryParam("appIdentifier", appIdentifier).build())
+                .headers(h -> applyJsonHeadersWithTimeOffset(h, sourceSessionToken))
+                .exchangeToMono(export -> {
+                    if (!export.statusCode().is2xxSuccessful()) {
+                        // Nothing has been sent to the target yet: read (and so release) the error body and stop.
+                        int status = export.statusCode().value();
+                        return export.bodyToMono(String.class)
+                            .defaultIfEmpty("")
+                            .flatMap(body -> Mono.<SpooledUploadedPackage>error(new ExportFailedException(status, body)));
+                    }
+                    long total = export.headers().contentLength().orElse(-1);
+                    String filename = exportFilename(export.headers().asHttpHeaders(), appIdentifier);
+                    long[] sent = {0};
+                    MultipartBodyBuilder builder = new MultipartBodyBuilder();
+                    builder.asyncPart("file", export.bodyToFlux(DataBuffer.class).doOnNext(buffer -> {
+                            sent[0] += buffer.readableByteCount();
+                            progress.bytes(sent[0], total);
+                        }), DataBuffer.class)
+                        .filename(filename)
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM);
+                    return target.post()
+                        .uri("/rest/importExport/uploadFile")
+                        .headers(h -> applyUploadHeadersWithoutTimeOffset(h, sessionToken))
+                        .contentType(MediaType.MULTIPART_FORM_DATA)
+                        .body(BodyInserters.fromMultipartData(builder.build()))
+                        .retrieve()
+                        .bodyToFlux(DataBuffer.class)
+                        .publishOn(Schedulers.boundedElastic())
+                        .collect(() -> new SpooledUploadedPackage(uploadSpoolThresholdBytes), SpooledUploadedPackage::append)
+                        .doOnDiscard(SpooledUploadedPackage.class, SpooledUploadedPackage::close)
+                        .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+                })
+                // No retry: the export stream cannot be replayed once partly sent. Its size is only known once the
+                // export answers, so the upload gets the longest timeout.
+                .timeout(deadline.cap(uploadThroughput.maxTimeout()))
+                .as(exchange -> await(exchange, deadline));
+
+            return new AppsResponse(200, uploaded.finish(objectMapper));
+        } catch (ExportFailedException e) {
+            log.error("promote: exportApp from {} failed: status={}", normalizedSource, e.statusCode());
+            throw e;
+        } catch (WebClientResponseException e) {
+            log.error("promote: uploadFile failed: status={}", e.getStatusCode(), e);
+            return new AppsResponse(
+                e.getStatusCode().value(),
+                Map.of(
+                    "error", e.getMessage(),
+                    "url", e.getRequest() != null ? String.valueOf(e.getRequest().getURI()) : "",
+                    "response_body", e.getResponseBodyAsString(),
+                    "status", e.getStatusCode().toString()
+                )
+            );
+        } catch (UpstreamBusyException | CallCancelledException | DeadlineExceededException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("promote (exportApp -> uploadFile) failed", e);
+            throw new RuntimeException("Failed to stream exported app: " + e.getMessage(), e);
+        } finally {
+            if (targetPermit != null) {
+                targetPermit.release();
+            }
+            sourcePermit.release();
+        }
+    }
+
+    /**
+     * Filename from the export's Content-Disposition, else {@code <appIdentifier>.NTGapps} (uploadFile expects
+     * the .NTGapps extension).
+     */
+    private static String exportFilename(HttpHeaders headers, String appIdentifier) {
+        String filename = headers.getContentDisposition().getFilename();
+        if (filename != null && filename.toLowerCase().endsWith(".ntgapps")) {
+            return filename;
+        }
+        return appIdentifier + ".NTGapps";
+    }
+
+    @Override
+    public AppsResponse validateAppIdentifier(Map<String, Object> payload, String sessionToken, Deadline deadline) {
+        deadline.throwIfExpired();
+        String overrideBaseUrl = upstreamBaseUrlContext.getAppsBaseUrlOrNull();
+        String effectiveBaseUrl = overrideBaseUrl != null ? overrideBaseUrl : baseUrl;
+        WebClient client = bulkheads.client(effectiveBaseUrl, webClient);
+
+        ValidationCache.Key cacheKey = validationCache.key(effectiveBaseUrl, sessionToken, payload);
+        AppsResponse cached = validationCache.get(cacheKey);
+        if (cached != null) {
+            log.info("validateAppIdentifier answered from cache: {} {}", effectiveBaseUrl, payload.get("appIdentifier"));
+            return cached;
+        }
+        long cacheGeneration = validationCache.generation();
 
         log.info("Calling validateAppIdentifier API: {}", effectiveBaseUrl + "/rest/importExport/validateAppIdentifier");
 
+
+        UpstreamBulkheads.Permit permit = bulkheads.acquire(effectiveBaseUrl);
         try {
-            var response = client.post()
-                .uri("/rest/importExport/validateAppIdentifier")
-                .headers(h -> applySessionHeaders(h, sessionToken))
-                .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(payload)
+            var response = jsonBody(client.post()
+                    .uri("/rest/importExport/validateAppIdentifier")
+                    .headers(h -> applySessionHeaders(h, sessionToken))
+                    .contentType(MediaType.APPLICATION_JSON), payload)
                 .retrieve()
                 .bodyToMono(Object.class)
                 .retryWhen(Retry.backoff(2, Duration.ofSeconds(1))
                     .filter(t -> t instanceof java.net.ConnectException || t instanceof WebClientRequestException))
-                .timeout(Duration.ofSeconds(15))
-                .block();
+                .timeout(deadline.cap(validateTimeout))
+                .as(exchange -> await(exchange, deadline));
 
-            return new AppsResponse(200, response);
+            AppsResponse validated = new AppsResponse(200, response);
+            validationCache.put(cacheKey, cacheGeneration, validated);
+            return validated;
         } catch (WebClientResponseException e) {
             log.error("validateAppIdentifier API call failed: status={}", e.getStatusCode(), e);
             return new AppsResponse(
@@ -206,35 +501,57 @@ public class HttpAppsService implements AppsService {
                     "status", e.getStatusCode().toString()
                 )
             );
+        } catch (CallCancelledException | DeadlineExceededException e) {
+            throw e;
         } catch (Exception e) {
             log.error("validateAppIdentifier API call failed", e);
             throw new RuntimeException("Failed to validate app identifier: " + e.getMessage(), e);
+        } finally {
+            permit.release();
         }
     }
 
     @Override
-    public AppsResponse importApp(Map<String, Object> payload, String sessionToken) {
+    public AppsResponse importApp(UploadedPackage uploaded, Map<String, Object> overrides, String sessionToken,
+                                  Deadline deadline) {
+        if (!(uploaded instanceof SpooledUploadedPackage spooled)) {
+            throw new IllegalArgumentException("Unsupported uploaded package: " + uploaded);
+        }
+        deadline.throwIfExpired();
         String overrideBaseUrl = upstreamBaseUrlContext.getAppsBaseUrlOrNull();
         String effectiveBaseUrl = overrideBaseUrl != null ? overrideBaseUrl : baseUrl;
-        WebClient client = webClient.mutate().baseUrl(effectiveBaseUrl).build();
+        WebClient client = bulkheads.client(effectiveBaseUrl, webClient);
 
-        log.info("Calling importApp API: {}", effectiveBaseUrl + "/rest/importExport/importApp");
+        log.info("Calling importApp API: {} ({} byte payload, overrides={})",
+            effectiveBaseUrl + "/rest/importExport/importApp", uploaded.size(), overrides.keySet());
 
+        boolean written = true;
+        UpstreamBulkheads.Permit permit = bulkheads.acquire(effectiveBaseUrl);
         try {
-            var response = client.post()
+            long contentLength = spooled.splicedLength(overrides, objectMapper);
+            WebClient.RequestBodySpec request = client.post()
                 .uri("/rest/importExport/importApp")
                 .headers(h -> applyJsonHeadersWithTimeOffset(h, sessionToken))
-                .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(payload)
+                .contentType(MediaType.APPLICATION_JSON);
+            Flux<DataBuffer> body = spooled.spliced(overrides, objectMapper, DefaultDataBufferFactory.sharedInstance);
+            if (compressRequests && contentLength >= minCompressedRequestBytes) {
+                request.header(HttpHeaders.CONTENT_ENCODING, CompressionUtil.GZIP);
+                body = gzip(body, compressionLevel);
+            } else {
+                request.contentLength(contentLength);
+            }
+            var response = request
+                .body(BodyInserters.fromDataBuffers(body))
                 .retrieve()
                 .bodyToMono(Object.class)
                 .retryWhen(Retry.backoff(2, Duration.ofSeconds(1))
                     .filter(t -> t instanceof java.net.ConnectException || t instanceof WebClientRequestException))
-                .timeout(Duration.ofSeconds(60))
-                .block();
+                .timeout(deadline.cap(importTimeout.plus(uploadThroughput.transferTime(effectiveBaseUrl, contentLength))))
+                .as(exchange -> await(exchange, deadline));
 
             return new AppsResponse(200, response);
         } catch (WebClientResponseException e) {
+            written = !e.getStatusCode().is4xxClientError();
             log.error("importApp API call failed: status={}", e.getStatusCode(), e);
             return new AppsResponse(
                 e.getStatusCode().value(),
@@ -244,12 +561,118 @@ public class HttpAppsService implements AppsService {
                     "status", e.getStatusCode().toString()
                 )
             );
+        } catch (CallCancelledException | DeadlineExceededException e) {
+            throw e;
         } catch (Exception e) {
             log.error("importApp API call failed", e);
             throw new RuntimeException("Failed to import app: " + e.getMessage(), e);
+        } finally {
+            if (written) {
+                validationCache.invalidate(effectiveBaseUrl,
+                    Arrays.asList(uploaded.appIdentifier(), overrides.get("newAppIdentifier")),
+                    Arrays.asList(uploaded.appName(), overrides.get("newAppName")),
+                    Arrays.asList(uploaded.appUuid()));
+            }
+            permit.release();
         }
     }
 
+    private <T> T await(Mono<T> exchange, Deadline deadline) {
+        return await(exchange, cancellationContext.current(), deadline);
+    }
+
+    /**
+     * Blocks for {@code exchange} unless {@code cancellation} fires first, in which case the subscription is
+     * cancelled and {@link CallCancelledException} is thrown. A cancelled call does not subscribe at all. A timeout
+     * that fired because {@code deadline} passed surfaces as {@link DeadlineExceededException}.
+     */
+    private static <T> T await(Mono<T> exchange, CancellationSignal cancellation, Deadline deadline) {
+        cancellation.throwIfCancelled();
+        Sinks.One<Boolean> cancelled = Sinks.one();
+        Runnable deregister = cancellation.onCancel(() -> cancelled.tryEmitValue(true));
+        try {
+            T result = exchange.takeUntilOther(cancelled.asMono()).block();
+            if (result == null) {
+                cancellation.throwIfCancelled();
+            }
+            return result;
+        } catch (RuntimeException e) {
+            if (Exceptions.unwrap(e) instanceof TimeoutException && deadline.expired()) {
+                throw new DeadlineExceededException();
+            }
+            throw e;
+        } finally {
+            deregister.run();
+        }
+    }
+
+    /**
+     * JSON request body, sent gzip-encoded when request compression is on and the body reaches the threshold.
+     */
+    private WebClient.RequestHeadersSpec<?> jsonBody(WebClient.RequestBodySpec request, Object payload) {
+        if (!compressRequests) {
+            return request.bodyValue(payload);
+        }
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize request body: " + e.getMessage(), e);
+        }
+        if (json.length < minCompressedRequestBytes) {
+            return request.bodyValue(json);
+        }
+        return request
+            .header(HttpHeaders.CONTENT_ENCODING, CompressionUtil.GZIP)
+            .bodyValue(CompressionUtil.gzip(json, compressionLevel));
+    }
+
+    /**
+     * {@code body} gzip-encoded buffer by buffer (a fresh encoder per subscription, so retries start over).
+     */
+    private static Flux<DataBuffer> gzip(Flux<DataBuffer> body, int level) {
+        return Flux.defer(() -> {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            OutputStream encoder;
+            try {
+                encoder = CompressionUtil.compress(CompressionUtil.GZIP, compressed, level);
+            } catch (IOException e) {
+                return Flux.error(e);
+            }
+            return body
+                .map(buffer -> {
+                    try {
+                        byte[] bytes = new byte[buffer.readableByteCount()];
+                        buffer.read(bytes);
+                        encoder.write(bytes);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } finally {
+                        DataBufferUtils.release(buffer);
+                    }
+                    return drain(compressed);
+                })
+                .concatWith(Mono.fromCallable(() -> {
+                    encoder.close();
+                    return drain(compressed);
+                }))
+                .filter(buffer -> buffer.readableByteCount() > 0)
+                .doFinally(signal -> {
+                    try {
+                        encoder.close();
+                    } catch (IOException ignored) {
+                        // already failed or finished
+                    }
+                });
+        });
+    }
+
+    private static DataBuffer drain(ByteArrayOutputStream compressed) {
+        DataBuffer buffer = DefaultDataBufferFactory.sharedInstance.wrap(compressed.toByteArray());
+        compressed.reset();
+        return buffer;
+    }
+
     private static void applySessionHeaders(HttpHeaders headers, String sessionToken) {
         if (sessionToken == null) return;
         headers.set("SessionToken", sessionToken);
@@ -295,5 +718,47 @@ public class HttpAppsService implements AppsService {
         headers.set("TimeOffset", String.valueOf(DEFAULT_TIME_OFFSET_MS));
     }
 
-}
+    /**
+     * Reports bytes pulled by the multipart encoder (i.e. handed to the connection) in ~1% steps.
+     */
+    private static final class ProgressInputStream extends FilterInputStream {
+        private final long total;
+        private final long step;
+        private final ProgressReporter progress;
+        private long read;
+        private long lastReported;
+
+        ProgressInputStream(InputStream in, long total, ProgressReporter progress) {
+            super(in);
+            this.total = total;
+            this.step = Math.max(64 * 1024, total / 100);
+            this.progress = progress;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                advance(1);
+            }
+            return b;
+        }
 
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                advance(n);
+            }
+            return n;
+        }
+
+        private void advance(int n) {
+            read += n;
+            if (read - lastReported >= step || read == total) {
+                lastReported = read;
+                progress.bytes(read, total);
+            }
+        }
+    }
+}
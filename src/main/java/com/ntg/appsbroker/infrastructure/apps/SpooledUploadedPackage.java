@@ -0,0 +1,264 @@
+package com.ntg.appsbroker.infrastructure.apps;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ntg.appsbroker.ports.UploadedPackage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Infrastructure: uploadFile reply spooled as raw bytes (in memory up to a threshold, then to a temp file).
+ *
+ * <p>{@link #finish(ObjectMapper)} makes one streaming pass over the bytes: it decodes the four summary fields and
+ * records the byte range of every top-level field, skipping nested values without building them.
+ * {@link #spliced(Map, ObjectMapper, DataBufferFactory)} then re-emits those ranges with override fields in place of
+ * (or after) the originals.</p>
+ */
+final class SpooledUploadedPackage implements UploadedPackage {
+    private static final Logger log = LoggerFactory.getLogger(SpooledUploadedPackage.class);
+    private static final int COPY_CHUNK = 64 * 1024;
+    private static final byte[] COMMA = {','};
+
+    private final long spoolThreshold;
+    private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+    private byte[] bytes;
+    private Path file;
+    private FileChannel fileOut;
+    private long size;
+
+    private String appName;
+    private String appIdentifier;
+    private String appUuid;
+    private String version;
+    private final List<FieldRange> fields = new ArrayList<>();
+
+    SpooledUploadedPackage(long spoolThreshold) {
+        this.spoolThreshold = spoolThreshold;
+    }
+
+    /**
+     * Appends (and releases) one response chunk, moving to a temp file once the threshold is crossed.
+     */
+    SpooledUploadedPackage append(DataBuffer buffer) {
+        try {
+            byte[] chunk = new byte[buffer.readableByteCount()];
+            buffer.read(chunk);
+            if (fileOut == null && memory.size() + chunk.length > spoolThreshold) {
+                file = Files.createTempFile("uploadFile-", ".json");
+                fileOut = FileChannel.open(file, StandardOpenOption.WRITE);
+                writeFully(fileOut, memory.toByteArray());
+                memory = null;
+            }
+            if (fileOut != null) {
+                writeFully(fileOut, chunk);
+            } else {
+                memory.write(chunk);
+            }
+            size += chunk.length;
+            return this;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to spool uploadFile response", e);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    /**
+     * Ends spooling and indexes the top-level fields of the reply.
+     */
+    SpooledUploadedPackage finish(ObjectMapper objectMapper) {
+        try {
+            if (fileOut != null) {
+                fileOut.close();
+                fileOut = null;
+            } else {
+                bytes = memory.toByteArray();
+                memory = null;
+            }
+            try (JsonParser parser = objectMapper.getFactory().createParser(open())) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    return this; // not an object: summary stays empty and the caller reports missing fields
+                }
+                JsonToken token;
+                while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                    String name = parser.currentName();
+                    long start = parser.currentTokenLocation().getByteOffset();
+                    JsonToken value = parser.nextToken();
+                    String text = null;
+                    if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+                        parser.skipChildren();
+                    } else if (value != JsonToken.VALUE_NULL) {
+                        text = parser.getValueAsString(); // also completes lazily-read strings
+                    }
+                    long end = parser.currentLocation().getByteOffset();
+                    fields.add(new FieldRange(name, start, end));
+                    switch (name) {
+                        case "appName" -> appName = text;
+                        case "appIdentifier" -> appIdentifier = text;
+                        case "appUuid" -> appUuid = text;
+                        case "version" -> version = text;
+                        default -> { }
+                    }
+                }
+                if (token != JsonToken.END_OBJECT) {
+                    throw new IOException("Malformed uploadFile response");
+                }
+            }
+            log.debug("Spooled uploadFile response: {} bytes, {} top-level fields, onDisk={}", size, fields.size(), file != null);
+            return this;
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException("Failed to parse uploadFile response", e);
+        }
+    }
+
+    /**
+     * The reply with {@code overrides} spliced in: untouched fields are copied as raw byte ranges.
+     */
+    Flux<DataBuffer> spliced(Map<String, Object> overrides, ObjectMapper objectMapper, DataBufferFactory factory) {
+        byte[] tail = overridesJson(overrides, objectMapper);
+        Set<String> replaced = overrides.keySet();
+        return Flux.defer(() -> {
+            List<Flux<DataBuffer>> parts = new ArrayList<>();
+            parts.add(Flux.just(factory.wrap(new byte[] {'{'})));
+            boolean first = true;
+            for (FieldRange field : fields) {
+                if (replaced.contains(field.name)) {
+                    continue;
+                }
+                if (!first) {
+                    parts.add(Flux.just(factory.wrap(COMMA)));
+                }
+                parts.add(range(field.start, field.end - field.start, factory));
+                first = false;
+            }
+            if (tail.length > 0) {
+                if (!first) {
+                    parts.add(Flux.just(factory.wrap(COMMA)));
+                }
+                parts.add(Flux.just(factory.wrap(tail)));
+            }
+            parts.add(Flux.just(factory.wrap(new byte[] {'}'})));
+            return Flux.concat(parts);
+        });
+    }
+
+    /**
+     * Exact byte length of {@link #spliced} for the same overrides (sent as Content-Length).
+     */
+    long splicedLength(Map<String, Object> overrides, ObjectMapper objectMapper) {
+        long length = 2 + overridesJson(overrides, objectMapper).length;
+        int kept = 0;
+        for (FieldRange field : fields) {
+            if (!overrides.containsKey(field.name)) {
+                length += field.end - field.start;
+                kept++;
+            }
+        }
+        int parts = kept + (overrides.isEmpty() ? 0 : 1);
+        return length + Math.max(0, parts - 1);
+    }
+
+    @Override
+    public String appName() {
+        return appName;
+    }
+
+    @Override
+    public String appIdentifier() {
+        return appIdentifier;
+    }
+
+    @Override
+    public String appUuid() {
+        return appUuid;
+    }
+
+    @Override
+    public String version() {
+        return version;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (fileOut != null) {
+                fileOut.close();
+                fileOut = null;
+            }
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to delete spooled uploadFile response {}: {}", file, e.toString());
+        }
+        memory = null;
+        bytes = null;
+    }
+
+    private InputStream open() throws IOException {
+        return file != null
+            ? new BufferedInputStream(Files.newInputStream(file), COPY_CHUNK)
+            : new ByteArrayInputStream(bytes);
+    }
+
+    private Flux<DataBuffer> range(long start, long length, DataBufferFactory factory) {
+        if (file == null) {
+            return Flux.just(factory.wrap(ByteBuffer.wrap(bytes, (int) start, (int) length).slice()));
+        }
+        return DataBufferUtils.takeUntilByteCount(
+            DataBufferUtils.readAsynchronousFileChannel(
+                () -> AsynchronousFileChannel.open(file, StandardOpenOption.READ), start, factory, COPY_CHUNK),
+            length);
+    }
+
+    private static byte[] overridesJson(Map<String, Object> overrides, ObjectMapper objectMapper) {
+        if (overrides.isEmpty()) {
+            return new byte[0];
+        }
+        try {
+            // Serialize as an object and drop the braces: "k1":v1,"k2":v2
+            byte[] json = objectMapper.writeValueAsBytes(overrides);
+            return Arrays.copyOfRange(json, 1, json.length - 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private record FieldRange(String name, long start, long end) {}
+}
@@ -0,0 +1,104 @@
+package com.ntg.appsbroker.infrastructure.apps;
+
+import com.ntg.appsbroker.ports.MetricsSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Infrastructure: measured upload throughput per apps environment (EWMA of completed uploadFile calls), used to
+ * size transfer timeouts by payload size.
+ *
+ * <p>Until an environment has a sample, {@code mcp.apps.upload.initial-bytes-per-second} is assumed. Uploads
+ * smaller than {@value #MIN_SAMPLE_BYTES} bytes are latency-bound and not sampled.</p>
+ */
+@Component
+public class UploadThroughput implements MetricsSource {
+    static final long MIN_SAMPLE_BYTES = 256 * 1024;
+    private static final double ALPHA = 0.3;
+    /** Timeouts allow this many times the estimated transfer time. */
+    private static final double SLACK = 4.0;
+    private static final int MAX_ENVIRONMENTS = 64;
+
+    private final double initialBytesPerSecond;
+    private final Duration minTimeout;
+    private final Duration maxTimeout;
+    private final Map<String, Double> bytesPerSecond = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Double> eldest) {
+            return size() > MAX_ENVIRONMENTS;
+        }
+    };
+    private long samples;
+
+    public UploadThroughput(
+        @Value("${mcp.apps.upload.initial-bytes-per-second:262144}") long initialBytesPerSecond,
+        @Value("${mcp.apps.upload.min-timeout-ms:30000}") long minTimeoutMs,
+        @Value("${mcp.apps.upload.max-timeout-ms:600000}") long maxTimeoutMs
+    ) {
+        this.initialBytesPerSecond = Math.max(1, initialBytesPerSecond);
+        this.minTimeout = Duration.ofMillis(Math.max(1, minTimeoutMs));
+        this.maxTimeout = Duration.ofMillis(Math.max(minTimeoutMs, maxTimeoutMs));
+    }
+
+    /**
+     * Estimated time to send {@code bytes} to {@code baseUrl}, with slack.
+     */
+    Duration transferTime(String baseUrl, long bytes) {
+        double rate;
+        synchronized (bytesPerSecond) {
+            rate = bytesPerSecond.getOrDefault(baseUrl, initialBytesPerSecond);
+        }
+        return Duration.ofMillis((long) Math.ceil(SLACK * 1000 * Math.max(0, bytes) / rate));
+    }
+
+    /**
+     * Upload timeout for {@code bytes}: the transfer time, kept within {@code mcp.apps.upload.min-timeout-ms} and
+     * {@code max-timeout-ms}.
+     */
+    Duration uploadTimeout(String baseUrl, long bytes) {
+        Duration transfer = transferTime(baseUrl, bytes);
+        if (transfer.compareTo(minTimeout) < 0) {
+            return minTimeout;
+        }
+        return transfer.compareTo(maxTimeout) > 0 ? maxTimeout : transfer;
+    }
+
+    Duration maxTimeout() {
+        return maxTimeout;
+    }
+
+    void record(String baseUrl, long bytes, long elapsedNanos) {
+        if (bytes < MIN_SAMPLE_BYTES || elapsedNanos <= 0) {
+            return;
+        }
+        double sample = bytes * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        synchronized (bytesPerSecond) {
+            Double current = bytesPerSecond.get(baseUrl);
+            bytesPerSecond.put(baseUrl, current == null ? sample : current + ALPHA * (sample - current));
+            samples++;
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "apps.upload_throughput";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        synchronized (bytesPerSecond) {
+            Map<String, Object> rates = new LinkedHashMap<>();
+            bytesPerSecond.forEach((baseUrl, rate) -> rates.put(baseUrl, Math.round(rate)));
+            return Map.of(
+                "initialBytesPerSecond", Math.round(initialBytesPerSecond),
+                "samples", samples,
+                "bytesPerSecond", rates
+            );
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.ntg.appsbroker.infrastructure.apps;
+
+import com.ntg.appsbroker.domain.TokenDigest;
+import com.ntg.appsbroker.ports.AppsService.AppsResponse;
+import com.ntg.appsbroker.ports.MetricsSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Infrastructure: short-lived cache of successful validateAppIdentifier replies, keyed by
+ * (apps base URL, session token digest, appName, appIdentifier, appUuid), so a reply is only reused for the token it
+ * was validated with.
+ *
+ * <p>Entries live for {@code mcp.apps.validation-cache.ttl-ms} (0 disables the cache) in an LRU of
+ * {@code mcp.apps.validation-cache.max-entries}. When this server sends importApp or saveApp for an app (and it is
+ * not rejected with a 4xx), entries of that environment matching its identifier, name or uuid are dropped; a
+ * validation that was in flight across such a write is not cached.</p>
+ */
+@Component
+public class ValidationCache implements MetricsSource {
+    private final long ttlNanos;
+    private final Map<Key, Entry> entries;
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidated = new LongAdder();
+
+    public ValidationCache(
+        @Value("${mcp.apps.validation-cache.ttl-ms:30000}") long ttlMs,
+        @Value("${mcp.apps.validation-cache.max-entries:1024}") int maxEntries
+    ) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, ttlMs));
+        int capacity = Math.max(1, maxEntries);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Cache key of a validateAppIdentifier payload; null when the cache is off or the payload lacks a field.
+     */
+    Key key(String baseUrl, String sessionToken, Map<String, Object> payload) {
+        if (ttlNanos == 0) {
+            return null;
+        }
+        Object appName = payload.get("appName");
+        Object appIdentifier = payload.get("appIdentifier");
+        Object appUuid = payload.get("appUuid");
+        if (appName == null || appIdentifier == null || appUuid == null) {
+            return null;
+        }
+        return new Key(baseUrl, TokenDigest.of(sessionToken),
+            String.valueOf(appName), String.valueOf(appIdentifier), String.valueOf(appUuid));
+    }
+
+    AppsResponse get(Key key) {
+        if (key == null) {
+            return null;
+        }
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && System.nanoTime() - entry.storedNanos < ttlNanos) {
+                hits.increment();
+                return entry.response;
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Marks the start of an upstream validation; pass the result to {@link #put}.
+     */
+    long generation() {
+        synchronized (entries) {
+            return generation;
+        }
+    }
+
+    /**
+     * Stores a 200 reply unless an invalidation happened since {@code startGeneration}.
+     */
+    void put(Key key, long startGeneration, AppsResponse response) {
+        if (key == null || response.statusCode() != 200) {
+            return;
+        }
+        synchronized (entries) {
+            if (generation == startGeneration) {
+                entries.put(key, new Entry(response, System.nanoTime()));
+            }
+        }
+    }
+
+    /**
+     * Drops the entries of {@code baseUrl} whose identifier, name or uuid is one of the given values (ignoring case;
+     * nulls are ignored).
+     */
+    void invalidate(String baseUrl, Collection<?> identifiers, Collection<?> names, Collection<?> uuids) {
+        if (ttlNanos == 0) {
+            return;
+        }
+        synchronized (entries) {
+            generation++;
+            int before = entries.size();
+            entries.keySet().removeIf(k -> k.baseUrl.equals(baseUrl)
+                && (matches(identifiers, k.appIdentifier) || matches(names, k.appName) || matches(uuids, k.appUuid)));
+            invalidated.add(before - entries.size());
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "apps.validation_cache";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        long h = hits.sum();
+        long m = misses.sum();
+        return Map.of(
+            "ttlMs", TimeUnit.NANOSECONDS.toMillis(ttlNanos),
+            "entries", size,
+            "hits", h,
+            "misses", m,
+            "hitRatio", h + m == 0 ? 0.0 : (double) h / (h + m),
+            "invalidated", invalidated.sum()
+        );
+    }
+
+    private static boolean matches(Collection<?> values, String field) {
+        for (Object value : values) {
+            if (value != null && String.valueOf(value).equalsIgnoreCase(field)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    record Key(String baseUrl, String session, String appName, String appIdentifier, String appUuid) {}
+
+    private record Entry(AppsResponse response, long storedNanos) {}
+}
@@ -1,6 +1,7 @@
 package com.ntg.appsbroker.infrastructure.auth;
 
 import com.ntg.appsbroker.infrastructure.context.UpstreamBaseUrlContext;
+import com.ntg.appsbroker.infrastructure.upstream.UpstreamBulkheads;
 import com.ntg.appsbroker.ports.AuthService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,15 +26,18 @@ public class HttpAuthService implements AuthService {
     private final String baseUrl;
     private final boolean enabled;
     private final UpstreamBaseUrlContext upstreamBaseUrlContext;
+    private final UpstreamBulkheads bulkheads;
     
     public HttpAuthService(
         @Value("${mcp.auth.base-url:http://localhost:7070/Smart2Go}") String baseUrl,
         @Value("${mcp.auth.integration-enabled:false}") boolean enabled,
-        UpstreamBaseUrlContext upstreamBaseUrlContext
+        UpstreamBaseUrlContext upstreamBaseUrlContext,
+        UpstreamBulkheads bulkheads
     ) {
         this.baseUrl = BaseUrlUtil.normalize(baseUrl);
         this.enabled = enabled;
         this.upstreamBaseUrlContext = upstreamBaseUrlContext;
+        this.bulkheads = bulkheads;
         this.webClient = WebClient.builder()
             .baseUrl(this.baseUrl)
             .defaultHeader("SessionToken", "NTG")
@@ -53,7 +57,7 @@ public class HttpAuthService implements AuthService {
         
         String overrideBaseUrl = upstreamBaseUrlContext.getAuthBaseUrlOrNull();
         String effectiveBaseUrl = overrideBaseUrl != null ? overrideBaseUrl : baseUrl;
-        WebClient client = webClient.mutate().baseUrl(effectiveBaseUrl).build();
+        WebClient client = bulkheads.client(effectiveBaseUrl, webClient);
         
         Map<String, Object> payload = new HashMap<>();
         Map<String, Object> loginUserInfo = new HashMap<>();
@@ -64,6 +68,7 @@ public class HttpAuthService implements AuthService {
         
         log.info("Calling login API: {}", effectiveBaseUrl + "/rest/MainFunciton/login");
         
+        UpstreamBulkheads.Permit permit = bulkheads.acquire(effectiveBaseUrl);
         try {
             Map<String, Object> response = client.post()
                 .uri("/rest/MainFunciton/login")
@@ -87,6 +92,8 @@ public class HttpAuthService implements AuthService {
         } catch (Exception e) {
             log.error("Login API call failed", e);
             throw new RuntimeException("Login failed: " + e.getMessage(), e);
+        } finally {
+            permit.release();
         }
     }
     
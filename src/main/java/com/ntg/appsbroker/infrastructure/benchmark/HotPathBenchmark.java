@@ -0,0 +1,192 @@
+package com.ntg.appsbroker.infrastructure.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.ntg.appsbroker.adapters.schema.CompiledSchema;
+import com.ntg.appsbroker.adapters.schema.SchemaViolation;
+import com.ntg.appsbroker.adapters.schema.StreamingSchemaReader;
+import com.ntg.appsbroker.domain.McpSuccess;
+import com.ntg.appsbroker.usecases.FastPathIntentRouter;
+import com.ntg.appsbroker.usecases.tools.ToolDefinition;
+import com.ntg.appsbroker.usecases.tools.ToolRateLimiter;
+import com.ntg.appsbroker.usecases.tools.ToolRegistry;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line micro-benchmarks for request hot paths (run outside Spring, after a warm-up round).
+ *
+ * <pre>
+ * schema [iterations]      CompiledSchema.validate on tool arguments, StreamingSchemaReader on AI output
+ * router [iterations]      FastPathIntentRouter on routed, ambiguous and model-bound ai.intent messages
+ * ratelimit [iterations]   ToolRateLimiter.tryAcquire (GCRA): one caller, many callers, unverified tokens,
+ *                          8 threads on one bucket
+ * </pre>
+ *
+ * <p>Each case reports ns/op and bytes allocated per op by the benchmark thread.</p>
+ */
+public final class HotPathBenchmark {
+    private static final List<String> CASES = List.of("schema", "router", "ratelimit");
+
+    private static volatile Object sink;
+
+    private HotPathBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1 || !(CASES.contains(args[0]) || args[0].equals("all"))) {
+            System.err.println("usage: " + String.join(" | ", CASES) + " | all [iterations]");
+            System.exit(2);
+        }
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        for (String name : args[0].equals("all") ? CASES : List.of(args[0])) {
+            switch (name) {
+                case "schema" -> schema(iterations);
+                case "router" -> router(iterations);
+                case "ratelimit" -> rateLimit(iterations);
+                default -> throw new IllegalStateException(name);
+            }
+        }
+    }
+
+    private static void schema(int iterations) throws IOException {
+        CompiledSchema createApp = CompiledSchema.compile(Map.of(
+            "type", "object",
+            "properties", Map.of(
+                "appName", Map.of("type", "string", "minLength", 1),
+                "appIdentifier", Map.of("type", "string", "minLength", 1, "maxLength", 8),
+                "shortNotes", Map.of("type", "string"),
+                "icon", Map.of("type", "string"),
+                "AppearOnMobile", Map.of("type", "boolean"),
+                "priority", Map.of("type", "integer", "enum", List.of(1, 2, 3)),
+                "idempotencyKey", Map.of("type", "string", "minLength", 1, "maxLength", 128)
+            ),
+            "required", List.of("appName"),
+            "additionalProperties", false
+        ));
+        Map<String, Object> valid = new LinkedHashMap<>();
+        valid.put("appName", "Purchase Orders");
+        valid.put("appIdentifier", "PUR");
+        valid.put("icon", "fa fa-heart");
+        valid.put("AppearOnMobile", true);
+        valid.put("priority", 2.0);
+        valid.put("idempotencyKey", "3f1c2a");
+        Map<String, Object> invalid = new LinkedHashMap<>(valid);
+        invalid.put("appIdentifier", "");
+
+        if (createApp.validate(valid) != null || createApp.validate(invalid) == null) {
+            throw new IllegalStateException("benchmark arguments do not validate as expected");
+        }
+        run("validate valid arguments", iterations, () -> sink = createApp.validate(valid));
+        run("validate invalid arguments", iterations, () -> sink = createApp.validate(invalid));
+
+        CompiledSchema intent = CompiledSchema.compile(Map.of(
+            "type", "object",
+            "properties", Map.of(
+                "intent", Map.of("type", "string", "maxLength", 64),
+                "parameters", Map.of("type", "object"),
+                "confidence", Map.of("type", "number")
+            ),
+            "required", List.of("intent")
+        ));
+        String output = "{\"intent\":\"create_app\",\"parameters\":{\"appName\":\"Purchase Orders\"},\"confidence\":0.92}";
+        StreamingSchemaReader reader = new StreamingSchemaReader(32);
+        JsonFactory json = new JsonFactory();
+        run("stream-read intent output", Math.max(1, iterations / 10), () -> {
+            try (JsonParser parser = json.createParser(output)) {
+                sink = reader.readDocument(parser, intent);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        SchemaViolation violation = createApp.validate(invalid);
+        System.out.printf("(invalid case reports %s)%n", violation);
+    }
+
+    private static void router(int iterations) {
+        ToolRegistry registry = new ToolRegistry();
+        for (String tool : List.of("ping", "login", "create_app", "import_app")) {
+            registry.register(new ToolDefinition(tool, tool, Map.of("type", "object"), false),
+                (request, clientId) -> new McpSuccess(request.requestId(), Map.of()));
+        }
+        FastPathIntentRouter router = new FastPathIntentRouter(registry);
+        router.compile();
+
+        Map<String, String> messages = new LinkedHashMap<>();
+        messages.put("route create_app", "please create a new app called 'Purchase Orders' with identifier PUR");
+        messages.put("route import_app", "import the app Inventory Tracker");
+        messages.put("route ping", "are you alive?");
+        messages.put("ambiguous", "create app Sales and import app Stock");
+        messages.put("to model", "how do I import data from a spreadsheet into an existing form?");
+        for (Map.Entry<String, String> message : messages.entrySet()) {
+            run(message.getKey(), iterations, () -> sink = router.route(message.getValue()));
+            System.out.printf("  -> %s%n", router.route(message.getValue())
+                .map(r -> r.intent() + " " + r.parameters()).orElse("model"));
+        }
+    }
+
+    private static void rateLimit(int iterations) throws InterruptedException {
+        // Limits far above the benchmark rate: every acquire is allowed and takes the full CAS path.
+        ToolRateLimiter limiter = new ToolRateLimiter(new StandardEnvironment(), true,
+            1e12, 1_000_000, 1e12, 1_000_000, 1e12, 1_000_000);
+        String origin = "127.0.0.1";
+        limiter.verified("session-token");
+        String caller = limiter.callerOf("session-token");
+        String[] callers = new String[1024];
+        for (int i = 0; i < callers.length; i++) {
+            limiter.verified("session-token-" + i);
+            callers[i] = limiter.callerOf("session-token-" + i);
+        }
+        run("acquire, one caller", iterations, () -> sink = limiter.tryAcquire(origin, caller, "create_app"));
+        int[] next = {0};
+        run("acquire, 1024 callers", iterations,
+            () -> sink = limiter.tryAcquire(origin, callers[next[0]++ & (callers.length - 1)], "create_app"));
+        run("acquire, unverified token", Math.max(1, iterations / 10),
+            () -> sink = limiter.tryAcquire(origin, limiter.callerOf("forged-" + next[0]++), "create_app"));
+
+        ToolRateLimiter saturated = new ToolRateLimiter(new StandardEnvironment(), true, 0, 0, 1, 1, 0, 0);
+        saturated.tryAcquire(origin, caller, "create_app");
+        run("acquire, rejected", iterations, () -> sink = saturated.tryAcquire(origin, caller, "create_app"));
+
+        int threads = 8;
+        int perThread = Math.max(1, iterations / threads);
+        Thread[] workers = new Thread[threads];
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    sink = limiter.tryAcquire(origin, caller, "import_app");
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-32s %,12d ops  %10.1f ns/op  (%d threads, one bucket, wall clock)%n", "acquire, contended",
+            (long) perThread * threads, (double) elapsed / ((long) perThread * threads), threads);
+    }
+
+    private static void run(String name, int iterations, Runnable op) {
+        for (int i = 0; i < Math.max(1, iterations / 4); i++) {
+            op.run();
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            op.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+        System.out.printf("%-32s %,12d ops  %10.1f ns/op  %8.1f B/op%n", name, iterations,
+            (double) elapsed / iterations, (double) allocated / iterations);
+    }
+}
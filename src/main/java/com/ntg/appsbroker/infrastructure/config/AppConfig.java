@@ -2,6 +2,10 @@ package com.ntg.appsbroker.infrastructure.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.ntg.appsbroker.infrastructure.mcp.McpStdioServer;
+import com.ntg.appsbroker.mcp.adapter.http.McpHttpJsonRpcController;
+import com.ntg.appsbroker.usecases.HandleMcpRequestUseCase;
+import org.springframework.boot.LazyInitializationExcludeFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
@@ -19,5 +23,19 @@ public class AppConfig {
         mapper.registerModule(new JavaTimeModule());
         return mapper;
     }
+
+    /**
+     * With {@code spring.main.lazy-initialization} (MCP_LAZY_INIT) only the request path is built at startup: the
+     * transports and the request use case (with the collaborators it injects). Everything else - metrics endpoint,
+     * AI gateway, context assembly - is created on first use.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter requestPathEagerBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+            McpHttpJsonRpcController.class,
+            McpStdioServer.class,
+            HandleMcpRequestUseCase.class
+        );
+    }
 }
 
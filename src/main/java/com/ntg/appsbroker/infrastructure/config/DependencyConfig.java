@@ -1,10 +1,16 @@
 package com.ntg.appsbroker.infrastructure.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ntg.appsbroker.adapters.PromptBuilder;
 import com.ntg.appsbroker.ports.*;
 import com.ntg.appsbroker.infrastructure.context.*;
+import com.ntg.appsbroker.infrastructure.packages.ContentAddressedPackageStore;
+import com.ntg.appsbroker.infrastructure.packages.DirectoryImportPackageStore;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -26,6 +32,28 @@ public class DependencyConfig {
         providers.put("files", fileContextProvider);
         return providers;
     }
+
+    /**
+     * import_app package storage: {@code directory} (plain .NTGapps files) or {@code cas} (deduplicated store built
+     * by PackageStoreCommand ingest), both rooted at mcp.import.apps-dir.
+     */
+    @Bean
+    public ImportPackageStore importPackageStore(
+        @Value("${mcp.import.store:directory}") String store,
+        @Value("${mcp.import.apps-dir:storage/import-apps}") String importAppsDir,
+        ObjectMapper objectMapper
+    ) {
+        return switch (store.toLowerCase()) {
+            case "directory" -> new DirectoryImportPackageStore(importAppsDir);
+            case "cas" -> new ContentAddressedPackageStore(Paths.get(importAppsDir), objectMapper);
+            default -> throw new IllegalStateException("Unknown mcp.import.store: " + store + " (expected directory or cas)");
+        };
+    }
+
+    @Bean
+    public PromptBuilder promptBuilder() {
+        return new PromptBuilder();
+    }
     
     // AuthService and AppsService are already @Service, so Spring will auto-wire them
     // This config just ensures they're available as beans
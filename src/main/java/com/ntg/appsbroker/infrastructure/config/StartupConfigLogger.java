@@ -31,16 +31,18 @@ public class StartupConfigLogger implements ApplicationRunner {
         String appsEnabled = env.getProperty("mcp.apps.integration-enabled", "false");
         String appsBaseUrl = env.getProperty("mcp.apps.base-url", "");
         String importDir = env.getProperty("mcp.import.apps-dir", "");
+        String importStore = env.getProperty("mcp.import.store", "directory");
 
         log.info(
-            "MCP runtime config: MCP_HTTP_SSE_MODE={}, MCP_STDIO_MODE={}, mcp.auth.integration-enabled={}, mcp.auth.base-url={}, mcp.apps.integration-enabled={}, mcp.apps.base-url={}, mcp.import.apps-dir={}",
+            "MCP runtime config: MCP_HTTP_SSE_MODE={}, MCP_STDIO_MODE={}, mcp.auth.integration-enabled={}, mcp.auth.base-url={}, mcp.apps.integration-enabled={}, mcp.apps.base-url={}, mcp.import.apps-dir={}, mcp.import.store={}",
             nullToEmpty(httpSseMode),
             nullToEmpty(stdioMode),
             authEnabled,
             authBaseUrl,
             appsEnabled,
             appsBaseUrl,
-            importDir
+            importDir,
+            importStore
         );
     }
 
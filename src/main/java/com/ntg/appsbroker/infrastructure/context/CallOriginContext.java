@@ -0,0 +1,30 @@
+package com.ntg.appsbroker.infrastructure.context;
+
+import com.ntg.appsbroker.ports.CallOrigin;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-request call origin, bound by the transport for the duration of a message.
+ */
+@Component
+public class CallOriginContext implements CallOrigin {
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    public void bind(String origin) {
+        if (origin == null || origin.isBlank()) {
+            CURRENT.remove();
+            return;
+        }
+        CURRENT.set(origin);
+    }
+
+    public void clear() {
+        CURRENT.remove();
+    }
+
+    @Override
+    public String current() {
+        String origin = CURRENT.get();
+        return origin == null ? UNKNOWN : origin;
+    }
+}
@@ -0,0 +1,43 @@
+package com.ntg.appsbroker.infrastructure.context;
+
+import com.ntg.appsbroker.ports.CancellationSignal;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-request cancellation signal, bound by the transport for the duration of a tool call.
+ *
+ * <p>The bean itself is the {@link CancellationSignal} seen by use cases and delegates to the signal bound on the
+ * current thread. Code that continues on other threads must capture {@link #current()} on the calling thread
+ * first.</p>
+ */
+@Component
+public class CancellationContext implements CancellationSignal {
+    private static final ThreadLocal<CancellationSignal> CURRENT = new ThreadLocal<>();
+
+    public void bind(CancellationSignal signal) {
+        if (signal == null) {
+            CURRENT.remove();
+            return;
+        }
+        CURRENT.set(signal);
+    }
+
+    public CancellationSignal current() {
+        CancellationSignal s = CURRENT.get();
+        return s == null ? NONE : s;
+    }
+
+    public void clear() {
+        CURRENT.remove();
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return current().isCancelled();
+    }
+
+    @Override
+    public Runnable onCancel(Runnable action) {
+        return current().onCancel(action);
+    }
+}
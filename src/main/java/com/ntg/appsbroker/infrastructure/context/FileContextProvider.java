@@ -1,54 +1,101 @@
 package com.ntg.appsbroker.infrastructure.context;
 
 import com.ntg.appsbroker.ports.ContextProvider;
+import com.ntg.appsbroker.ports.MetricsSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Infrastructure: File context provider (default-deny, allowlist-based).
+ *
+ * <p>Disk reads are bounded: at most {@code mcp.file.max-bytes-per-file} bytes of each file are returned,
+ * selected as head (default), tail ({@code "select": "tail"}) or a 1-based line range
+ * ({@code startLine}/{@code endLine}). Files of at least {@code mcp.file.mmap-threshold-bytes} are read
+ * through memory-mapped ranges so only the selected region is paged in. Selections are cached by
+ * (path, mtime, size, selection) in an LRU bounded to {@code mcp.file.cache.max-bytes}; a repeated request
+ * for an unchanged file costs one attribute lookup.</p>
  */
 @Component
-public class FileContextProvider implements ContextProvider {
-    @Value("${mcp.file.allowed-roots:}")
-    private String allowedRootsConfig;
-    
+public class FileContextProvider implements ContextProvider, MetricsSource {
+    private static final Logger log = LoggerFactory.getLogger(FileContextProvider.class);
+    /** Line-range scans map large files in windows of this size. */
+    private static final long SCAN_WINDOW = 32L * 1024 * 1024;
+
+    private final List<Path> allowedRoots;
+    private final int maxBytesPerFile;
+    private final long mmapThresholdBytes;
+    private final long cacheMaxBytes;
+
+    private final LinkedHashMap<ContentKey, Content> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder readErrors = new LongAdder();
+
+    public FileContextProvider(
+        @Value("${mcp.file.allowed-roots:}") String allowedRootsConfig,
+        @Value("${mcp.file.max-bytes-per-file:65536}") int maxBytesPerFile,
+        @Value("${mcp.file.mmap-threshold-bytes:1048576}") long mmapThresholdBytes,
+        @Value("${mcp.file.cache.max-bytes:16777216}") long cacheMaxBytes
+    ) {
+        this.allowedRoots = parseAllowedRoots(allowedRootsConfig);
+        this.maxBytesPerFile = Math.max(1, maxBytesPerFile);
+        this.mmapThresholdBytes = mmapThresholdBytes;
+        this.cacheMaxBytes = cacheMaxBytes;
+    }
+
     @Override
     public String name() {
         return "files";
     }
-    
+
+    /**
+     * Allowed roots, parsed once at startup (absolute, normalized). Empty means disk access is disabled.
+     */
+    public List<Path> allowedRoots() {
+        return allowedRoots;
+    }
+
     @Override
     public Map<String, Object> provide(Map<String, Object> requestParameters, Set<String> allowlist) {
         // Default-deny: only return explicitly allowlisted files
         Map<String, Object> context = new HashMap<>();
         List<Map<String, Object>> files = new ArrayList<>();
-        
+
         @SuppressWarnings("unchecked")
         List<Map<String, Object>> requested = (List<Map<String, Object>>) requestParameters.get("files");
         if (requested == null) {
             return context;
         }
-        
-        List<Path> allowedRoots = parseAllowedRoots();
-        
+
         for (Map<String, Object> item : requested) {
             String pathStr = (String) item.get("path");
             if (pathStr == null || pathStr.isBlank()) {
                 continue;
             }
-            
+
             Path path = Paths.get(pathStr).normalize();
             String normalized = path.toString();
-            
+
             if (!allowlist.contains(normalized)) {
                 continue; // Default-deny
             }
-            
+
             // If content is provided inline, use it
             Object content = item.get("content");
             if (content instanceof String) {
@@ -59,37 +106,232 @@ public class FileContextProvider implements ContextProvider {
                 ));
                 continue;
             }
-            
+
             // Disk read (must be under allowed roots)
             if (allowedRoots.isEmpty()) {
                 continue; // Disk access disabled
             }
-            
-            if (!isUnderAllowedRoots(path, allowedRoots)) {
+
+            if (!isUnderAllowedRoots(path)) {
                 continue; // Outside allowed roots
             }
-            
+
             try {
-                String fileContent = Files.readString(path);
+                Content selected = read(path.toAbsolutePath().normalize(), Selection.of(item));
+                Map<String, Object> file = new LinkedHashMap<>();
+                file.put("path", normalized);
+                file.put("content", selected.text);
+                file.put("source", "disk");
+                file.put("size", selected.fileSize);
+                if (selected.truncated) {
+                    file.put("truncated", true);
+                }
+                files.add(file);
+            } catch (IOException | RuntimeException e) {
+                // Report instead of dropping the file, so the caller can tell "empty" from "unreadable"
+                readErrors.increment();
+                log.debug("Failed to read context file {}: {}", normalized, e.toString());
                 files.add(Map.of(
                     "path", normalized,
-                    "content", fileContent,
-                    "source", "disk"
+                    "source", "disk",
+                    "error", "unreadable: " + e.getClass().getSimpleName()
                 ));
-            } catch (Exception e) {
-                // Skip files that can't be read
             }
         }
-        
+
         context.put("files", files);
         return context;
     }
-    
-    private List<Path> parseAllowedRoots() {
+
+    @Override
+    public String metricsName() {
+        return "context.files";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        long h = hits.sum();
+        long m = misses.sum();
+        int entries;
+        long bytes;
+        synchronized (cache) {
+            entries = cache.size();
+            bytes = cachedBytes;
+        }
+        return Map.of(
+            "hits", h,
+            "misses", m,
+            "hitRatio", h + m == 0 ? 0.0 : (double) h / (h + m),
+            "entries", entries,
+            "cachedBytes", bytes,
+            "bytesRead", bytesRead.sum(),
+            "readErrors", readErrors.sum()
+        );
+    }
+
+    private Content read(Path path, Selection selection) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        if (!attrs.isRegularFile()) {
+            throw new IOException("Not a regular file");
+        }
+        ContentKey key = new ContentKey(path, attrs.lastModifiedTime().toMillis(), attrs.size(), selection);
+        synchronized (cache) {
+            Content cached = cache.get(key);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+
+        Content content = load(path, selection);
+        if (content.weight <= cacheMaxBytes) {
+            synchronized (cache) {
+                Content previous = cache.put(key, content);
+                cachedBytes += content.weight - (previous != null ? previous.weight : 0);
+                Iterator<Content> eldest = cache.values().iterator();
+                while (cachedBytes > cacheMaxBytes && eldest.hasNext()) {
+                    cachedBytes -= eldest.next().weight;
+                    eldest.remove();
+                }
+            }
+        }
+        return content;
+    }
+
+    private Content load(Path path, Selection selection) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            boolean mapped = size >= mmapThresholdBytes;
+
+            long from;
+            long to;
+            switch (selection.mode) {
+                case TAIL -> {
+                    from = Math.max(0, size - maxBytesPerFile);
+                    to = size;
+                }
+                case LINES -> {
+                    long[] range = lineRange(channel, size, mapped, selection.startLine, selection.endLine);
+                    from = range[0];
+                    to = range[1];
+                }
+                default -> {
+                    from = 0;
+                    to = Math.min(size, maxBytesPerFile);
+                }
+            }
+            boolean truncated = selection.mode == Mode.LINES
+                ? to - from > maxBytesPerFile
+                : from > 0 || to < size;
+            if (to - from > maxBytesPerFile) {
+                to = from + maxBytesPerFile;
+            }
+
+            ByteBuffer region = region(channel, from, to - from, mapped);
+            bytesRead.add(to - from);
+            int start = 0;
+            int end = region.limit();
+            if (truncated && selection.mode == Mode.TAIL) {
+                start = afterFirstNewline(region, utf8Start(region, start));
+            } else if (truncated) {
+                end = throughLastNewline(region, utf8End(region, end));
+            }
+            String text = StandardCharsets.UTF_8.decode(region.slice(start, end - start)).toString();
+            return new Content(text, size, truncated, end - start);
+        }
+    }
+
+    /**
+     * Byte offsets [start of startLine, end of endLine) found by scanning for '\n' without decoding.
+     */
+    private static long[] lineRange(FileChannel channel, long size, boolean mapped, int startLine, int endLine)
+        throws IOException {
+        long line = 1;
+        long from = startLine <= 1 ? 0 : -1;
+        long to = size;
+        long pos = 0;
+        scan:
+        while (pos < size) {
+            int len = (int) Math.min(SCAN_WINDOW, size - pos);
+            ByteBuffer window = region(channel, pos, len, mapped);
+            for (int i = 0; i < len; i++) {
+                if (window.get(i) != '\n') {
+                    continue;
+                }
+                line++;
+                if (line == startLine) {
+                    from = pos + i + 1;
+                }
+                if (line > endLine) {
+                    to = pos + i + 1;
+                    break scan;
+                }
+            }
+            pos += len;
+        }
+        return from < 0 ? new long[] {size, size} : new long[] {from, to};
+    }
+
+    private static ByteBuffer region(FileChannel channel, long position, long length, boolean mapped)
+        throws IOException {
+        if (mapped) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return buffer.flip();
+    }
+
+    /** Moves {@code start} past UTF-8 continuation bytes so decoding begins on a character boundary. */
+    private static int utf8Start(ByteBuffer buf, int start) {
+        while (start < buf.limit() && (buf.get(start) & 0xC0) == 0x80) {
+            start++;
+        }
+        return start;
+    }
+
+    /** Moves {@code end} back to the start of a character cut off by the byte cap. */
+    private static int utf8End(ByteBuffer buf, int end) {
+        int i = end;
+        while (i > 0 && (buf.get(i - 1) & 0xC0) == 0x80) {
+            i--;
+        }
+        if (i > 0 && (buf.get(i - 1) & 0x80) != 0) {
+            int lead = buf.get(i - 1) & 0xFF;
+            int expected = lead >= 0xF0 ? 4 : lead >= 0xE0 ? 3 : 2;
+            return end - (i - 1) < expected ? i - 1 : end;
+        }
+        return end;
+    }
+
+    private static int afterFirstNewline(ByteBuffer buf, int start) {
+        for (int i = start; i < buf.limit(); i++) {
+            if (buf.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return start;
+    }
+
+    private static int throughLastNewline(ByteBuffer buf, int end) {
+        for (int i = end - 1; i >= 0; i--) {
+            if (buf.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return end;
+    }
+
+    private static List<Path> parseAllowedRoots(String allowedRootsConfig) {
         if (allowedRootsConfig == null || allowedRootsConfig.isBlank()) {
             return Collections.emptyList();
         }
-        
+
         List<Path> roots = new ArrayList<>();
         for (String root : allowedRootsConfig.split(",")) {
             root = root.trim();
@@ -97,13 +339,34 @@ public class FileContextProvider implements ContextProvider {
                 roots.add(Paths.get(root).normalize().toAbsolutePath());
             }
         }
-        return roots;
+        return List.copyOf(roots);
     }
-    
-    private boolean isUnderAllowedRoots(Path path, List<Path> allowedRoots) {
+
+    private boolean isUnderAllowedRoots(Path path) {
         Path absolute = path.toAbsolutePath().normalize();
         return allowedRoots.stream()
             .anyMatch(root -> absolute.startsWith(root));
     }
-}
 
+    private enum Mode { HEAD, TAIL, LINES }
+
+    private record Selection(Mode mode, int startLine, int endLine) {
+        private static final Selection HEAD = new Selection(Mode.HEAD, 0, 0);
+        private static final Selection TAIL = new Selection(Mode.TAIL, 0, 0);
+
+        static Selection of(Map<String, Object> item) {
+            Object start = item.get("startLine");
+            Object end = item.get("endLine");
+            if (start instanceof Number || end instanceof Number) {
+                int s = start instanceof Number n ? Math.max(1, n.intValue()) : 1;
+                int e = end instanceof Number n ? n.intValue() : Integer.MAX_VALUE;
+                return new Selection(Mode.LINES, s, Math.max(s, e));
+            }
+            return "tail".equalsIgnoreCase(String.valueOf(item.get("select"))) ? TAIL : HEAD;
+        }
+    }
+
+    private record ContentKey(Path path, long mtimeMillis, long size, Selection selection) {}
+
+    private record Content(String text, long fileSize, boolean truncated, long weight) {}
+}
@@ -0,0 +1,512 @@
+package com.ntg.appsbroker.infrastructure.context;
+
+import com.ntg.appsbroker.ports.ContextFileSearch;
+import com.ntg.appsbroker.ports.MetricsSource;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Infrastructure: in-memory inverted index over {@code mcp.file.allowed-roots} for {@link ContextFileSearch}.
+ *
+ * <p>The roots are walked once after startup and files are tokenized in parallel
+ * ({@code mcp.file.index.threads}); a {@link WatchService} then keeps the index current as files are created,
+ * modified or deleted. Queries are scored with BM25 plus a boost for terms in the file name. Only postings are kept
+ * in memory; the snippets of the returned hits are read from disk. Files larger than
+ * {@code mcp.file.index.max-file-bytes}, binary files and excluded directories are not indexed, and indexing stops
+ * once the indexed files add up to {@code mcp.file.index.max-total-bytes}.</p>
+ */
+@Component
+public class InvertedFileIndex implements ContextFileSearch, MetricsSource {
+    private static final Logger log = LoggerFactory.getLogger(InvertedFileIndex.class);
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double NAME_BOOST = 1.5;
+    private static final int MAX_TERM_LENGTH = 64;
+    private static final int MAX_SNIPPET_CHARS = 160;
+
+    private final List<Path> roots;
+    private final boolean enabled;
+    private final int threads;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private final long maxTotalBytes;
+    private final Set<String> excludedDirs;
+
+    private final Map<Path, Doc> docs = new ConcurrentHashMap<>();
+    private final Map<String, Map<Path, Integer>> postings = new ConcurrentHashMap<>();
+    private final AtomicLong totalTerms = new AtomicLong();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final Map<WatchKey, Path> watchedDirs = new ConcurrentHashMap<>();
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder searchNanos = new LongAdder();
+    private final LongAdder watchUpdates = new LongAdder();
+
+    private volatile boolean complete;
+    private volatile long buildMillis;
+    private WatchService watchService;
+    private Thread worker;
+
+    public InvertedFileIndex(
+        FileContextProvider fileContextProvider,
+        @Value("${mcp.file.index.enabled:true}") boolean enabled,
+        @Value("${mcp.file.index.threads:0}") int threads,
+        @Value("${mcp.file.index.max-file-bytes:524288}") long maxFileBytes,
+        @Value("${mcp.file.index.max-files:20000}") int maxFiles,
+        @Value("${mcp.file.index.max-total-bytes:67108864}") long maxTotalBytes,
+        @Value("${mcp.file.index.exclude-dirs:.git,node_modules,target,build}") String excludedDirs
+    ) {
+        this.roots = fileContextProvider.allowedRoots();
+        this.enabled = enabled && !roots.isEmpty();
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = maxFiles;
+        this.maxTotalBytes = maxTotalBytes;
+        Set<String> excluded = new HashSet<>();
+        for (String dir : excludedDirs.split(",")) {
+            if (!dir.isBlank()) {
+                excluded.add(dir.trim());
+            }
+        }
+        this.excludedDirs = Set.copyOf(excluded);
+        this.complete = !this.enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || worker != null) {
+            return;
+        }
+        worker = new Thread(this::buildAndWatch, "mcp-file-index");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (worker != null) {
+            worker.interrupt();
+        }
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException ignored) {
+                // shutting down
+            }
+        }
+    }
+
+    @Override
+    public SearchResult search(String query, int limit) {
+        long start = System.nanoTime();
+        try {
+            List<String> terms = new ArrayList<>(tokenize(query).keySet());
+            if (terms.isEmpty() || limit <= 0) {
+                return new SearchResult(List.of(), docs.size(), complete);
+            }
+
+            int n = Math.max(1, docs.size());
+            double avgLength = Math.max(1.0, (double) totalTerms.get() / n);
+            Map<Path, Double> scores = new HashMap<>();
+            for (String term : terms) {
+                Map<Path, Integer> posting = postings.get(term);
+                if (posting == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (n - posting.size() + 0.5) / (posting.size() + 0.5));
+                posting.forEach((path, tf) -> {
+                    Doc doc = docs.get(path);
+                    if (doc == null) {
+                        return;
+                    }
+                    double norm = tf * (K1 + 1) / (tf + K1 * (1 - B + B * doc.length / avgLength));
+                    double score = idf * norm + (doc.nameTerms.contains(term) ? NAME_BOOST * idf : 0);
+                    scores.merge(path, score, Double::sum);
+                });
+            }
+
+            PriorityQueue<Map.Entry<Path, Double>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+            for (Map.Entry<Path, Double> entry : scores.entrySet()) {
+                top.offer(entry);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<Hit> hits = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                Map.Entry<Path, Double> entry = top.poll();
+                Doc doc = docs.get(entry.getKey());
+                if (doc == null) {
+                    continue;
+                }
+                Snippet snippet = snippet(entry.getKey(), terms);
+                hits.add(new Hit(entry.getKey().toString(), Math.round(entry.getValue() * 1000) / 1000.0,
+                    snippet.line, snippet.text));
+            }
+            Collections.reverse(hits);
+            return new SearchResult(hits, docs.size(), complete);
+        } finally {
+            searches.increment();
+            searchNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "context.files.index";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        long s = searches.sum();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        metrics.put("complete", complete);
+        metrics.put("files", docs.size());
+        metrics.put("bytes", totalBytes.get());
+        metrics.put("maxTotalBytes", maxTotalBytes);
+        metrics.put("terms", postings.size());
+        metrics.put("buildMillis", buildMillis);
+        metrics.put("watchedDirs", watchedDirs.size());
+        metrics.put("watchUpdates", watchUpdates.sum());
+        metrics.put("searches", s);
+        metrics.put("avgSearchMicros", s == 0 ? 0.0 : searchNanos.sum() / 1000.0 / s);
+        return metrics;
+    }
+
+    private void buildAndWatch() {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException e) {
+            log.warn("File index: watch service unavailable, index will not track changes: {}", e.toString());
+        }
+        rebuild();
+        if (watchService != null) {
+            watchLoop();
+        }
+    }
+
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        complete = false;
+        List<Path> files = new ArrayList<>();
+        for (Path root : roots) {
+            files.addAll(walk(root));
+        }
+        Set<Path> found = new HashSet<>(files);
+        for (Path indexed : List.copyOf(docs.keySet())) {
+            if (!found.contains(indexed)) {
+                unindex(indexed);
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.submit(() -> files.parallelStream().forEach(this::index)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.warn("File index build failed: {}", String.valueOf(e.getCause()));
+        } finally {
+            pool.shutdown();
+        }
+        buildMillis = System.currentTimeMillis() - start;
+        complete = true;
+        log.info("File index: {} files, {} terms in {} ms over {}", docs.size(), postings.size(), buildMillis, roots);
+    }
+
+    /**
+     * Lists indexable files under {@code dir} and registers its directories with the watch service.
+     */
+    private List<Path> walk(Path dir) {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return files;
+        }
+        try {
+            Files.walkFileTree(dir, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path d, BasicFileAttributes attrs) {
+                    if (!d.equals(dir) && excludedDirs.contains(String.valueOf(d.getFileName()))) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    watch(d);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile() && attrs.size() <= maxFileBytes) {
+                        files.add(file.toAbsolutePath().normalize());
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            log.warn("File index: failed to walk {}: {}", dir, e.toString());
+        }
+        return files;
+    }
+
+    private void watch(Path dir) {
+        if (watchService == null) {
+            return;
+        }
+        try {
+            WatchKey key = dir.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+            watchedDirs.put(key, dir.toAbsolutePath().normalize());
+        } catch (IOException e) {
+            log.debug("File index: cannot watch {}: {}", dir, e.toString());
+        }
+    }
+
+    private void watchLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            Path dir = watchedDirs.get(key);
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    log.info("File index: watch events overflowed; rebuilding");
+                    rebuild();
+                    continue;
+                }
+                if (dir == null) {
+                    continue;
+                }
+                Path child = dir.resolve((Path) event.context()).toAbsolutePath().normalize();
+                watchUpdates.increment();
+                if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                    removeUnder(child);
+                } else if (Files.isDirectory(child)) {
+                    if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE
+                        && !excludedDirs.contains(String.valueOf(child.getFileName()))) {
+                        walk(child).forEach(this::index);
+                    }
+                } else {
+                    index(child);
+                }
+            }
+            if (!key.reset()) {
+                watchedDirs.remove(key);
+            }
+        }
+    }
+
+    private void removeUnder(Path path) {
+        for (Path indexed : List.copyOf(docs.keySet())) {
+            if (indexed.startsWith(path)) {
+                unindex(indexed);
+            }
+        }
+    }
+
+    /**
+     * (Re)indexes one file; files that vanished, grew past the size limit or look binary are removed.
+     */
+    private void index(Path path) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            if (attrs.isRegularFile() && attrs.size() <= maxFileBytes) {
+                Doc existing = docs.get(path);
+                if (existing != null && existing.mtimeMillis == attrs.lastModifiedTime().toMillis()
+                    && existing.size == attrs.size()) {
+                    return;
+                }
+                byte[] bytes = Files.readAllBytes(path);
+                if (!isBinary(bytes)) {
+                    add(path, new String(bytes, StandardCharsets.UTF_8), attrs.lastModifiedTime().toMillis(), attrs.size());
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            log.debug("File index: cannot read {}: {}", path, e.toString());
+        }
+        unindex(path);
+    }
+
+    private void add(Path path, String text, long mtimeMillis, long size) {
+        Map<String, Integer> tf = tokenize(text);
+        Set<String> nameTerms = tokenize(String.valueOf(path.getFileName())).keySet();
+        for (String term : nameTerms) {
+            tf.merge(term, 1, Integer::sum);
+        }
+        int length = tf.values().stream().mapToInt(Integer::intValue).sum();
+        Doc doc = new Doc(Set.copyOf(nameTerms), tf.keySet().toArray(String[]::new), length, mtimeMillis, size);
+
+        docs.compute(path, (p, previous) -> {
+            if (previous == null && docs.size() >= maxFiles) {
+                log.warn("File index: max-files ({}) reached; not indexing {}", maxFiles, p);
+                return null;
+            }
+            if (totalBytes.get() - (previous != null ? previous.size : 0) + size > maxTotalBytes) {
+                log.warn("File index: max-total-bytes ({}) reached; not indexing {}", maxTotalBytes, p);
+                if (previous != null) {
+                    removePostings(p, previous);
+                }
+                return null;
+            }
+            if (previous != null) {
+                removePostings(p, previous);
+            }
+            // Mutate postings inside compute so a concurrent removal cannot drop a map we are adding to.
+            tf.forEach((term, count) -> postings.compute(term, (t, posting) -> {
+                Map<Path, Integer> target = posting != null ? posting : new ConcurrentHashMap<>();
+                target.put(p, count);
+                return target;
+            }));
+            totalTerms.addAndGet(length);
+            totalBytes.addAndGet(size);
+            return doc;
+        });
+    }
+
+    private void unindex(Path path) {
+        docs.computeIfPresent(path, (p, previous) -> {
+            removePostings(p, previous);
+            return null;
+        });
+    }
+
+    private void removePostings(Path path, Doc doc) {
+        for (String term : doc.terms) {
+            postings.computeIfPresent(term, (t, posting) -> {
+                posting.remove(path);
+                return posting.isEmpty() ? null : posting;
+            });
+        }
+        totalTerms.addAndGet(-doc.length);
+        totalBytes.addAndGet(-doc.size);
+    }
+
+    private static boolean isBinary(byte[] bytes) {
+        int n = Math.min(bytes.length, 4096);
+        for (int i = 0; i < n; i++) {
+            if (bytes[i] == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Lower-cased runs of letters/digits (2..64 chars) with their counts.
+     */
+    static Map<String, Integer> tokenize(String text) {
+        Map<String, Integer> terms = new HashMap<>();
+        if (text == null) {
+            return terms;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                int len = i - start;
+                if (len >= 2 && len <= MAX_TERM_LENGTH) {
+                    terms.merge(text.substring(start, i).toLowerCase(Locale.ROOT), 1, Integer::sum);
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * First line of {@code path} containing the most query terms, clipped around the first match; empty when the
+     * file can no longer be read.
+     */
+    private Snippet snippet(Path path, List<String> terms) {
+        String text;
+        try {
+            if (Files.size(path) > maxFileBytes) {
+                return new Snippet(0, "");
+            }
+            text = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.debug("File index: cannot read snippet of {}: {}", path, e.toString());
+            return new Snippet(0, "");
+        }
+        int bestLine = 0;
+        int bestScore = 0;
+        String best = "";
+        int lineNo = 0;
+        int from = 0;
+        while (from <= text.length()) {
+            int nl = text.indexOf('\n', from);
+            int to = nl < 0 ? text.length() : nl;
+            lineNo++;
+            String lower = text.substring(from, to).toLowerCase(Locale.ROOT);
+            int score = 0;
+            for (String term : terms) {
+                if (lower.contains(term)) {
+                    score++;
+                }
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestLine = lineNo;
+                best = text.substring(from, to);
+                if (score == terms.size()) {
+                    break;
+                }
+            }
+            if (nl < 0) {
+                break;
+            }
+            from = nl + 1;
+        }
+        if (bestScore == 0) {
+            return new Snippet(0, "");
+        }
+        String line = best.strip();
+        if (line.length() > MAX_SNIPPET_CHARS) {
+            String lower = line.toLowerCase(Locale.ROOT);
+            int at = terms.stream().mapToInt(lower::indexOf).filter(i -> i >= 0).min().orElse(0);
+            int start = Math.max(0, Math.min(at - MAX_SNIPPET_CHARS / 4, line.length() - MAX_SNIPPET_CHARS));
+            line = line.substring(start, start + MAX_SNIPPET_CHARS);
+        }
+        return new Snippet(bestLine, line);
+    }
+
+    private record Doc(Set<String> nameTerms, String[] terms, int length, long mtimeMillis, long size) {}
+
+    private record Snippet(int line, String text) {}
+}
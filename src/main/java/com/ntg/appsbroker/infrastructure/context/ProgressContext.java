@@ -0,0 +1,43 @@
+package com.ntg.appsbroker.infrastructure.context;
+
+import com.ntg.appsbroker.ports.ProgressReporter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-request progress sink, bound by the transport for the duration of a tool call.
+ *
+ * <p>The bean itself is the {@link ProgressReporter} seen by use cases and delegates to the reporter
+ * bound on the current thread. Code that continues on other threads (e.g. WebClient/Netty callbacks)
+ * must capture {@link #current()} on the calling thread first.</p>
+ */
+@Component
+public class ProgressContext implements ProgressReporter {
+    private static final ThreadLocal<ProgressReporter> CURRENT = new ThreadLocal<>();
+
+    public void bind(ProgressReporter reporter) {
+        if (reporter == null) {
+            CURRENT.remove();
+            return;
+        }
+        CURRENT.set(reporter);
+    }
+
+    public ProgressReporter current() {
+        ProgressReporter r = CURRENT.get();
+        return r == null ? NOOP : r;
+    }
+
+    public void clear() {
+        CURRENT.remove();
+    }
+
+    @Override
+    public void stage(int step, int totalSteps, String stage) {
+        current().stage(step, totalSteps, stage);
+    }
+
+    @Override
+    public void bytes(long done, long total) {
+        current().bytes(done, total);
+    }
+}
@@ -0,0 +1,142 @@
+package com.ntg.appsbroker.infrastructure.mcp;
+
+import com.ntg.appsbroker.ports.CancellationSignal;
+import com.ntg.appsbroker.ports.MetricsSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Infrastructure: tool calls in flight on the MCP transports, by request id, so that {@code notifications/cancelled}
+ * can reach them.
+ *
+ * <p>Ids are scoped by the transport (over HTTP, by the server-issued {@code Mcp-Session-Id}; calls without one are
+ * not registered). A call reusing the id of one still in flight in the same scope is refused.</p>
+ */
+@Component
+public class InFlightCalls implements MetricsSource {
+    private static final Logger log = LoggerFactory.getLogger(InFlightCalls.class);
+
+    private final Map<String, Call> calls = new ConcurrentHashMap<>();
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder unknown = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+
+    /**
+     * Key of a request id within {@code scope}; null (the call is not registered) when either is missing.
+     */
+    public static String key(String scope, Object requestId) {
+        return scope == null || requestId == null ? null : scope + '\u0000' + requestId;
+    }
+
+    /**
+     * Registers a call; pass the result to {@link #done} when it finishes. A null key gives a call that only its
+     * caller can cancel.
+     *
+     * @return null when a call with the same key is still in flight; answer the request with an error
+     */
+    public Call register(String key) {
+        Call call = new Call();
+        if (key != null && calls.putIfAbsent(key, call) != null) {
+            duplicates.increment();
+            log.warn("Request id already in flight, refusing the call");
+            return null;
+        }
+        return call;
+    }
+
+    public void done(String key, Call call) {
+        if (key != null) {
+            calls.remove(key, call);
+        }
+    }
+
+    /**
+     * @return false when no call with that id is in flight (already finished, or unknown)
+     */
+    public boolean cancel(String key, String reason) {
+        Call call = key == null ? null : calls.get(key);
+        if (call == null) {
+            unknown.increment();
+            return false;
+        }
+        log.info("Cancelling MCP call: {}", reason != null ? reason : "no reason given");
+        if (call.cancel()) {
+            cancelled.increment();
+        }
+        return true;
+    }
+
+    @Override
+    public String metricsName() {
+        return "mcp.cancellation";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        return Map.of(
+            "inFlight", calls.size(),
+            "cancelled", cancelled.sum(),
+            "unknown", unknown.sum(),
+            "duplicates", duplicates.sum()
+        );
+    }
+
+    /**
+     * Cancellation signal of one call.
+     */
+    public static final class Call implements CancellationSignal {
+        private final List<Runnable> actions = new ArrayList<>();
+        private volatile boolean cancelled;
+
+        /**
+         * @return false when it was already cancelled
+         */
+        public boolean cancel() {
+            List<Runnable> run;
+            synchronized (actions) {
+                if (cancelled) {
+                    return false;
+                }
+                cancelled = true;
+                run = new ArrayList<>(actions);
+                actions.clear();
+            }
+            for (Runnable action : run) {
+                try {
+                    action.run();
+                } catch (RuntimeException e) {
+                    log.warn("Cancellation action failed", e);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public Runnable onCancel(Runnable action) {
+            synchronized (actions) {
+                if (!cancelled) {
+                    actions.add(action);
+                    return () -> {
+                        synchronized (actions) {
+                            actions.remove(action);
+                        }
+                    };
+                }
+            }
+            action.run();
+            return () -> {};
+        }
+    }
+}
@@ -1,23 +1,39 @@
 package com.ntg.appsbroker.infrastructure.mcp;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.ntg.appsbroker.domain.McpRequestData;
+import com.ntg.appsbroker.infrastructure.context.CallOriginContext;
+import com.ntg.appsbroker.infrastructure.context.CancellationContext;
 import com.ntg.appsbroker.infrastructure.context.UpstreamBaseUrlContext;
+import com.ntg.appsbroker.ports.CallCancelledException;
 import com.ntg.appsbroker.usecases.HandleMcpRequestUseCase;
+import com.ntg.appsbroker.usecases.tools.ToolRateLimiter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Infrastructure: MCP stdio server for Cursor integration.
  * 
- * Communicates via JSON-RPC 2.0 over stdin/stdout.
+ * Communicates via JSON-RPC 2.0 over stdin/stdout (one message per line).
  * Only runs when MCP_STDIO_MODE environment variable is set.
+ *
+ * Messages are parsed straight from the stdin bytes ({@link StdioFrameReader}) and responses are encoded into
+ * the stdout channel ({@link StdioResponseWriter}); responses to requests that arrived together are flushed together.
+ *
+ * Tool calls run one at a time on a worker thread, so the reader keeps answering control methods and can apply
+ * {@code notifications/cancelled} to the call in flight or queued; a cancelled call gets no response.
  */
 @Component
 public class McpStdioServer implements CommandLineRunner {
@@ -25,15 +41,39 @@ public class McpStdioServer implements CommandLineRunner {
     private static final String PROTOCOL_VERSION = "2024-11-05";
     private static final String SERVER_NAME = "ntg-apps-broker";
     private static final String SERVER_VERSION = "1.0.0";
+    private static final String STDIO_SCOPE = "stdio";
     
     private final HandleMcpRequestUseCase useCase;
     private final ObjectMapper objectMapper;
     private final UpstreamBaseUrlContext upstreamBaseUrlContext;
+    private final StartupWarmUp warmUp;
+    private final CancellationContext cancellationContext;
+    private final CallOriginContext originContext;
+    private final InFlightCalls inFlight;
+    private final ObjectReader messageReader;
+    private final int maxMessageBytes;
+    private StdioResponseWriter writer;
+    private ExecutorService toolCalls;
     
-    public McpStdioServer(HandleMcpRequestUseCase useCase, ObjectMapper objectMapper, UpstreamBaseUrlContext upstreamBaseUrlContext) {
+    public McpStdioServer(
+        HandleMcpRequestUseCase useCase,
+        ObjectMapper objectMapper,
+        UpstreamBaseUrlContext upstreamBaseUrlContext,
+        StartupWarmUp warmUp,
+        CancellationContext cancellationContext,
+        CallOriginContext originContext,
+        InFlightCalls inFlight,
+        @Value("${mcp.stdio.max-message-bytes:16777216}") int maxMessageBytes
+    ) {
         this.useCase = useCase;
         this.objectMapper = objectMapper;
         this.upstreamBaseUrlContext = upstreamBaseUrlContext;
+        this.warmUp = warmUp;
+        this.cancellationContext = cancellationContext;
+        this.originContext = originContext;
+        this.inFlight = inFlight;
+        this.messageReader = objectMapper.readerFor(Map.class);
+        this.maxMessageBytes = maxMessageBytes;
     }
     
     @Override
@@ -49,22 +89,62 @@ public class McpStdioServer implements CommandLineRunner {
         
         log.info("Starting MCP stdio server (protocol version: {})", PROTOCOL_VERSION);
         
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(System.in))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (line.isBlank()) continue;
-                
-                try {
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> msg = objectMapper.readValue(line, Map.class);
+        toolCalls = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "mcp-stdio-call");
+            t.setDaemon(true);
+            return t;
+        });
+        try (FileInputStream in = new FileInputStream(FileDescriptor.in)) {
+            writer = new StdioResponseWriter(new FileOutputStream(FileDescriptor.out).getChannel(), objectMapper);
+            new StdioFrameReader(in, maxMessageBytes).run(new StdioFrameReader.Handler() {
+                @Override
+                public void frame(byte[] buffer, int offset, int length) {
+                    writer.beginBatch();
+                    Map<String, Object> msg;
+                    try {
+                        msg = messageReader.readValue(buffer, offset, length);
+                    } catch (Exception e) {
+                        log.error("Error parsing MCP message", e);
+                        writeError(null, -32700, "Parse error", Map.of("error", String.valueOf(e.getMessage())));
+                        return;
+                    }
                     handleMessage(msg);
-                } catch (Exception e) {
-                    log.error("Error parsing MCP message", e);
-                    writeError(null, -32700, "Parse error", Map.of("error", e.getMessage()));
                 }
-            }
+
+                @Override
+                public void oversized(long length) {
+                    writer.beginBatch();
+                    log.warn("Dropped MCP message of {} bytes (mcp.stdio.max-message-bytes={})", length, maxMessageBytes);
+                    writeError(null, -32700, "Parse error", Map.of("error", "Message exceeds " + maxMessageBytes + " bytes"));
+                }
+
+                @Override
+                public void idle() {
+                    writer.endBatch();
+                }
+            });
         } catch (Exception e) {
             log.error("MCP stdio server error", e);
+        } finally {
+            // End of input: let the calls already received finish and answer.
+            drainToolCalls();
+        }
+    }
+
+    /**
+     * Lets the tool calls already received finish and answer, then flushes the output.
+     */
+    private void drainToolCalls() {
+        toolCalls.shutdown();
+        try {
+            while (!toolCalls.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.debug("Waiting for in-flight MCP tool calls");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer != null) {
+            writer.endBatch();
         }
     }
     
@@ -78,9 +158,14 @@ public class McpStdioServer implements CommandLineRunner {
             switch (method) {
                 case "initialize" -> handleInitialize(id);
                 case "tools/list" -> handleToolsList(id);
-                case "tools/call" -> handleToolCall(id, params);
+                case "tools/call" -> submitToolCall(id, params);
+                case "notifications/cancelled" ->
+                    inFlight.cancel(InFlightCalls.key(STDIO_SCOPE, params.get("requestId")), (String) params.get("reason"));
                 case "shutdown", "exit" -> {
+                    // Calls received before the shutdown are answered first.
+                    drainToolCalls();
                     writeResult(id, Map.of());
+                    writer.endBatch();
                     System.exit(0);
                 }
                 default -> writeError(id, -32601, "Method not found", 
@@ -96,82 +181,42 @@ public class McpStdioServer implements CommandLineRunner {
         Map<String, Object> result = Map.of(
             "protocolVersion", PROTOCOL_VERSION,
             "capabilities", Map.of("tools", Map.of()),
-            "serverInfo", Map.of("name", SERVER_NAME, "version", SERVER_VERSION)
+            "serverInfo", Map.of("name", SERVER_NAME, "version", SERVER_VERSION),
+            "_meta", warmUp.readiness()
         );
         writeResult(id, result);
     }
     
     private void handleToolsList(Object id) {
-        List<Map<String, Object>> tools = List.of(
-            Map.of(
-                "name", "ping",
-                "description", "Health check: returns pong.",
-                "inputSchema", Map.of(
-                    "type", "object",
-                    "properties", Map.of(),
-                    "additionalProperties", false
-                )
-            ),
-            Map.of(
-                "name", "login",
-                "description", "Login and store session token server-side keyed by clientId.",
-                "inputSchema", Map.of(
-                    "type", "object",
-                    "properties", Map.of(
-                        "username", Map.of("type", "string"),
-                        "password", Map.of("type", "string"),
-                        "companyname", Map.of("type", "string"),
-                        "clientId", Map.of("type", "string")
-                    ),
-                    "required", List.of("username", "password", "companyname", "clientId"),
-                    "additionalProperties", false
-                )
-            ),
-            Map.of(
-                "name", "create_app",
-                "description", "Create app via saveApp. You can provide only appName; other fields are optional and will be auto-filled.",
-                "inputSchema", Map.of(
-                    "type", "object",
-                    "properties", Map.of(
-                        "clientId", Map.of("type", "string"),
-                        "sessionToken", Map.of("type", "string", "description",
-                            "Optional. If provided, bypasses stored login session and uses this token for the call."),
-                        "AppearOnMobile", Map.of("type", "boolean", "description", "Optional. Default: true"),
-                        "appName", Map.of("type", "string", "description", "Required. App display name."),
-                        "appIdentifier", Map.of("type", "string", "description", "Optional. Default: derived 3-letter code from appName."),
-                        "shortNotes", Map.of("type", "string", "description", "Optional. Default: appName"),
-                        "icon", Map.of("type", "string", "description", "Optional. Default: fa fa-heart")
-                    ),
-                    "required", List.of("appName"),
-                    "additionalProperties", false
-                )
-            ),
-            Map.of(
-                "name", "import_app",
-                "description", "Import an app from MCP storage by appName using Import/Export APIs (uploadFile -> validateAppIdentifier -> importApp).",
-                "inputSchema", Map.of(
-                    "type", "object",
-                    "properties", Map.of(
-                        "clientId", Map.of("type", "string"),
-                        "sessionToken", Map.of("type", "string", "description",
-                            "Optional. If provided, bypasses stored login session and uses this token for the call."),
-                        "appName", Map.of("type", "string", "description",
-                            "Required. App name (folder name under MCP_IMPORT_APPS_DIR). Server chooses the newest file in that folder."),
-                        "newAppIdentifier", Map.of("type", "string", "description",
-                            "Optional. Used only if the app already exists. New 3-letter identifier to import under."),
-                        "newAppName", Map.of("type", "string", "description",
-                            "Optional. Used only if the app already exists. New app name to import under."),
-                        "debug", Map.of("type", "boolean", "description",
-                            "Optional. If true, include full upstream API payloads for debugging. Default: false.")
-                    ),
-                    "required", List.of("appName"),
-                    "additionalProperties", false
-                )
-            )
-        );
-        writeResult(id, Map.of("tools", tools));
+        writeResult(id, Map.of("tools", useCase.toolList()));
     }
     
+    /**
+     * Queues a tool call on the worker; it is registered right away so that it can be cancelled while queued.
+     */
+    private void submitToolCall(Object id, Map<String, Object> params) {
+        String callKey = InFlightCalls.key(STDIO_SCOPE, id);
+        InFlightCalls.Call call = inFlight.register(callKey);
+        if (call == null) {
+            writeError(id, -32600, "Invalid Request", Map.of("error", "Request id " + id + " is already in flight"));
+            return;
+        }
+        toolCalls.execute(() -> {
+            cancellationContext.bind(call);
+            originContext.bind(STDIO_SCOPE);
+            try {
+                handleToolCall(id, params);
+            } catch (Exception e) {
+                log.error("Error handling MCP message: method=tools/call", e);
+                writeError(id, -32603, "Internal error", Map.of("error", String.valueOf(e.getMessage())));
+            } finally {
+                originContext.clear();
+                cancellationContext.clear();
+                inFlight.done(callKey, call);
+            }
+        });
+    }
+
     @SuppressWarnings("unchecked")
     private void handleToolCall(Object id, Map<String, Object> params) {
         String name = (String) params.get("name");
@@ -201,11 +246,21 @@ public class McpStdioServer implements CommandLineRunner {
             upstreamBaseUrlContext.clear();
         }
         
+        if (outcome instanceof com.ntg.appsbroker.domain.McpFailure failure
+            && CallCancelledException.ERROR_CODE.equals(failure.error().code())) {
+            // The client gave up on this request: no response is sent.
+            return;
+        }
+        if (outcome instanceof com.ntg.appsbroker.domain.McpFailure failure
+            && ToolRateLimiter.ERROR_CODE.equals(failure.error().code())) {
+            writeError(id, ToolRateLimiter.JSON_RPC_CODE, failure.error().message(), failure.error().details());
+            return;
+        }
+
         try {
-            Map<String, Object> content;
+            // The tool result is encoded as the content text directly (no intermediate JSON String).
             if (outcome instanceof com.ntg.appsbroker.domain.McpSuccess success) {
-                String jsonText = objectMapper.writeValueAsString(success.result());
-                content = Map.of("type", "text", "text", jsonText);
+                writer.toolText(id, success.result());
             } else {
                 var failure = (com.ntg.appsbroker.domain.McpFailure) outcome;
                 Map<String, Object> errorObj = Map.of(
@@ -213,11 +268,8 @@ public class McpStdioServer implements CommandLineRunner {
                     "message", failure.error().message(),
                     "details", failure.error().details() != null ? failure.error().details() : Map.of()
                 );
-                String jsonText = objectMapper.writeValueAsString(errorObj);
-                content = Map.of("type", "text", "text", jsonText);
+                writer.toolText(id, errorObj);
             }
-            
-            writeResult(id, Map.of("content", List.of(content)));
         } catch (Exception e) {
             log.error("Error serializing tool response", e);
             writeError(id, -32603, "Internal error", Map.of("error", e.getMessage()));
@@ -226,36 +278,16 @@ public class McpStdioServer implements CommandLineRunner {
     
     private void writeResult(Object id, Object result) {
         try {
-            Map<String, Object> response = new HashMap<>();
-            response.put("jsonrpc", "2.0");
-            response.put("id", id);
-            response.put("result", result);
-            
-            String json = objectMapper.writeValueAsString(response);
-            System.out.println(json);
-            System.out.flush();
+            writer.result(id, result);
         } catch (Exception e) {
             log.error("Error writing result", e);
+            writeError(id, -32603, "Internal error", Map.of("error", String.valueOf(e.getMessage())));
         }
     }
     
     private void writeError(Object id, int code, String message, Map<String, Object> data) {
         try {
-            Map<String, Object> error = new HashMap<>();
-            error.put("code", code);
-            error.put("message", message);
-            if (data != null && !data.isEmpty()) {
-                error.put("data", data);
-            }
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("jsonrpc", "2.0");
-            response.put("id", id);
-            response.put("error", error);
-            
-            String json = objectMapper.writeValueAsString(response);
-            System.out.println(json);
-            System.out.flush();
+            writer.error(id, code, message, data);
         } catch (Exception e) {
             log.error("Error writing error", e);
         }
@@ -0,0 +1,204 @@
+package com.ntg.appsbroker.infrastructure.mcp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.ntg.appsbroker.domain.McpRequestData;
+import com.ntg.appsbroker.domain.McpSuccess;
+import com.ntg.appsbroker.infrastructure.upstream.UpstreamBulkheads;
+import com.ntg.appsbroker.ports.MetricsSource;
+import com.ntg.appsbroker.usecases.HandleMcpRequestUseCase;
+import com.ntg.appsbroker.usecases.tools.ToolRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Infrastructure: warm-up run in the background right after startup; the server reports ready once it is done.
+ *
+ * <p>Phases: JSON-RPC parse/dispatch/encode of synthetic requests (through the stdio codec, into a discarding
+ * channel; tool calls go straight to the registered handler, so they spend no rate-limit budget and stay out of the
+ * limiter and idempotency metrics), upstream connection pools and host resolution for the configured auth/apps base URLs, and the
+ * import catalog. Failures are logged and do not block readiness. Readiness is exposed by GET /health and in the
+ * {@code _meta} of the {@code initialize} result on both transports.</p>
+ */
+@Component
+public class StartupWarmUp implements MetricsSource {
+    private static final Logger log = LoggerFactory.getLogger(StartupWarmUp.class);
+    private static final String WARMUP_CLIENT_ID = "warmup";
+    private static final byte[] SYNTHETIC_CALL = (
+        "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"tools/call\",\"params\":{\"name\":\"ping\","
+            + "\"arguments\":{\"clientId\":\"warmup\"}}}"
+    ).getBytes(StandardCharsets.UTF_8);
+
+    private final HandleMcpRequestUseCase useCase;
+    private final ToolRegistry toolRegistry;
+    private final ObjectMapper objectMapper;
+    private final UpstreamBulkheads bulkheads;
+    private final boolean enabled;
+    private final int iterations;
+    private final Duration upstreamTimeout;
+    private final List<String> upstreamBaseUrls;
+
+    private volatile boolean ready;
+    private volatile long finishedMillis = -1;
+    private final Map<String, Object> phases = new LinkedHashMap<>();
+
+    public StartupWarmUp(
+        HandleMcpRequestUseCase useCase,
+        ToolRegistry toolRegistry,
+        ObjectMapper objectMapper,
+        UpstreamBulkheads bulkheads,
+        @Value("${mcp.warmup.enabled:true}") boolean enabled,
+        @Value("${mcp.warmup.iterations:200}") int iterations,
+        @Value("${mcp.warmup.upstream-timeout-ms:2000}") long upstreamTimeoutMs,
+        @Value("${mcp.auth.integration-enabled:false}") boolean authEnabled,
+        @Value("${mcp.auth.base-url:}") String authBaseUrl,
+        @Value("${mcp.apps.integration-enabled:false}") boolean appsEnabled,
+        @Value("${mcp.apps.base-url:}") String appsBaseUrl
+    ) {
+        this.useCase = useCase;
+        this.toolRegistry = toolRegistry;
+        this.objectMapper = objectMapper;
+        this.bulkheads = bulkheads;
+        this.enabled = enabled;
+        this.iterations = Math.max(1, iterations);
+        this.upstreamTimeout = Duration.ofMillis(Math.max(1, upstreamTimeoutMs));
+        this.upstreamBaseUrls = Stream.of(
+                authEnabled ? authBaseUrl : null,
+                appsEnabled ? appsBaseUrl : null
+            )
+            .filter(u -> u != null && !u.isBlank())
+            .distinct()
+            .toList();
+        this.ready = !enabled;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::run, "mcp-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Readiness summary for health checks and the {@code initialize} {@code _meta}.
+     */
+    public Map<String, Object> readiness() {
+        return Map.of(
+            "ready", ready,
+            "status", ready ? "ready" : "warming_up"
+        );
+    }
+
+    @Override
+    public String metricsName() {
+        return "startup.warmup";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        synchronized (phases) {
+            return Map.of(
+                "enabled", enabled,
+                "ready", ready,
+                "totalMillis", finishedMillis,
+                "phases", new LinkedHashMap<>(phases)
+            );
+        }
+    }
+
+    private void run() {
+        long start = System.nanoTime();
+        phase("dispatch", this::warmDispatch);
+        phase("upstreams", this::warmUpstreams);
+        phase("importCatalog", useCase::primeImportCatalog);
+        finishedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        ready = true;
+        log.info("Warm-up finished in {} ms; ready", finishedMillis);
+    }
+
+    private void phase(String name, Phase phase) {
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = phase.run();
+        } catch (Exception e) {
+            log.warn("Warm-up phase {} failed: {}", name, e.toString());
+            result = "failed: " + e.getMessage();
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        synchronized (phases) {
+            phases.put(name, Map.of("millis", millis, "result", String.valueOf(result)));
+        }
+    }
+
+    /**
+     * Parse, validate, dispatch and encode synthetic calls; responses go to a discarding channel.
+     */
+    private Object warmDispatch() throws Exception {
+        ObjectReader reader = objectMapper.readerFor(Map.class);
+        StdioResponseWriter writer = new StdioResponseWriter(Channels.newChannel(OutputStream.nullOutputStream()), objectMapper);
+        List<Map<String, Object>> tools = useCase.toolList();
+        ToolRegistry.RegisteredTool ping = toolRegistry.find("ping");
+        if (ping == null) {
+            throw new IllegalStateException("ping tool not registered");
+        }
+        Map<String, Object> importLike = Map.of(
+            "imported", true,
+            "importedAs", Map.of("newAppName", "Warm Up", "newAppIdentifier", "WRM"),
+            "upload", Map.of("appName", "Warm Up", "appIdentifier", "WRM", "appUuid", UUID.randomUUID().toString()),
+            "steps", List.of(Map.of("step", "upload", "status_code", 200), Map.of("step", "import", "status_code", 200))
+        );
+        int dispatched = 0;
+        for (int i = 0; i < iterations; i++) {
+            Map<String, Object> msg = reader.readValue(SYNTHETIC_CALL);
+            @SuppressWarnings("unchecked")
+            Map<String, Object> params = (Map<String, Object>) msg.get("params");
+            @SuppressWarnings("unchecked")
+            Map<String, Object> arguments = (Map<String, Object>) params.get("arguments");
+            if (ping.validate(arguments) == null) {
+                var outcome = ping.handler().handle(new McpRequestData(UUID.randomUUID(), (String) params.get("name"), arguments),
+                    WARMUP_CLIENT_ID);
+                writer.toolText(msg.get("id"), outcome instanceof McpSuccess success ? success.result() : outcome);
+                dispatched++;
+            }
+            writer.toolText(msg.get("id"), importLike);
+            writer.result(msg.get("id"), Map.of("tools", tools));
+            objectMapper.writeValueAsBytes(Map.of("jsonrpc", "2.0", "id", i, "result", importLike));
+        }
+        return iterations + " iterations, " + dispatched + " dispatched";
+    }
+
+    private Object warmUpstreams() throws Exception {
+        for (String baseUrl : upstreamBaseUrls) {
+            bulkheads.prewarm(baseUrl, upstreamTimeout);
+        }
+        return upstreamBaseUrls.size() + " upstreams";
+    }
+
+    @FunctionalInterface
+    private interface Phase {
+        Object run() throws Exception;
+    }
+}
@@ -0,0 +1,126 @@
+package com.ntg.appsbroker.infrastructure.mcp;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Infrastructure: newline-delimited framing over raw stdin bytes.
+ *
+ * <p>Frames are handed out as ranges of one reusable buffer (no per-line {@code String}); the buffer only grows
+ * for a frame longer than it, up to {@code maxFrameBytes}. Longer frames are skipped up to the next newline and
+ * reported through {@link Handler#oversized(long)}.</p>
+ */
+final class StdioFrameReader {
+    private static final int INITIAL_CAPACITY = 64 * 1024;
+
+    interface Handler {
+        /** One complete frame (without the line terminator); the bytes are only valid during the call. */
+        void frame(byte[] buffer, int offset, int length);
+
+        void oversized(long length);
+
+        /** Called before a read that would block, i.e. when every frame received so far has been handled. */
+        void idle();
+    }
+
+    private final InputStream in;
+    private final int maxFrameBytes;
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+    private int start;
+    private int end;
+    private long skipping = -1; // bytes of an oversized frame dropped so far, -1 when not skipping
+
+    StdioFrameReader(InputStream in, int maxFrameBytes) {
+        this.in = in;
+        this.maxFrameBytes = Math.max(1024, maxFrameBytes);
+    }
+
+    /**
+     * Reads and dispatches frames until end of input.
+     */
+    void run(Handler handler) throws IOException {
+        int scanned = 0; // bytes after start already known to hold no newline
+        while (true) {
+            int newline = indexOf((byte) '\n', start + scanned, end);
+            if (newline >= 0) {
+                emit(handler, start, newline);
+                start = newline + 1;
+                scanned = 0;
+                continue;
+            }
+            if (in.available() <= 0) {
+                handler.idle();
+            }
+            int read = fill();
+            if (read < 0) {
+                if (end > start || skipping >= 0) {
+                    emit(handler, start, end);
+                }
+                handler.idle();
+                return;
+            }
+            scanned = end - start - read;
+        }
+    }
+
+    /**
+     * Makes room and reads more input; returns the number of bytes read, or -1 at end of input.
+     */
+    private int fill() throws IOException {
+        if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, end - start);
+            end -= start;
+            start = 0;
+        }
+        if (end == buffer.length) {
+            if (skipping >= 0 || buffer.length >= maxFrameBytes) {
+                // Frame too long: drop what we have and keep dropping until its newline.
+                skipping = (skipping < 0 ? 0 : skipping) + end;
+                end = 0;
+            } else {
+                buffer = Arrays.copyOf(buffer, (int) Math.min(maxFrameBytes, (long) buffer.length * 2));
+            }
+        }
+        int n = in.read(buffer, end, buffer.length - end);
+        if (n > 0) {
+            end += n;
+        }
+        return n;
+    }
+
+    private void emit(Handler handler, int from, int to) {
+        if (skipping >= 0) {
+            long length = skipping + (to - from);
+            skipping = -1;
+            handler.oversized(length);
+            return;
+        }
+        int last = to;
+        if (last > from && buffer[last - 1] == '\r') {
+            last--;
+        }
+        if (!isBlank(from, last)) {
+            handler.frame(buffer, from, last - from);
+        }
+    }
+
+    private boolean isBlank(int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte b = buffer[i];
+            if (b != ' ' && b != '\t' && b != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int indexOf(byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
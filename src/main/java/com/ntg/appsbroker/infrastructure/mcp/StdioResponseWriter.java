@@ -0,0 +1,179 @@
+package com.ntg.appsbroker.infrastructure.mcp;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Map;
+
+/**
+ * Infrastructure: JSON-RPC responses written straight to the stdout channel.
+ *
+ * <p>One long-lived {@link JsonGenerator} encodes every response into a reusable byte buffer, which is written to
+ * the channel on {@link #flush()}. While a batch is open (the reader still has queued requests) responses
+ * accumulate and go out in one write. Tool results are serialized to UTF-8 bytes and embedded as the MCP
+ * {@code text} value without an intermediate {@code String}.</p>
+ */
+final class StdioResponseWriter {
+    private static final Logger log = LoggerFactory.getLogger(StdioResponseWriter.class);
+    private static final int FLUSH_THRESHOLD = 64 * 1024;
+    private static final int RETAINED_CAPACITY = 1024 * 1024;
+
+    private final WritableByteChannel out;
+    private final ObjectMapper objectMapper;
+    private Buffer pending = new Buffer();
+    private Buffer text = new Buffer();
+    private JsonGenerator generator;
+    private boolean batching;
+
+    StdioResponseWriter(WritableByteChannel out, ObjectMapper objectMapper) throws IOException {
+        this.out = out;
+        this.objectMapper = objectMapper;
+        this.generator = newGenerator();
+    }
+
+    /**
+     * Encoding failures leave nothing of the response in the buffer and surface as {@link IllegalStateException}.
+     */
+    synchronized void result(Object id, Object result) {
+        write(id, () -> {
+            generator.writeFieldName("result");
+            generator.writeObject(result);
+        });
+    }
+
+    /**
+     * {@code {"content":[{"type":"text","text":<payload as JSON>}]}} - the tools/call result shape.
+     */
+    synchronized void toolText(Object id, Object payload) {
+        write(id, () -> {
+            text.reset();
+            objectMapper.writeValue(text, payload);
+            generator.writeFieldName("result");
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("content");
+            generator.writeStartObject();
+            generator.writeStringField("type", "text");
+            generator.writeFieldName("text");
+            generator.writeUTF8String(text.array(), 0, text.size());
+            generator.writeEndObject();
+            generator.writeEndArray();
+            generator.writeEndObject();
+        });
+        if (text.capacity() > RETAINED_CAPACITY) {
+            text = new Buffer();
+        }
+    }
+
+    synchronized void error(Object id, int code, String message, Map<String, Object> data) {
+        write(id, () -> {
+            generator.writeObjectFieldStart("error");
+            generator.writeNumberField("code", code);
+            generator.writeStringField("message", message);
+            if (data != null && !data.isEmpty()) {
+                generator.writeFieldName("data");
+                generator.writeObject(data);
+            }
+            generator.writeEndObject();
+        });
+    }
+
+    /**
+     * Holds responses back until {@link #endBatch()} (or until the buffer passes the flush threshold).
+     */
+    synchronized void beginBatch() {
+        batching = true;
+    }
+
+    synchronized void endBatch() {
+        batching = false;
+        flush();
+    }
+
+    synchronized void flush() {
+        if (pending.size() == 0) {
+            return;
+        }
+        try {
+            ByteBuffer bytes = ByteBuffer.wrap(pending.array(), 0, pending.size());
+            while (bytes.hasRemaining()) {
+                out.write(bytes);
+            }
+        } catch (IOException e) {
+            log.error("Error writing to stdout", e);
+        } finally {
+            pending.reset();
+            if (pending.capacity() > RETAINED_CAPACITY) {
+                pending = new Buffer();
+                generator = newGeneratorQuietly();
+            }
+        }
+    }
+
+    private void write(Object id, Body body) {
+        int mark = pending.size();
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("jsonrpc", "2.0");
+            generator.writeFieldName("id");
+            generator.writeObject(id);
+            body.write();
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            generator.flush();
+        } catch (IOException | RuntimeException e) {
+            // Drop the partial response and start over with a fresh generator.
+            pending.truncate(mark);
+            generator = newGeneratorQuietly();
+            throw new IllegalStateException("Error encoding stdio response: " + e.getMessage(), e);
+        }
+        if (!batching || pending.size() >= FLUSH_THRESHOLD) {
+            flush();
+        }
+    }
+
+    private JsonGenerator newGenerator() throws IOException {
+        JsonGenerator g = objectMapper.getFactory().createGenerator(pending);
+        g.setRootValueSeparator(null); // frames are newline-terminated explicitly
+        return g;
+    }
+
+    private JsonGenerator newGeneratorQuietly() {
+        try {
+            return newGenerator();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot create JSON generator", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Body {
+        void write() throws IOException;
+    }
+
+    /**
+     * Byte buffer exposing its backing array, so its contents can be written without copying.
+     */
+    private static final class Buffer extends ByteArrayOutputStream {
+        Buffer() {
+            super(8 * 1024);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+
+        void truncate(int size) {
+            count = Math.min(count, size);
+        }
+    }
+}
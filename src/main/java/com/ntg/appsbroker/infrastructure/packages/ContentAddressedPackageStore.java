@@ -0,0 +1,315 @@
+package com.ntg.appsbroker.infrastructure.packages;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ntg.appsbroker.ports.ImportPackage;
+import com.ntg.appsbroker.ports.ImportPackageStore;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Infrastructure: packages stored as deduplicated zip entries, reassembled into a zip stream on demand.
+ *
+ * <p>Layout under the root: {@code objects/ab/cdef…} holds each distinct entry once, as the raw bytes stored in the
+ * package (compressed, and AES-encrypted for .NTGapps file entries) and named by their SHA-256.
+ * {@code manifests/<app>/<file>.json} lists one package version's entries in order with their header fields. Entries
+ * are never decrypted or inflated, so only byte-identical entries are shared: versions produced by copying entries
+ * over (and unencrypted entries such as folders) deduplicate; an entry re-encrypted with a fresh salt does not.</p>
+ *
+ * <p>A package is rebuilt by writing the zip headers around the stored objects, so its size is known up front. For
+ * packages without archive/entry comments or data descriptors (such as exported .NTGapps) the result is
+ * byte-identical to the original.</p>
+ */
+public class ContentAddressedPackageStore implements ImportPackageStore {
+    static final String OBJECTS = "objects";
+    static final String MANIFESTS = "manifests";
+    private static final String MANIFEST_SUFFIX = ".json";
+
+    private final Path root;
+    private final ObjectMapper objectMapper;
+    private final Map<Path, CachedManifest> manifestCache = new ConcurrentHashMap<>();
+
+    public ContentAddressedPackageStore(Path root, ObjectMapper objectMapper) {
+        this.root = root;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public ImportPackage resolveNewest(String appName) throws IOException {
+        Path manifestRoot = root.resolve(MANIFESTS);
+        if (!Files.isDirectory(manifestRoot)) {
+            throw new IOException("Package store not found: " + root.toAbsolutePath());
+        }
+
+        Optional<Path> appDir;
+        try (Stream<Path> dirs = Files.list(manifestRoot)) {
+            appDir = dirs
+                .filter(Files::isDirectory)
+                .filter(p -> p.getFileName().toString().equalsIgnoreCase(appName))
+                .findFirst();
+        }
+        if (appDir.isPresent()) {
+            return newest(manifestsOf(appDir.get()))
+                .orElseThrow(() -> new IOException("No packages stored for app: " + appDir.get().getFileName()));
+        }
+
+        // Fallback (as for flat files in a directory store): packages whose file name contains appName.
+        String needle = appName.toLowerCase();
+        List<PackageManifest> matches = new ArrayList<>();
+        for (String app : appNames()) {
+            for (PackageManifest manifest : manifestsOf(manifestRoot.resolve(app))) {
+                if (manifest.filename().toLowerCase().contains(needle)) {
+                    matches.add(manifest);
+                }
+            }
+        }
+        return newest(matches).orElseThrow(() -> new IOException(
+            "No stored package found for appName: " + appName + " (looked in: " + root.toAbsolutePath() + ")"));
+    }
+
+    @Override
+    public List<String> appNames() throws IOException {
+        Path manifestRoot = root.resolve(MANIFESTS);
+        if (!Files.isDirectory(manifestRoot)) {
+            return List.of();
+        }
+        try (Stream<Path> dirs = Files.list(manifestRoot)) {
+            return dirs.filter(Files::isDirectory).map(p -> p.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    @Override
+    public String location() {
+        return root.toString();
+    }
+
+    /**
+     * Adds one package version: new entry contents become objects, and a manifest is written for the version
+     * (replacing a previous ingest of the same file).
+     */
+    PackageManifest ingest(String app, Path packageFile) throws IOException {
+        List<PackageManifest.Entry> entries = new ArrayList<>();
+        try (FileChannel channel = ZipRecords.open(packageFile)) {
+            for (ZipRecords.Record record : ZipRecords.read(channel)) {
+                if (record.compressedSize() > Integer.MAX_VALUE) {
+                    throw new IOException("Entry too large: " + record.nameString());
+                }
+                ByteBuffer data = ZipRecords.readFully(channel, record.dataOffset(), (int) record.compressedSize());
+                String hash = putObject(data);
+                entries.add(new PackageManifest.Entry(record.nameString(), hash, record.versionMadeBy(),
+                    record.versionNeeded(), record.flags(), record.method(), record.dosTime(), record.crc(),
+                    record.compressedSize(), record.size(), record.extra(), record.externalAttributes()));
+            }
+        }
+        PackageManifest manifest = new PackageManifest(app, packageFile.getFileName().toString(),
+            Files.getLastModifiedTime(packageFile).toMillis(), Files.size(packageFile), List.copyOf(entries));
+        if (entries.size() >= 0xFFFF || manifest.zipSize() >= 0xFFFFFFFFL) {
+            throw new IOException("Package too large for a non-zip64 zip: " + packageFile);
+        }
+
+        Path target = root.resolve(MANIFESTS).resolve(app).resolve(manifest.filename() + MANIFEST_SUFFIX);
+        writeAtomically(target, objectMapper.writeValueAsBytes(manifest));
+        return manifest;
+    }
+
+    /**
+     * All stored manifests, by app.
+     */
+    Map<String, List<PackageManifest>> manifests() throws IOException {
+        Map<String, List<PackageManifest>> all = new TreeMap<>();
+        for (String app : appNames()) {
+            all.put(app, manifestsOf(root.resolve(MANIFESTS).resolve(app)));
+        }
+        return all;
+    }
+
+    /**
+     * The reassembled zip of {@code manifest}.
+     */
+    InputStream open(PackageManifest manifest) throws IOException {
+        for (PackageManifest.Entry entry : manifest.entries()) {
+            if (!Files.isRegularFile(objectPath(entry.hash()))) {
+                throw new IOException("Package store object missing: " + entry.hash() + " (" + entry.name() + ")");
+            }
+        }
+        return new SequenceInputStream(new ZipParts(manifest));
+    }
+
+    private String putObject(ByteBuffer data) throws IOException {
+        MessageDigest digest = sha256();
+        digest.update(data.duplicate());
+        String hash = HexFormat.of().formatHex(digest.digest());
+        Path object = objectPath(hash);
+        if (!Files.isRegularFile(object)) {
+            byte[] bytes = new byte[data.remaining()];
+            data.get(bytes);
+            writeAtomically(object, bytes);
+        }
+        return hash;
+    }
+
+    private Path objectPath(String hash) {
+        return root.resolve(OBJECTS).resolve(hash.substring(0, 2)).resolve(hash.substring(2));
+    }
+
+    private List<PackageManifest> manifestsOf(Path appDir) throws IOException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(appDir)) {
+            files = list.filter(p -> p.getFileName().toString().endsWith(MANIFEST_SUFFIX)).toList();
+        }
+        List<PackageManifest> result = new ArrayList<>(files.size());
+        for (Path file : files) {
+            result.add(readManifest(file));
+        }
+        return result;
+    }
+
+    /**
+     * Parsed manifests are cached until the file changes.
+     */
+    private PackageManifest readManifest(Path file) throws IOException {
+        FileTime modified = Files.getLastModifiedTime(file);
+        CachedManifest cached = manifestCache.get(file);
+        if (cached != null && cached.modified().equals(modified)) {
+            return cached.manifest();
+        }
+        PackageManifest manifest = objectMapper.readValue(file.toFile(), PackageManifest.class);
+        manifestCache.put(file, new CachedManifest(modified, manifest));
+        return manifest;
+    }
+
+    private Optional<ImportPackage> newest(List<PackageManifest> candidates) {
+        return candidates.stream()
+            .max(Comparator.comparingLong(PackageManifest::lastModified).thenComparing(PackageManifest::filename))
+            .map(StoredPackage::new);
+    }
+
+    private static void writeAtomically(Path target, byte[] bytes) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(target.getParent(), ".tmp-", null);
+        try {
+            Files.write(tmp, bytes);
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record CachedManifest(FileTime modified, PackageManifest manifest) {}
+
+    private final class StoredPackage implements ImportPackage {
+        private final PackageManifest manifest;
+
+        StoredPackage(PackageManifest manifest) {
+            this.manifest = manifest;
+        }
+
+        @Override
+        public String filename() {
+            return manifest.filename();
+        }
+
+        @Override
+        public String location() {
+            return root.resolve(MANIFESTS).resolve(manifest.app()).resolve(manifest.filename() + MANIFEST_SUFFIX).toString();
+        }
+
+        @Override
+        public long size() {
+            return manifest.zipSize();
+        }
+
+        @Override
+        public long lastModifiedMillis() {
+            return manifest.lastModified();
+        }
+
+        @Override
+        public InputStream open() throws IOException {
+            return ContentAddressedPackageStore.this.open(manifest);
+        }
+    }
+
+    /**
+     * The zip as a sequence of streams: local header + object for each entry, then the central directory. Object
+     * files are opened one at a time as the reader reaches them.
+     */
+    private final class ZipParts implements Enumeration<InputStream> {
+        private final List<PackageManifest.Entry> entries;
+        private final long[] offsets;
+        private long position;
+        private int index;
+        private boolean headerNext = true;
+        private boolean done;
+
+        ZipParts(PackageManifest manifest) {
+            this.entries = manifest.entries();
+            this.offsets = new long[entries.size()];
+        }
+
+        @Override
+        public boolean hasMoreElements() {
+            return !done;
+        }
+
+        @Override
+        public InputStream nextElement() {
+            if (done) {
+                throw new NoSuchElementException();
+            }
+            if (index == entries.size()) {
+                done = true;
+                return new ByteArrayInputStream(ZipRecords.centralDirectory(entries, offsets, position));
+            }
+            PackageManifest.Entry entry = entries.get(index);
+            if (headerNext) {
+                headerNext = false;
+                offsets[index] = position;
+                position += ZipRecords.localSize(entry);
+                return new ByteArrayInputStream(ZipRecords.localHeader(entry));
+            }
+            headerNext = true;
+            index++;
+            try {
+                return Files.newInputStream(objectPath(entry.hash()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.ntg.appsbroker.infrastructure.packages;
+
+import com.ntg.appsbroker.ports.ImportPackage;
+import com.ntg.appsbroker.ports.ImportPackageStore;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Infrastructure: packages kept as plain files, one folder per app (newest file wins), or flat files under the root
+ * whose name contains the app name.
+ */
+public class DirectoryImportPackageStore implements ImportPackageStore {
+    private final String importAppsDir;
+
+    public DirectoryImportPackageStore(String importAppsDir) {
+        this.importAppsDir = importAppsDir;
+    }
+
+    @Override
+    public ImportPackage resolveNewest(String appName) throws IOException {
+        Path root = Paths.get(importAppsDir);
+        if (!Files.exists(root) || !Files.isDirectory(root)) {
+            throw new IOException("Import storage directory not found: " + root.toAbsolutePath());
+        }
+
+        Path resolvedAppDir = root.resolve(appName);
+        if (!Files.exists(resolvedAppDir) || !Files.isDirectory(resolvedAppDir)) {
+            // Try case-insensitive match by scanning directories (useful on Linux with mixed casing)
+            try (Stream<Path> dirs = Files.list(root)) {
+                Optional<Path> match = dirs
+                    .filter(Files::isDirectory)
+                    .filter(p -> p.getFileName().toString().equalsIgnoreCase(appName))
+                    .findFirst();
+                if (match.isPresent()) {
+                    resolvedAppDir = match.get();
+                }
+            }
+        }
+
+        if (Files.exists(resolvedAppDir) && Files.isDirectory(resolvedAppDir)) {
+            final Path appDir = resolvedAppDir;
+            try (Stream<Path> files = Files.list(appDir)) {
+                return files
+                    .filter(Files::isRegularFile)
+                    .max(Comparator.comparingLong(DirectoryImportPackageStore::lastModified))
+                    .map(FilePackage::of)
+                    .orElseThrow(() -> new IOException("No files found in import folder: " + appDir.toAbsolutePath()));
+            }
+        }
+
+        // Fallback: allow flat files under root that match appName (helps when users just drop files into /apps)
+        try (Stream<Path> files = Files.list(root)) {
+            return files
+                .filter(Files::isRegularFile)
+                .filter(p -> p.getFileName().toString().toLowerCase().contains(appName.toLowerCase()))
+                .max(Comparator.comparingLong(DirectoryImportPackageStore::lastModified))
+                .map(FilePackage::of)
+                .orElseThrow(() -> new IOException(
+                    "No folder or matching file found for appName under import storage: " + appName +
+                        " (looked in: " + root.toAbsolutePath() + ")"
+                ));
+        }
+    }
+
+    @Override
+    public List<String> appNames() throws IOException {
+        Path root = Paths.get(importAppsDir);
+        if (!Files.isDirectory(root)) {
+            return List.of();
+        }
+        try (Stream<Path> dirs = Files.list(root)) {
+            return dirs.filter(Files::isDirectory).map(p -> p.getFileName().toString()).toList();
+        }
+    }
+
+    @Override
+    public String location() {
+        return importAppsDir;
+    }
+
+    private static long lastModified(Path p) {
+        try {
+            return Files.getLastModifiedTime(p).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private record FilePackage(Path file, long size, long lastModifiedMillis) implements ImportPackage {
+        static FilePackage of(Path file) {
+            try {
+                return new FilePackage(file, Files.size(file), lastModified(file));
+            } catch (IOException e) {
+                return new FilePackage(file, 0, 0);
+            }
+        }
+
+        @Override
+        public String filename() {
+            return file.getFileName().toString();
+        }
+
+        @Override
+        public String location() {
+            return file.toString();
+        }
+
+        @Override
+        public InputStream open() throws IOException {
+            return Files.newInputStream(file);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.ntg.appsbroker.infrastructure.packages;
+
+import java.util.List;
+
+/**
+ * One stored package version: its zip entries, in order, each pointing at a content-addressed object.
+ *
+ * @param app          app the package belongs to (folder name, or the file name without extension)
+ * @param filename     original package file name
+ * @param lastModified original file modification time (newest version wins)
+ * @param sourceSize   original package size in bytes
+ */
+record PackageManifest(
+    String app,
+    String filename,
+    long lastModified,
+    long sourceSize,
+    List<Entry> entries
+) {
+    /**
+     * Size of the reassembled zip.
+     */
+    long zipSize() {
+        long size = ZipRecords.END_OF_CENTRAL_DIRECTORY;
+        for (Entry entry : entries) {
+            size += ZipRecords.localSize(entry) + ZipRecords.centralSize(entry);
+        }
+        return size;
+    }
+
+    /**
+     * Header fields of one entry, as in the original central directory.
+     *
+     * @param hash  SHA-256 of the entry's raw stored bytes (object name)
+     * @param extra extra field, written to both the local and the central header (carries the AES parameters)
+     */
+    record Entry(
+        String name,
+        String hash,
+        int versionMadeBy,
+        int versionNeeded,
+        int flags,
+        int method,
+        long dosTime,
+        long crc,
+        long compressedSize,
+        long size,
+        byte[] extra,
+        long externalAttributes
+    ) {}
+}
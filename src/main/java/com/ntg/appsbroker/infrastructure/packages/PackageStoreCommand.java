@@ -0,0 +1,195 @@
+package com.ntg.appsbroker.infrastructure.packages;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Command line for the content-addressed package store (run at image build time, outside Spring).
+ *
+ * <pre>
+ * ingest &lt;store-dir&gt; &lt;apps-dir&gt;      add every .NTGapps package (app folders, or flat files named after the app)
+ * bench  &lt;store-dir&gt; [iterations]   storage ratio, plus reassembly throughput with a zip integrity check
+ * </pre>
+ */
+public final class PackageStoreCommand {
+    private static final String PACKAGE_SUFFIX = ".ntgapps";
+
+    private PackageStoreCommand() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || !List.of("ingest", "bench").contains(args[0])) {
+            System.err.println("usage: ingest <store-dir> <apps-dir> | bench <store-dir> [iterations]");
+            System.exit(2);
+        }
+        ContentAddressedPackageStore store = new ContentAddressedPackageStore(Paths.get(args[1]), new ObjectMapper());
+        if (args[0].equals("ingest")) {
+            if (args.length < 3) {
+                System.err.println("usage: ingest <store-dir> <apps-dir>");
+                System.exit(2);
+            }
+            ingest(store, Paths.get(args[2]));
+        } else {
+            bench(store, Paths.get(args[1]), args.length > 2 ? Integer.parseInt(args[2]) : 20);
+        }
+    }
+
+    private static void ingest(ContentAddressedPackageStore store, Path appsDir) throws IOException {
+        List<Path> children;
+        try (Stream<Path> list = Files.list(appsDir)) {
+            children = list.sorted().toList();
+        }
+        int packages = 0;
+        for (Path child : children) {
+            if (Files.isDirectory(child)) {
+                try (Stream<Path> files = Files.list(child)) {
+                    for (Path file : files.filter(PackageStoreCommand::isPackage).sorted().toList()) {
+                        report(store.ingest(child.getFileName().toString(), file));
+                        packages++;
+                    }
+                }
+            } else if (isPackage(child)) {
+                String name = child.getFileName().toString();
+                report(store.ingest(name.substring(0, name.length() - PACKAGE_SUFFIX.length()), child));
+                packages++;
+            }
+        }
+        System.out.printf("ingested %d packages; store %s bytes%n", packages, directorySize(Paths.get(store.location())));
+    }
+
+    private static void bench(ContentAddressedPackageStore store, Path root, int iterations) throws IOException {
+        Map<String, List<PackageManifest>> all = store.manifests();
+        long sourceBytes = 0;
+        long zipBytes = 0;
+        long entries = 0;
+        int versions = 0;
+        for (List<PackageManifest> manifests : all.values()) {
+            for (PackageManifest manifest : manifests) {
+                sourceBytes += manifest.sourceSize();
+                zipBytes += manifest.zipSize();
+                entries += manifest.entries().size();
+                versions++;
+            }
+        }
+        long objectBytes = directorySize(root.resolve(ContentAddressedPackageStore.OBJECTS));
+        long manifestBytes = directorySize(root.resolve(ContentAddressedPackageStore.MANIFESTS));
+        System.out.printf("apps=%d versions=%d entries=%d%n", all.size(), versions, entries);
+        System.out.printf("storage: packages=%d bytes, store=%d bytes (objects %d + manifests %d), ratio=%.2fx%n",
+            sourceBytes, objectBytes + manifestBytes, objectBytes, manifestBytes,
+            (double) sourceBytes / Math.max(1, objectBytes + manifestBytes));
+
+        List<PackageManifest> manifests = new ArrayList<>();
+        all.values().forEach(manifests::addAll);
+        for (PackageManifest manifest : manifests) {
+            verify(store, manifest);
+        }
+        System.out.printf("verified %d reassembled packages (entries, header fields, raw data)%n", manifests.size());
+
+        for (int i = 0; i < Math.max(1, iterations / 4); i++) {
+            for (PackageManifest manifest : manifests) {
+                copy(store, manifest);
+            }
+        }
+        long start = System.nanoTime();
+        long bytes = 0;
+        for (int i = 0; i < iterations; i++) {
+            for (PackageManifest manifest : manifests) {
+                bytes += copy(store, manifest);
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("reassembly: %d packages, %d bytes (zips %d bytes per round) in %.2f s: %.1f MB/s, %.2f ms/package%n",
+            (long) iterations * manifests.size(), bytes, zipBytes, seconds, bytes / seconds / (1024 * 1024),
+            TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start) / 1000.0 / Math.max(1, (long) iterations * manifests.size()));
+    }
+
+    private static long copy(ContentAddressedPackageStore store, PackageManifest manifest) throws IOException {
+        try (InputStream in = store.open(manifest)) {
+            long n = in.transferTo(OutputStream.nullOutputStream());
+            if (n != manifest.zipSize()) {
+                throw new IOException("Reassembled " + n + " bytes, expected " + manifest.zipSize() + ": " + manifest.filename());
+            }
+            return n;
+        }
+    }
+
+    /**
+     * Reassembles into a temp file and reads it back as a zip: same entries, header fields and raw data.
+     */
+    private static void verify(ContentAddressedPackageStore store, PackageManifest manifest) throws IOException {
+        Path tmp = Files.createTempFile("package-store-verify-", ".zip");
+        try {
+            try (InputStream in = store.open(manifest)) {
+                Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            List<ZipRecords.Record> records;
+            try (FileChannel channel = ZipRecords.open(tmp)) {
+                records = ZipRecords.read(channel);
+                if (records.size() != manifest.entries().size()) {
+                    throw new IOException("Reassembled " + records.size() + " entries, expected "
+                        + manifest.entries().size() + ": " + manifest.filename());
+                }
+                for (int i = 0; i < records.size(); i++) {
+                    ZipRecords.Record record = records.get(i);
+                    PackageManifest.Entry expected = manifest.entries().get(i);
+                    MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                    digest.update(ZipRecords.readFully(channel, record.dataOffset(), (int) record.compressedSize()));
+                    boolean same = record.nameString().equals(expected.name())
+                        && record.method() == expected.method()
+                        && record.crc() == expected.crc()
+                        && record.size() == expected.size()
+                        && Arrays.equals(record.extra(), expected.extra())
+                        && HexFormat.of().formatHex(digest.digest()).equals(expected.hash());
+                    if (!same) {
+                        throw new IOException("Entry mismatch in " + manifest.filename() + ": " + expected.name());
+                    }
+                }
+            }
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void report(PackageManifest manifest) {
+        System.out.printf("%s/%s: %d entries, %d bytes%n", manifest.app(), manifest.filename(),
+            manifest.entries().size(), manifest.sourceSize());
+    }
+
+    private static boolean isPackage(Path p) {
+        return Files.isRegularFile(p) && p.getFileName().toString().toLowerCase().endsWith(PACKAGE_SUFFIX);
+    }
+
+    private static long directorySize(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).mapToLong(p -> {
+                try {
+                    return Files.size(p);
+                } catch (IOException e) {
+                    return 0;
+                }
+            }).sum();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.ntg.appsbroker.infrastructure.packages;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Zip container read and written at the record level: entry data is handled as the raw bytes stored in the archive
+ * (compressed and, for .NTGapps, AES-encrypted), never inflated or decrypted. No zip64.
+ */
+final class ZipRecords {
+    static final int LOCAL_HEADER = 30;
+    static final int CENTRAL_HEADER = 46;
+    static final int END_OF_CENTRAL_DIRECTORY = 22;
+    static final int FLAG_DATA_DESCRIPTOR = 0x0008;
+    static final int FLAG_UTF8 = 0x0800;
+    private static final int LOCAL_SIG = 0x04034b50;
+    private static final int CENTRAL_SIG = 0x02014b50;
+    private static final int END_SIG = 0x06054b50;
+    private static final int MAX_COMMENT = 0xFFFF;
+
+    private ZipRecords() {
+    }
+
+    /**
+     * One archive entry as listed in the central directory, with the position of its raw data.
+     */
+    record Record(
+        byte[] name,
+        int versionMadeBy,
+        int versionNeeded,
+        int flags,
+        int method,
+        long dosTime,
+        long crc,
+        long compressedSize,
+        long size,
+        byte[] extra,
+        long externalAttributes,
+        long dataOffset
+    ) {
+        String nameString() {
+            return decodeName(name, flags);
+        }
+    }
+
+    static List<Record> read(FileChannel channel) throws IOException {
+        long fileSize = channel.size();
+        int tailSize = (int) Math.min(fileSize, END_OF_CENTRAL_DIRECTORY + MAX_COMMENT);
+        ByteBuffer tail = readFully(channel, fileSize - tailSize, tailSize);
+        int end = -1;
+        for (int i = tailSize - END_OF_CENTRAL_DIRECTORY; i >= 0; i--) {
+            if (tail.getInt(i) == END_SIG) {
+                end = i;
+                break;
+            }
+        }
+        if (end < 0) {
+            throw new IOException("Not a zip file (no end of central directory)");
+        }
+        int count = Short.toUnsignedInt(tail.getShort(end + 10));
+        long cdSize = Integer.toUnsignedLong(tail.getInt(end + 12));
+        long cdOffset = Integer.toUnsignedLong(tail.getInt(end + 16));
+        if (count == 0xFFFF || cdSize == 0xFFFFFFFFL || cdOffset == 0xFFFFFFFFL) {
+            throw new IOException("zip64 archives are not supported");
+        }
+
+        ByteBuffer cd = readFully(channel, cdOffset, (int) cdSize);
+        List<Record> records = new ArrayList<>(count);
+        int p = 0;
+        for (int i = 0; i < count; i++) {
+            if (cd.getInt(p) != CENTRAL_SIG) {
+                throw new IOException("Corrupt central directory at entry " + i);
+            }
+            int versionMadeBy = Short.toUnsignedInt(cd.getShort(p + 4));
+            int versionNeeded = Short.toUnsignedInt(cd.getShort(p + 6));
+            int flags = Short.toUnsignedInt(cd.getShort(p + 8));
+            int method = Short.toUnsignedInt(cd.getShort(p + 10));
+            long dosTime = Integer.toUnsignedLong(cd.getInt(p + 12));
+            long crc = Integer.toUnsignedLong(cd.getInt(p + 16));
+            long compressedSize = Integer.toUnsignedLong(cd.getInt(p + 20));
+            long size = Integer.toUnsignedLong(cd.getInt(p + 24));
+            int nameLength = Short.toUnsignedInt(cd.getShort(p + 28));
+            int extraLength = Short.toUnsignedInt(cd.getShort(p + 30));
+            int commentLength = Short.toUnsignedInt(cd.getShort(p + 32));
+            long externalAttributes = Integer.toUnsignedLong(cd.getInt(p + 38));
+            long localOffset = Integer.toUnsignedLong(cd.getInt(p + 42));
+            if (compressedSize == 0xFFFFFFFFL || size == 0xFFFFFFFFL || localOffset == 0xFFFFFFFFL) {
+                throw new IOException("zip64 entries are not supported");
+            }
+            byte[] name = new byte[nameLength];
+            cd.get(p + CENTRAL_HEADER, name);
+            byte[] extra = new byte[extraLength];
+            cd.get(p + CENTRAL_HEADER + nameLength, extra);
+            p += CENTRAL_HEADER + nameLength + extraLength + commentLength;
+
+            ByteBuffer local = readFully(channel, localOffset, LOCAL_HEADER);
+            if (local.getInt(0) != LOCAL_SIG) {
+                throw new IOException("Corrupt local header: " + decodeName(name, flags));
+            }
+            long dataOffset = localOffset + LOCAL_HEADER
+                + Short.toUnsignedInt(local.getShort(26)) + Short.toUnsignedInt(local.getShort(28));
+            records.add(new Record(name, versionMadeBy, versionNeeded, flags, method, dosTime, crc, compressedSize, size,
+                extra, externalAttributes, dataOffset));
+        }
+        return records;
+    }
+
+    static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of zip file");
+            }
+        }
+        return buffer.flip();
+    }
+
+    static FileChannel open(Path zip) throws IOException {
+        return FileChannel.open(zip, StandardOpenOption.READ);
+    }
+
+    /**
+     * Sizes and CRC always go in the local header, so the data-descriptor flag is dropped.
+     */
+    static byte[] localHeader(PackageManifest.Entry entry) {
+        byte[] name = encodeName(entry.name(), entry.flags());
+        byte[] extra = entry.extra();
+        ByteBuffer b = ByteBuffer.allocate(LOCAL_HEADER + name.length + extra.length).order(ByteOrder.LITTLE_ENDIAN);
+        b.putInt(LOCAL_SIG);
+        b.putShort((short) entry.versionNeeded());
+        b.putShort((short) (entry.flags() & ~FLAG_DATA_DESCRIPTOR));
+        b.putShort((short) entry.method());
+        b.putInt((int) entry.dosTime());
+        b.putInt((int) entry.crc());
+        b.putInt((int) entry.compressedSize());
+        b.putInt((int) entry.size());
+        b.putShort((short) name.length);
+        b.putShort((short) extra.length);
+        b.put(name);
+        b.put(extra);
+        return b.array();
+    }
+
+    /**
+     * Central directory and end record for {@code entries} whose local headers start at {@code offsets}.
+     */
+    static byte[] centralDirectory(List<PackageManifest.Entry> entries, long[] offsets, long start) {
+        int size = END_OF_CENTRAL_DIRECTORY;
+        for (PackageManifest.Entry entry : entries) {
+            size += centralSize(entry);
+        }
+        ByteBuffer b = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < entries.size(); i++) {
+            PackageManifest.Entry entry = entries.get(i);
+            byte[] name = encodeName(entry.name(), entry.flags());
+            byte[] extra = entry.extra();
+            b.putInt(CENTRAL_SIG);
+            b.putShort((short) entry.versionMadeBy());
+            b.putShort((short) entry.versionNeeded());
+            b.putShort((short) (entry.flags() & ~FLAG_DATA_DESCRIPTOR));
+            b.putShort((short) entry.method());
+            b.putInt((int) entry.dosTime());
+            b.putInt((int) entry.crc());
+            b.putInt((int) entry.compressedSize());
+            b.putInt((int) entry.size());
+            b.putShort((short) name.length);
+            b.putShort((short) extra.length);
+            b.putShort((short) 0); // comment
+            b.putShort((short) 0); // disk
+            b.putShort((short) 0); // internal attributes
+            b.putInt((int) entry.externalAttributes());
+            b.putInt((int) offsets[i]);
+            b.put(name);
+            b.put(extra);
+        }
+        b.putInt(END_SIG);
+        b.putShort((short) 0);
+        b.putShort((short) 0);
+        b.putShort((short) entries.size());
+        b.putShort((short) entries.size());
+        b.putInt(size - END_OF_CENTRAL_DIRECTORY);
+        b.putInt((int) start);
+        b.putShort((short) 0);
+        return b.array();
+    }
+
+    static long localSize(PackageManifest.Entry entry) {
+        return LOCAL_HEADER + encodeName(entry.name(), entry.flags()).length + entry.extra().length + entry.compressedSize();
+    }
+
+    static long centralSize(PackageManifest.Entry entry) {
+        return CENTRAL_HEADER + encodeName(entry.name(), entry.flags()).length + entry.extra().length;
+    }
+
+    /**
+     * Names are kept as text in manifests; ISO-8859-1 round-trips non-UTF-8 (CP437) names byte for byte.
+     */
+    static String decodeName(byte[] name, int flags) {
+        return new String(name, (flags & FLAG_UTF8) != 0 ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1);
+    }
+
+    static byte[] encodeName(String name, int flags) {
+        return name.getBytes((flags & FLAG_UTF8) != 0 ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1);
+    }
+}
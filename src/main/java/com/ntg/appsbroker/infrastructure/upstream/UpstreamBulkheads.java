@@ -0,0 +1,310 @@
+package com.ntg.appsbroker.infrastructure.upstream;
+
+import com.ntg.appsbroker.infrastructure.util.BaseUrlUtil;
+import com.ntg.appsbroker.ports.MetricsSource;
+import com.ntg.appsbroker.ports.UpstreamBusyException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Infrastructure: per-upstream bulkheads, keyed by normalized base URL.
+ *
+ * <p>Each upstream (e.g. a tenant's Smart2Go deployment selected through {@code authBaseUrl}/{@code appsBaseUrl})
+ * gets its own concurrency limit, bounded wait queue and connection pool, so a hung upstream can only tie up
+ * its own share of threads and connections. A call that finds the queue full, or waits longer than
+ * {@code mcp.upstream.bulkhead.queue-timeout-ms}, fails fast with {@link UpstreamBusyException}.</p>
+ */
+@Component
+public class UpstreamBulkheads implements MetricsSource {
+    private static final Logger log = LoggerFactory.getLogger(UpstreamBulkheads.class);
+    private static final long EVICT_AFTER_IDLE_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private final int maxConcurrent;
+    private final int queueDepth;
+    private final long queueTimeoutMs;
+    private final int maxUpstreams;
+    private final boolean acceptCompressed;
+
+    private final LinkedHashMap<String, Bulkhead> bulkheads = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder evicted = new LongAdder();
+
+    public UpstreamBulkheads(
+        @Value("${mcp.upstream.bulkhead.max-concurrent:8}") int maxConcurrent,
+        @Value("${mcp.upstream.bulkhead.queue-depth:16}") int queueDepth,
+        @Value("${mcp.upstream.bulkhead.queue-timeout-ms:500}") long queueTimeoutMs,
+        @Value("${mcp.upstream.bulkhead.max-upstreams:256}") int maxUpstreams,
+        @Value("${mcp.upstream.compression.accept:true}") boolean acceptCompressed
+    ) {
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.queueDepth = Math.max(0, queueDepth);
+        this.queueTimeoutMs = Math.max(0, queueTimeoutMs);
+        this.maxUpstreams = Math.max(1, maxUpstreams);
+        this.acceptCompressed = acceptCompressed;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        synchronized (bulkheads) {
+            bulkheads.values().forEach(Bulkhead::dispose);
+            bulkheads.clear();
+        }
+    }
+
+    /**
+     * Waits (bounded) for a call slot on the upstream behind {@code baseUrl}. The permit must be released
+     * once the call completes.
+     *
+     * @throws UpstreamBusyException when the upstream's queue is full or the wait times out
+     */
+    public Permit acquire(String baseUrl) {
+        return bulkhead(baseUrl).acquire();
+    }
+
+    /**
+     * {@code template} re-targeted at {@code baseUrl} and bound to that upstream's connection pool.
+     */
+    public WebClient client(String baseUrl, WebClient template) {
+        return bulkhead(baseUrl).client(template, baseUrl);
+    }
+
+    /**
+     * Creates the upstream's bulkhead and connection pool ahead of the first call, initializes the HTTP client
+     * (event loops, resolver, TLS) and resolves the upstream host.
+     */
+    public void prewarm(String baseUrl, Duration timeout) throws Exception {
+        Bulkhead bulkhead = bulkhead(baseUrl);
+        bulkhead.httpClient.warmup().block(timeout);
+        String host = URI.create(BaseUrlUtil.normalize(baseUrl)).getHost();
+        if (host != null) {
+            InetAddress.getAllByName(host);
+        }
+    }
+
+    /**
+     * Highest share of call slots in use across upstreams, and the number of calls waiting for a slot.
+     */
+    public Map<String, Object> saturation() {
+        double max = 0;
+        int waiting = 0;
+        synchronized (bulkheads) {
+            for (Bulkhead b : bulkheads.values()) {
+                max = Math.max(max, (double) b.active.get() / maxConcurrent);
+                waiting += b.waiting.get();
+            }
+        }
+        return Map.of("upstreamSaturation", max, "upstreamWaiting", waiting);
+    }
+
+    @Override
+    public String metricsName() {
+        return "upstream.bulkheads";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> upstreams = new TreeMap<>();
+        synchronized (bulkheads) {
+            bulkheads.forEach((key, b) -> upstreams.put(key, b.metrics()));
+        }
+        return Map.of(
+            "maxConcurrent", maxConcurrent,
+            "queueDepth", queueDepth,
+            "evicted", evicted.sum(),
+            "upstreams", upstreams
+        );
+    }
+
+    private Bulkhead bulkhead(String baseUrl) {
+        String key = key(baseUrl);
+        synchronized (bulkheads) {
+            Bulkhead existing = bulkheads.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            if (bulkheads.size() >= maxUpstreams) {
+                evictIdle();
+            }
+            Bulkhead created = new Bulkhead(key);
+            bulkheads.put(key, created);
+            log.debug("Created upstream bulkhead: {}", key);
+            return created;
+        }
+    }
+
+    /**
+     * Drops the least recently used upstream that has no calls running or waiting and has been idle for a
+     * while (so a caller that just looked it up is not left holding a disposed pool).
+     */
+    private void evictIdle() {
+        long idleSince = System.nanoTime() - EVICT_AFTER_IDLE_NANOS;
+        Iterator<Bulkhead> it = bulkheads.values().iterator();
+        while (it.hasNext()) {
+            Bulkhead candidate = it.next();
+            if (candidate.active.get() == 0 && candidate.waiting.get() == 0 && candidate.lastUsedNanos - idleSince < 0) {
+                it.remove();
+                candidate.dispose();
+                evicted.increment();
+                return;
+            }
+        }
+        log.warn("Upstream bulkheads: all {} upstreams are busy; exceeding max-upstreams", bulkheads.size());
+    }
+
+    /**
+     * scheme://host[:port]/path with lower-cased scheme and host and default ports dropped.
+     */
+    static String key(String baseUrl) {
+        String normalized = BaseUrlUtil.normalize(baseUrl == null ? "" : baseUrl);
+        try {
+            URI uri = URI.create(normalized);
+            if (uri.getScheme() == null || uri.getHost() == null) {
+                return normalized;
+            }
+            String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+            int port = uri.getPort();
+            boolean defaultPort = port < 0 || ("http".equals(scheme) && port == 80) || ("https".equals(scheme) && port == 443);
+            String path = uri.getRawPath() == null ? "" : uri.getRawPath();
+            return scheme + "://" + uri.getHost().toLowerCase(Locale.ROOT) + (defaultPort ? "" : ":" + port) + path;
+        } catch (IllegalArgumentException e) {
+            return normalized;
+        }
+    }
+
+    /**
+     * A held call slot; {@link #release()} is idempotent.
+     */
+    public static final class Permit {
+        private final Bulkhead owner;
+        private boolean released;
+
+        private Permit(Bulkhead owner) {
+            this.owner = owner;
+        }
+
+        public void release() {
+            if (!released) {
+                released = true;
+                owner.release();
+            }
+        }
+    }
+
+    private final class Bulkhead {
+        final String key;
+        final Semaphore slots;
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger waiting = new AtomicInteger();
+        final ConnectionProvider connections;
+        final HttpClient httpClient;
+        final ReactorClientHttpConnector connector;
+        final Map<WebClient, WebClient> clients = new ConcurrentHashMap<>();
+        volatile long lastUsedNanos = System.nanoTime();
+
+        final LongAdder acquired = new LongAdder();
+        final LongAdder rejectedQueueFull = new LongAdder();
+        final LongAdder rejectedTimeout = new LongAdder();
+        final LongAdder waitNanos = new LongAdder();
+        final LongAccumulator peakActive = new LongAccumulator(Math::max, 0);
+
+        Bulkhead(String key) {
+            this.key = key;
+            this.slots = new Semaphore(maxConcurrent, true);
+            this.connections = ConnectionProvider.builder("upstream-" + Integer.toHexString(key.hashCode()))
+                .maxConnections(maxConcurrent)
+                .pendingAcquireMaxCount(Math.max(1, queueDepth))
+                .pendingAcquireTimeout(Duration.ofMillis(Math.max(1, queueTimeoutMs)))
+                .maxIdleTime(Duration.ofSeconds(30))
+                .build();
+            // compress(true): advertise gzip and decode compressed replies chunk by chunk as they arrive.
+            this.httpClient = HttpClient.create(connections).compress(acceptCompressed);
+            this.connector = new ReactorClientHttpConnector(httpClient);
+        }
+
+        Permit acquire() {
+            lastUsedNanos = System.nanoTime();
+            if (slots.tryAcquire()) {
+                return granted(0);
+            }
+            if (waiting.incrementAndGet() > queueDepth) {
+                waiting.decrementAndGet();
+                rejectedQueueFull.increment();
+                throw new UpstreamBusyException(key, "queue_full");
+            }
+            long start = System.nanoTime();
+            try {
+                if (!slots.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    rejectedTimeout.increment();
+                    throw new UpstreamBusyException(key, "queue_timeout");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UpstreamBusyException(key, "interrupted");
+            } finally {
+                waiting.decrementAndGet();
+            }
+            return granted(System.nanoTime() - start);
+        }
+
+        private Permit granted(long waitedNanos) {
+            acquired.increment();
+            waitNanos.add(waitedNanos);
+            peakActive.accumulate(active.incrementAndGet());
+            return new Permit(this);
+        }
+
+        void release() {
+            lastUsedNanos = System.nanoTime();
+            active.decrementAndGet();
+            slots.release();
+        }
+
+        WebClient client(WebClient template, String baseUrl) {
+            // One client per service template; the base URL only differs by normalization within a bulkhead.
+            return clients.computeIfAbsent(template, t -> t.mutate()
+                .baseUrl(BaseUrlUtil.normalize(baseUrl))
+                .clientConnector(connector)
+                .build());
+        }
+
+        void dispose() {
+            connections.dispose();
+        }
+
+        Map<String, Object> metrics() {
+            long n = acquired.sum();
+            int running = active.get();
+            return Map.of(
+                "active", running,
+                "waiting", waiting.get(),
+                "saturation", (double) running / maxConcurrent,
+                "peakActive", peakActive.get(),
+                "acquired", n,
+                "rejectedQueueFull", rejectedQueueFull.sum(),
+                "rejectedTimeout", rejectedTimeout.sum(),
+                "avgWaitMicros", n == 0 ? 0.0 : waitNanos.sum() / 1000.0 / n
+            );
+        }
+    }
+}
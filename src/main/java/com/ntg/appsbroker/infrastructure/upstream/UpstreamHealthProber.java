@@ -0,0 +1,236 @@
+package com.ntg.appsbroker.infrastructure.upstream;
+
+import com.ntg.appsbroker.ports.MetricsSource;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Infrastructure: background reachability probes of the upstreams, served from a cache.
+ *
+ * <p>Every {@code mcp.health.probe.interval-ms} the configured auth/apps base URLs and the operator-listed
+ * {@code mcp.health.probe.extra-targets} get one {@code HEAD} request on a dedicated small pool (outside the
+ * bulkheads, so probes never take call slots). Any HTTP response counts as reachable (5xx as degraded); errors and
+ * timeouts count as down. Readers only see the cached results: a health check never waits for, or causes,
+ * upstream traffic.</p>
+ *
+ * <p>Base URLs supplied by callers ({@code authBaseUrl}/{@code appsBaseUrl} arguments) are never probed, so the
+ * server cannot be pointed at arbitrary hosts. The public health view ({@link #configuredStatus()}) names the
+ * configured upstreams by role only; URLs, latency and errors are reported through {@link #metrics()}.</p>
+ */
+@Component
+public class UpstreamHealthProber implements MetricsSource {
+    private static final Logger log = LoggerFactory.getLogger(UpstreamHealthProber.class);
+    private static final int PROBE_CONCURRENCY = 4;
+
+    private final Map<String, String> configured;
+    private final Set<String> targets;
+    private final long intervalMs;
+    private final Duration timeout;
+    private final ConnectionProvider connections;
+    private final WebClient client;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "upstream-health-probe");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Map<String, UpstreamHealth> results = new ConcurrentHashMap<>();
+
+    public UpstreamHealthProber(
+        @Value("${mcp.health.probe.enabled:true}") boolean enabled,
+        @Value("${mcp.health.probe.interval-ms:15000}") long intervalMs,
+        @Value("${mcp.health.probe.timeout-ms:2000}") long timeoutMs,
+        @Value("${mcp.health.probe.extra-targets:}") String extraTargets,
+        @Value("${mcp.auth.integration-enabled:false}") boolean authEnabled,
+        @Value("${mcp.auth.base-url:}") String authBaseUrl,
+        @Value("${mcp.apps.integration-enabled:false}") boolean appsEnabled,
+        @Value("${mcp.apps.base-url:}") String appsBaseUrl
+    ) {
+        this.intervalMs = enabled ? Math.max(1000, intervalMs) : 0;
+        this.timeout = Duration.ofMillis(Math.max(100, timeoutMs));
+        this.configured = new LinkedHashMap<>();
+        if (authEnabled && authBaseUrl != null && !authBaseUrl.isBlank()) {
+            configured.put("auth", UpstreamBulkheads.key(authBaseUrl));
+        }
+        if (appsEnabled && appsBaseUrl != null && !appsBaseUrl.isBlank()) {
+            configured.put("apps", UpstreamBulkheads.key(appsBaseUrl));
+        }
+        this.targets = new LinkedHashSet<>(configured.values());
+        Arrays.stream(extraTargets.split(","))
+            .map(String::trim)
+            .filter(u -> !u.isEmpty())
+            .map(UpstreamBulkheads::key)
+            .forEach(targets::add);
+        this.connections = ConnectionProvider.builder("upstream-health")
+            .maxConnections(PROBE_CONCURRENCY)
+            .maxIdleTime(Duration.ofSeconds(30))
+            .build();
+        this.client = WebClient.builder()
+            .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections).responseTimeout(timeout)))
+            .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (intervalMs > 0) {
+            scheduler.scheduleWithFixedDelay(this::probeAll, 0, intervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+        connections.dispose();
+    }
+
+    /**
+     * Latest probe result per upstream key (targets that were not probed yet are reported as unknown).
+     */
+    public Map<String, UpstreamHealth> snapshot() {
+        Map<String, UpstreamHealth> snapshot = new TreeMap<>(results);
+        for (String key : targets) {
+            snapshot.putIfAbsent(key, UpstreamHealth.unknown());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Latest probe status of the configured upstreams by role ({@code auth}, {@code apps}), without URLs or detail.
+     */
+    public Map<String, String> configuredStatus() {
+        Map<String, String> status = new TreeMap<>();
+        configured.forEach((role, key) -> {
+            UpstreamHealth health = results.get(key);
+            status.put(role, health != null ? health.status() : UpstreamHealth.unknown().status());
+        });
+        return status;
+    }
+
+    /**
+     * True when a configured upstream's latest probe failed.
+     */
+    public boolean configuredUpstreamDown() {
+        for (String key : configured.values()) {
+            UpstreamHealth health = results.get(key);
+            if (health != null && UpstreamHealth.DOWN.equals(health.status())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String metricsName() {
+        return "upstream.health";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> upstreams = new TreeMap<>();
+        snapshot().forEach((key, health) -> upstreams.put(key, health.toMap()));
+        return Map.of(
+            "intervalMs", intervalMs,
+            "upstreams", upstreams
+        );
+    }
+
+    private void probeAll() {
+        try {
+            Flux.fromIterable(targets)
+                .flatMap(this::probe, PROBE_CONCURRENCY)
+                .doOnNext(r -> results.merge(r.key, r.health, UpstreamHealth::next))
+                .blockLast(timeout.multipliedBy(targets.size() + 1));
+        } catch (Exception e) {
+            log.warn("Upstream health probe round failed: {}", e.toString());
+        }
+    }
+
+    private Mono<Probe> probe(String key) {
+        long start = System.nanoTime();
+        return client.method(HttpMethod.HEAD)
+            .uri(key + "/")
+            .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().value()))
+            .timeout(timeout)
+            .map(status -> new Probe(key, UpstreamHealth.of(
+                status >= 500 ? UpstreamHealth.DEGRADED : UpstreamHealth.UP, elapsedMillis(start), status, null)))
+            .onErrorResume(e -> Mono.just(new Probe(key, UpstreamHealth.of(
+                UpstreamHealth.DOWN, elapsedMillis(start), 0, e.getClass().getSimpleName()))));
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private record Probe(String key, UpstreamHealth health) {}
+
+    /**
+     * One upstream's latest probe.
+     *
+     * @param status              {@code up}, {@code degraded} (5xx), {@code down} (no response) or {@code unknown}
+     * @param consecutiveFailures probes in a row that ended down
+     */
+    public record UpstreamHealth(
+        String status,
+        long latencyMs,
+        int httpStatus,
+        long checkedAtMillis,
+        int consecutiveFailures,
+        String error
+    ) {
+        public static final String UP = "up";
+        public static final String DEGRADED = "degraded";
+        public static final String DOWN = "down";
+
+        static UpstreamHealth of(String status, long latencyMs, int httpStatus, String error) {
+            return new UpstreamHealth(status, latencyMs, httpStatus, System.currentTimeMillis(),
+                DOWN.equals(status) ? 1 : 0, error);
+        }
+
+        static UpstreamHealth unknown() {
+            return new UpstreamHealth("unknown", -1, 0, 0, 0, null);
+        }
+
+        UpstreamHealth next(UpstreamHealth latest) {
+            return DOWN.equals(latest.status)
+                ? new UpstreamHealth(latest.status, latest.latencyMs, latest.httpStatus, latest.checkedAtMillis,
+                    consecutiveFailures + 1, latest.error)
+                : latest;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new TreeMap<>();
+            map.put("status", status);
+            map.put("latencyMs", latencyMs);
+            map.put("httpStatus", httpStatus);
+            map.put("checkedAgoMs", checkedAtMillis == 0 ? -1 : System.currentTimeMillis() - checkedAtMillis);
+            map.put("consecutiveFailures", consecutiveFailures);
+            if (error != null) {
+                map.put("error", error);
+            }
+            return map;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.ntg.appsbroker.infrastructure.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * gzip / deflate (zlib) streams for HTTP content coding, with a configurable compression level.
+ */
+public final class CompressionUtil {
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+
+    private CompressionUtil() {}
+
+    /**
+     * The coding to answer with for an Accept-Encoding header (gzip preferred over deflate at equal weight), or null.
+     * A coding listed explicitly takes its own weight, so {@code gzip;q=0} refuses gzip even when {@code *} is
+     * accepted; unlisted codings take the weight of {@code *}.
+     */
+    public static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+        double gzip = -1;
+        double deflate = -1;
+        double any = -1;
+        for (String part : acceptEncoding.split(",")) {
+            String[] fields = part.trim().split(";");
+            String coding = fields[0].trim().toLowerCase(Locale.ROOT);
+            double weight = 1;
+            for (int i = 1; i < fields.length; i++) {
+                String param = fields[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        weight = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        weight = 0;
+                    }
+                }
+            }
+            switch (coding) {
+                case GZIP, "x-gzip" -> gzip = Math.max(gzip, weight);
+                case DEFLATE -> deflate = Math.max(deflate, weight);
+                case "*" -> any = Math.max(any, weight);
+                default -> { }
+            }
+        }
+        if (gzip < 0) {
+            gzip = any;
+        }
+        if (deflate < 0) {
+            deflate = any;
+        }
+        if (gzip > 0 && gzip >= deflate) {
+            return GZIP;
+        }
+        return deflate > 0 ? DEFLATE : null;
+    }
+
+    /**
+     * Compressing stream for {@code coding}; {@code flush()} emits everything written so far (sync flush).
+     */
+    public static OutputStream compress(String coding, OutputStream out, int level) throws IOException {
+        if (GZIP.equals(coding)) {
+            return new GZIPOutputStream(out, 8192, true) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        }
+        if (DEFLATE.equals(coding)) {
+            return new DeflaterOutputStream(out, new Deflater(level), 8192, true) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        def.end();
+                    }
+                }
+            };
+        }
+        throw new IllegalArgumentException("Unsupported content coding: " + coding);
+    }
+
+    /**
+     * Decoding stream for a Content-Encoding value ({@code identity} passes through), or null when unsupported.
+     */
+    public static InputStream decompress(String contentEncoding, InputStream in) throws IOException {
+        String coding = contentEncoding == null ? "identity" : contentEncoding.trim().toLowerCase(Locale.ROOT);
+        return switch (coding) {
+            case "", "identity" -> in;
+            case GZIP, "x-gzip" -> new GZIPInputStream(in, 8192);
+            case DEFLATE -> new InflaterInputStream(in);
+            default -> null;
+        };
+    }
+
+    public static byte[] gzip(byte[] data, int level) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (OutputStream gz = compress(GZIP, out, level)) {
+            gz.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,187 @@
+package com.ntg.appsbroker.mcp.adapter.http;
+
+import com.ntg.appsbroker.ports.MetricsSource;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Execution lanes for POST /mcp: control methods and light tools run on the fast lane, upload and import tools
+ * ({@code mcp.http.lanes.slow.tools}) on the slow lane, each with its own bounded pool and queue.
+ *
+ * <p>Admission control: work is rejected when its lane's queue is full, and slow-lane work also when heap usage
+ * (after the last collection) is above {@code mcp.http.lanes.max-heap-ratio}.</p>
+ */
+@Component
+public class ExecutionLanes implements MetricsSource {
+    public enum Lane { FAST, SLOW }
+
+    private final Set<String> slowTools;
+    private final double maxHeapRatio;
+    private final List<MemoryPoolMXBean> heapPools;
+    private final Map<Lane, LaneExecutor> executors = new LinkedHashMap<>();
+
+    public ExecutionLanes(
+        @Value("${mcp.http.lanes.fast.threads:8}") int fastThreads,
+        @Value("${mcp.http.lanes.fast.queue:64}") int fastQueue,
+        @Value("${mcp.http.lanes.slow.threads:4}") int slowThreads,
+        @Value("${mcp.http.lanes.slow.queue:8}") int slowQueue,
+        @Value("${mcp.http.lanes.slow.tools:import_app,promote_app,create_apps}") String slowTools,
+        @Value("${mcp.http.lanes.max-heap-ratio:0.85}") double maxHeapRatio
+    ) {
+        this.slowTools = Arrays.stream(slowTools.split(","))
+            .map(String::trim)
+            .filter(s -> !s.isEmpty())
+            .collect(Collectors.toUnmodifiableSet());
+        this.maxHeapRatio = maxHeapRatio;
+        this.heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null)
+            .toList();
+        executors.put(Lane.FAST, new LaneExecutor("mcp-fast-", fastThreads, fastQueue));
+        executors.put(Lane.SLOW, new LaneExecutor("mcp-slow-", slowThreads, slowQueue));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executors.values().forEach(LaneExecutor::shutdownNow);
+    }
+
+    /**
+     * Lane of a JSON-RPC message: tools/call of a slow tool goes to the slow lane, everything else to the fast one.
+     */
+    public Lane laneFor(String method, Map<?, ?> params) {
+        if ("tools/call".equals(method) && params != null && params.get("name") instanceof String name
+            && slowTools.contains(name)) {
+            return Lane.SLOW;
+        }
+        return Lane.FAST;
+    }
+
+    /**
+     * Queues {@code task} on {@code lane}.
+     *
+     * @throws Rejected when admission control turns the work away
+     */
+    public void execute(Lane lane, Runnable task) {
+        LaneExecutor executor = executors.get(lane);
+        if (lane == Lane.SLOW && heapRatio() > maxHeapRatio) {
+            executor.rejectedHeap.increment();
+            throw new Rejected(lane, "heap_pressure");
+        }
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            executor.rejectedQueueFull.increment();
+            throw new Rejected(lane, "queue_full");
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "http.lanes";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        executors.forEach((lane, executor) -> metrics.put(lane.name().toLowerCase(Locale.ROOT), executor.metrics()));
+        metrics.put("heapRatio", heapRatio());
+        metrics.put("maxHeapRatio", maxHeapRatio);
+        return metrics;
+    }
+
+    /**
+     * Heap in use over max heap. A high reading of the live counters is checked against the usage left by the
+     * last collection, so garbage that is about to be collected does not turn work away.
+     */
+    private double heapRatio() {
+        Runtime runtime = Runtime.getRuntime();
+        long max = runtime.maxMemory();
+        double current = (double) (runtime.totalMemory() - runtime.freeMemory()) / max;
+        if (current <= maxHeapRatio || heapPools.isEmpty()) {
+            return current;
+        }
+        long afterCollection = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (usage != null) {
+                afterCollection += usage.getUsed();
+            }
+        }
+        return Math.min(current, (double) afterCollection / max);
+    }
+
+    /**
+     * Admission control turned the work away; {@code reason} is {@code queue_full} or {@code heap_pressure}.
+     */
+    public static final class Rejected extends RuntimeException {
+        private final Lane lane;
+        private final String reason;
+
+        Rejected(Lane lane, String reason) {
+            super(lane.name().toLowerCase(Locale.ROOT) + " lane: " + reason, null, false, false);
+            this.lane = lane;
+            this.reason = reason;
+        }
+
+        public Lane lane() {
+            return lane;
+        }
+
+        public String reason() {
+            return reason;
+        }
+    }
+
+    private static final class LaneExecutor extends ThreadPoolExecutor {
+        private final int queueCapacity;
+        final LongAdder rejectedQueueFull = new LongAdder();
+        final LongAdder rejectedHeap = new LongAdder();
+
+        LaneExecutor(String prefix, int threads, int queue) {
+            super(Math.max(1, threads), Math.max(1, threads), 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queue)), daemonThreads(prefix));
+            this.queueCapacity = Math.max(1, queue);
+        }
+
+        Map<String, Object> metrics() {
+            return Map.of(
+                "threads", getMaximumPoolSize(),
+                "active", getActiveCount(),
+                "queued", getQueue().size(),
+                "queueCapacity", queueCapacity,
+                "completed", getCompletedTaskCount(),
+                "rejectedQueueFull", rejectedQueueFull.sum(),
+                "rejectedHeapPressure", rejectedHeap.sum()
+            );
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
@@ -0,0 +1,522 @@
+package com.ntg.appsbroker.mcp.adapter.http;
+
+import com.ntg.appsbroker.infrastructure.util.CompressionUtil;
+import com.ntg.appsbroker.ports.MetricsSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Content coding for POST /mcp: gzip / deflate request bodies are decoded, and responses are compressed with the
+ * client's preferred Accept-Encoding once they reach {@code mcp.http.compression.min-response-bytes}.
+ *
+ * <p>JSON bodies are buffered up to that threshold before the choice is made. SSE streams are compressed from the
+ * first event and sync-flushed per event, so nothing is held back; the coding is finished when the async request
+ * completes.</p>
+ */
+@Component
+public class McpCompressionFilter extends OncePerRequestFilter implements MetricsSource {
+    private static final String STREAM_ATTRIBUTE = McpCompressionFilter.class.getName() + ".stream";
+
+    private final boolean enabled;
+    private final int minResponseBytes;
+    private final int level;
+    private final long maxRequestBytes;
+
+    private final LongAdder requestsDecoded = new LongAdder();
+    private final LongAdder responsesCompressed = new LongAdder();
+    private final LongAdder bytesBeforeCompression = new LongAdder();
+    private final LongAdder bytesAfterCompression = new LongAdder();
+
+    public McpCompressionFilter(
+        @Value("${mcp.http.compression.enabled:true}") boolean enabled,
+        @Value("${mcp.http.compression.min-response-bytes:1024}") int minResponseBytes,
+        @Value("${mcp.http.compression.level:6}") int level,
+        @Value("${mcp.http.compression.max-request-bytes:16777216}") long maxRequestBytes
+    ) {
+        this.enabled = enabled;
+        this.minResponseBytes = Math.max(0, minResponseBytes);
+        this.level = Math.max(1, Math.min(9, level));
+        this.maxRequestBytes = maxRequestBytes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !"/mcp".equals(request.getRequestURI());
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            // SSE: the emitter completed; finish the coding before the container closes the response.
+            chain.doFilter(request, response);
+            if (!request.isAsyncStarted() && request.getAttribute(STREAM_ATTRIBUTE) instanceof CompressingStream stream) {
+                stream.finish();
+            }
+            return;
+        }
+
+        String contentEncoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        if (contentEncoding != null && !contentEncoding.isBlank()) {
+            InputStream decoded;
+            try {
+                decoded = CompressionUtil.decompress(contentEncoding, request.getInputStream());
+            } catch (IOException e) {
+                response.sendError(HttpStatus.BAD_REQUEST.value(), "Malformed " + contentEncoding + " request body");
+                return;
+            }
+            if (decoded == null) {
+                response.sendError(HttpStatus.UNSUPPORTED_MEDIA_TYPE.value(), "Unsupported Content-Encoding: " + contentEncoding);
+                return;
+            }
+            request = new DecodedRequest(request, decoded, maxRequestBytes);
+            requestsDecoded.increment();
+        }
+
+        String coding = CompressionUtil.negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        if (coding == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        CompressingResponse compressing = new CompressingResponse(response, coding);
+        request.setAttribute(STREAM_ATTRIBUTE, compressing.stream);
+        chain.doFilter(request, compressing);
+        if (!request.isAsyncStarted()) {
+            compressing.finish();
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "http.compression";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        long before = bytesBeforeCompression.sum();
+        long after = bytesAfterCompression.sum();
+        return Map.of(
+            "enabled", enabled,
+            "level", level,
+            "requestsDecoded", requestsDecoded.sum(),
+            "responsesCompressed", responsesCompressed.sum(),
+            "bytesBeforeCompression", before,
+            "bytesAfterCompression", after,
+            "ratio", after == 0 ? 0.0 : (double) before / after
+        );
+    }
+
+    /**
+     * Request with the decoded body; Content-Encoding and Content-Length no longer apply and are hidden.
+     */
+    private static final class DecodedRequest extends HttpServletRequestWrapper {
+        private final ServletInputStream body;
+
+        DecodedRequest(HttpServletRequest request, InputStream decoded, long maxBytes) {
+            super(request);
+            this.body = new ServletInputStream() {
+                private long read;
+                private boolean finished;
+
+                @Override
+                public int read() throws IOException {
+                    int b = decoded.read();
+                    count(b < 0 ? -1 : 1);
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buffer, int off, int len) throws IOException {
+                    int n = decoded.read(buffer, off, len);
+                    count(n);
+                    return n;
+                }
+
+                private void count(int n) throws IOException {
+                    if (n < 0) {
+                        finished = true;
+                        return;
+                    }
+                    read += n;
+                    if (read > maxBytes) {
+                        throw new IOException("Decoded request body exceeds " + maxBytes + " bytes");
+                    }
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return finished;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                /**
+                 * The decoded body is produced on demand by the reading thread and {@link #isReady} is always true, so
+                 * the listener is told right away that data is available, and once it has read to the end that all
+                 * data was read.
+                 */
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    if (listener == null) {
+                        throw new NullPointerException("listener");
+                    }
+                    try {
+                        listener.onDataAvailable();
+                        if (finished) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (Throwable t) {
+                        listener.onError(t);
+                    }
+                }
+
+                @Override
+                public void close() throws IOException {
+                    decoded.close();
+                }
+            };
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return body;
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String charset = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(body,
+                charset != null ? Charset.forName(charset) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return hidden(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return hidden(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            return Collections.enumeration(Collections.list(super.getHeaderNames()).stream()
+                .filter(name -> !hidden(name))
+                .toList());
+        }
+
+        @Override
+        public int getIntHeader(String name) {
+            return hidden(name) ? -1 : super.getIntHeader(name);
+        }
+
+        private static boolean hidden(String name) {
+            return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name);
+        }
+    }
+
+    /**
+     * Response whose body goes through a {@link CompressingStream}; a Content-Length set by the handler is held back
+     * until the stream knows whether the body stays uncompressed.
+     */
+    private final class CompressingResponse extends HttpServletResponseWrapper {
+        final CompressingStream stream;
+        private PrintWriter writer;
+
+        CompressingResponse(HttpServletResponse response, String coding) {
+            super(response);
+            this.stream = new CompressingStream(response, coding);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return stream;
+        }
+
+        @Override
+        public PrintWriter getWriter() {
+            if (writer == null) {
+                String charset = getCharacterEncoding();
+                writer = new PrintWriter(new OutputStreamWriter(stream,
+                    charset != null ? Charset.forName(charset) : StandardCharsets.UTF_8));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            stream.flush();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void resetBuffer() {
+            stream.reset();
+            super.resetBuffer();
+        }
+
+        @Override
+        public void reset() {
+            stream.reset();
+            super.reset();
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            stream.contentLength(len);
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            stream.contentLength(len);
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                stream.contentLength(Long.parseLong(value));
+            } else {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                stream.contentLength(Long.parseLong(value));
+            } else {
+                super.addHeader(name, value);
+            }
+        }
+
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            stream.finish();
+        }
+    }
+
+    /**
+     * Buffers up to the threshold, then either compresses (JSON / SSE bodies not already encoded) or passes through.
+     * A flush before the threshold decides early: SSE compresses, anything else stays uncompressed.
+     */
+    private final class CompressingStream extends ServletOutputStream {
+        private final HttpServletResponse response;
+        private final String coding;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private OutputStream target;
+        private boolean compressing;
+        private boolean finished;
+        private long contentLength = -1;
+
+        CompressingStream(HttpServletResponse response, String coding) {
+            this.response = response;
+            this.coding = coding;
+        }
+
+        @Override
+        public synchronized void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) throws IOException {
+            if (finished) {
+                throw new IOException("Response already finished");
+            }
+            if (target == null) {
+                if (buffer.size() + len < minResponseBytes) {
+                    buffer.write(b, off, len);
+                    return;
+                }
+                decide(true);
+            }
+            if (compressing) {
+                bytesBeforeCompression.add(len);
+            }
+            target.write(b, off, len);
+        }
+
+        @Override
+        public synchronized void flush() throws IOException {
+            if (finished) {
+                return;
+            }
+            if (target == null) {
+                decide(isEventStream());
+            }
+            target.flush();
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            boolean raw = target == null || !compressing;
+            finish();
+            if (raw) {
+                response.getOutputStream().close();
+            }
+        }
+
+        synchronized void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            if (target == null) {
+                decide(false);
+            }
+            finished = true;
+            if (compressing) {
+                target.close();
+            } else {
+                target.flush();
+            }
+        }
+
+        synchronized void reset() {
+            if (target == null) {
+                buffer.reset();
+            }
+        }
+
+        synchronized void contentLength(long length) {
+            if (target == null) {
+                contentLength = length;
+            } else if (!compressing) {
+                response.setContentLengthLong(length);
+            }
+        }
+
+        private void decide(boolean compress) throws IOException {
+            compressing = compress && !response.isCommitted() && compressible()
+                && response.getHeader(HttpHeaders.CONTENT_ENCODING) == null;
+            OutputStream out = response.getOutputStream();
+            if (compressing) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, coding);
+                responsesCompressed.increment();
+                target = CompressionUtil.compress(coding, new FilterOutputStream(out) {
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        bytesAfterCompression.add(len);
+                        out.write(b, off, len);
+                    }
+
+                    @Override
+                    public void write(int b) throws IOException {
+                        bytesAfterCompression.increment();
+                        out.write(b);
+                    }
+                }, level);
+                bytesBeforeCompression.add(buffer.size());
+            } else {
+                if (contentLength >= 0) {
+                    response.setContentLengthLong(contentLength);
+                }
+                target = out;
+            }
+            buffer.writeTo(target);
+            buffer.reset();
+        }
+
+        private boolean compressible() {
+            String type = response.getContentType();
+            return type != null && (type.startsWith(MediaType.APPLICATION_JSON_VALUE)
+                || type.startsWith(MediaType.TEXT_EVENT_STREAM_VALUE) || type.contains("+json"));
+        }
+
+        private boolean isEventStream() {
+            String type = response.getContentType();
+            return type != null && type.startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+        }
+
+        /**
+         * Once writes pass through uncompressed, readiness is the container stream's; before that, writes only
+         * fill the buffer or the compressor, which is written blocking.
+         */
+        @Override
+        public synchronized boolean isReady() {
+            if (target == null || compressing) {
+                return true;
+            }
+            try {
+                return response.getOutputStream().isReady();
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        /**
+         * A non-blocking writer needs the container's readiness signals, so the response is not compressed: what is
+         * buffered goes out as is, later writes pass through, and the listener is registered on the container
+         * stream. Not possible once compression has started.
+         */
+        @Override
+        public synchronized void setWriteListener(WriteListener listener) {
+            if (compressing) {
+                throw new IllegalStateException("Response compression already started; cannot switch to non-blocking writes");
+            }
+            try {
+                if (target == null) {
+                    decide(false);
+                }
+                response.getOutputStream().setWriteListener(listener);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.ntg.appsbroker.mcp.adapter.http;
+
+import com.ntg.appsbroker.infrastructure.mcp.StartupWarmUp;
+import com.ntg.appsbroker.infrastructure.upstream.UpstreamBulkheads;
+import com.ntg.appsbroker.infrastructure.upstream.UpstreamHealthProber;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Health over HTTP, built only from local state and cached upstream probes (never calls an upstream).
+ *
+ * Endpoints (unauthenticated, for platform health checks):
+ * - GET /health: liveness plus detail; 503 only while startup warm-up is running
+ * - GET /health/ready: 503 while warming up or while a configured upstream is down
+ *
+ * Upstreams are reported by role and status only; per-upstream detail is on the bearer-protected GET /metrics.
+ */
+@RestController
+public class McpHealthController {
+    private final StartupWarmUp warmUp;
+    private final UpstreamBulkheads bulkheads;
+    private final UpstreamHealthProber prober;
+
+    public McpHealthController(StartupWarmUp warmUp, UpstreamBulkheads bulkheads, UpstreamHealthProber prober) {
+        this.warmUp = warmUp;
+        this.bulkheads = bulkheads;
+        this.prober = prober;
+    }
+
+    @GetMapping(path = "/health", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> health() {
+        boolean upstreamDown = prober.configuredUpstreamDown();
+        return ResponseEntity
+            .status(warmUp.isReady() ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE)
+            .body(body(upstreamDown));
+    }
+
+    @GetMapping(path = "/health/ready", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> ready() {
+        boolean upstreamDown = prober.configuredUpstreamDown();
+        return ResponseEntity
+            .status(warmUp.isReady() && !upstreamDown ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE)
+            .body(body(upstreamDown));
+    }
+
+    private Map<String, Object> body(boolean upstreamDown) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", !warmUp.isReady() ? "warming_up" : upstreamDown ? "degraded" : "up");
+        body.put("ready", warmUp.isReady());
+
+        Runtime runtime = Runtime.getRuntime();
+        Map<String, Object> local = new LinkedHashMap<>(bulkheads.saturation());
+        local.put("heapUsedRatio", (double) (runtime.totalMemory() - runtime.freeMemory()) / runtime.maxMemory());
+        body.put("local", local);
+
+        body.put("upstreams", prober.configuredStatus());
+        return body;
+    }
+}
@@ -4,27 +4,61 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ntg.appsbroker.domain.McpFailure;
 import com.ntg.appsbroker.domain.McpRequestData;
 import com.ntg.appsbroker.domain.McpSuccess;
+import com.ntg.appsbroker.infrastructure.context.CallOriginContext;
+import com.ntg.appsbroker.infrastructure.context.CancellationContext;
+import com.ntg.appsbroker.infrastructure.context.ProgressContext;
 import com.ntg.appsbroker.infrastructure.context.UpstreamBaseUrlContext;
+import com.ntg.appsbroker.infrastructure.mcp.InFlightCalls;
+import com.ntg.appsbroker.infrastructure.mcp.StartupWarmUp;
+import com.ntg.appsbroker.ports.CallCancelledException;
 import com.ntg.appsbroker.usecases.HandleMcpRequestUseCase;
+import com.ntg.appsbroker.usecases.tools.ToolRateLimiter;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * MCP over HTTP: JSON-RPC 2.0 POST endpoint compatible with MCP clients/bridges.
  *
  * Endpoint: POST /mcp
  * Body: JSON-RPC message
+ *
+ * <p>Streamable HTTP: when the client accepts {@code text/event-stream}, tools/call is answered with an SSE
+ * stream carrying {@code notifications/progress} (if the call has a {@code _meta.progressToken}), keep-alive
+ * comments and finally the JSON-RPC response. Otherwise the response is a single JSON body, as before.</p>
+ *
+ * <p>Every message runs on an {@link ExecutionLanes} lane rather than the servlet thread, so long imports cannot
+ * starve control methods; work turned away by admission control is answered with a "Server busy" error.</p>
+ *
+ * <p>{@code initialize} is answered with an {@code Mcp-Session-Id} header ({@link McpHttpSessions}).
+ * {@code notifications/cancelled} cancels the call with that request id in the session named by the header, and is
+ * ignored without a session issued here; a closed SSE stream and a JSON response timeout cancel their call either
+ * way. A cancelled call is answered with error -32800, a request id already in flight in its session with -32600.</p>
  */
 @RestController
 public class McpHttpJsonRpcController {
@@ -37,31 +71,147 @@ public class McpHttpJsonRpcController {
     private final ObjectMapper objectMapper;
     private final String httpAuthToken;
     private final UpstreamBaseUrlContext upstreamBaseUrlContext;
+    private final ProgressContext progressContext;
+    private final CancellationContext cancellationContext;
+    private final CallOriginContext originContext;
+    private final String clientIpHeader;
+    private final InFlightCalls inFlight;
+    private final McpHttpSessions sessions;
+    private final StartupWarmUp warmUp;
+    private final ExecutionLanes lanes;
+    private final long responseTimeoutMs;
+    private final long sseTimeoutMs;
+    private final long keepAliveNanos;
+    private final int sseBufferSize;
+
+    private final ExecutorService sseSender;
+    private final ScheduledExecutorService keepAliveScheduler;
+    private final Set<SseEventStream> openStreams = ConcurrentHashMap.newKeySet();
 
     public McpHttpJsonRpcController(
         HandleMcpRequestUseCase useCase,
         ObjectMapper objectMapper,
         @Value("${mcp.http.auth-token:}") String httpAuthToken,
-        UpstreamBaseUrlContext upstreamBaseUrlContext
+        UpstreamBaseUrlContext upstreamBaseUrlContext,
+        ProgressContext progressContext,
+        CancellationContext cancellationContext,
+        CallOriginContext originContext,
+        @Value("${mcp.http.client-ip-header:}") String clientIpHeader,
+        InFlightCalls inFlight,
+        McpHttpSessions sessions,
+        StartupWarmUp warmUp,
+        ExecutionLanes lanes,
+        @Value("${mcp.http.lanes.response-timeout-ms:900000}") long responseTimeoutMs,
+        @Value("${mcp.http.sse.timeout-ms:900000}") long sseTimeoutMs,
+        @Value("${mcp.http.sse.keep-alive-ms:15000}") long keepAliveMs,
+        @Value("${mcp.http.sse.buffer-size:64}") int sseBufferSize
     ) {
         this.useCase = useCase;
         this.objectMapper = objectMapper;
         this.httpAuthToken = httpAuthToken;
         this.upstreamBaseUrlContext = upstreamBaseUrlContext;
+        this.progressContext = progressContext;
+        this.cancellationContext = cancellationContext;
+        this.originContext = originContext;
+        this.clientIpHeader = clientIpHeader;
+        this.inFlight = inFlight;
+        this.sessions = sessions;
+        this.warmUp = warmUp;
+        this.lanes = lanes;
+        this.responseTimeoutMs = responseTimeoutMs;
+        this.sseTimeoutMs = sseTimeoutMs;
+        this.keepAliveNanos = TimeUnit.MILLISECONDS.toNanos(keepAliveMs);
+        this.sseBufferSize = sseBufferSize;
+
+        this.sseSender = Executors.newCachedThreadPool(daemonThreads("mcp-sse-send-"));
+        this.keepAliveScheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("mcp-sse-keepalive-"));
+        this.keepAliveScheduler.scheduleWithFixedDelay(this::sendKeepAlives, keepAliveMs, keepAliveMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        keepAliveScheduler.shutdownNow();
+        sseSender.shutdownNow();
     }
 
-    @PostMapping(path = "/mcp", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public Map<String, Object> handle(
+    /**
+     * Completes with an {@link SseEmitter} for streamed tool calls and with a JSON response otherwise; the
+     * servlet thread is released while the message waits for or runs on its lane.
+     */
+    @PostMapping(path = "/mcp", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<Object> handle(
         @RequestBody Map<String, Object> msg,
-        @RequestHeader(value = "Authorization", required = false) String authorization
+        @RequestHeader(value = "Authorization", required = false) String authorization,
+        @RequestHeader(value = "Accept", required = false) String accept,
+        @RequestHeader(value = McpHttpSessions.HEADER, required = false) String sessionId,
+        HttpServletRequest servletRequest
     ) {
-        if (httpAuthToken != null && !httpAuthToken.isBlank()) {
-            String token = extractBearer(authorization);
-            if (token == null || !httpAuthToken.equals(token)) {
-                return jsonRpcError(msg.get("id"), -32001, "Unauthorized", Map.of());
+        Object id = msg.get("id");
+        DeferredResult<Object> deferred = new DeferredResult<>(responseTimeoutMs);
+        if (!isAuthorized(authorization)) {
+            deferred.setResult(json(jsonRpcError(id, -32001, "Unauthorized", Map.of())));
+            return deferred;
+        }
+
+        // Request ids are only matched within a session this server issued; without one nothing can be cancelled.
+        String scope = sessions.scope(sessionId);
+        // JSON-RPC notifications (no id) get no response body: 202 Accepted per Streamable HTTP.
+        if (id == null && msg.get("method") instanceof String m && m.startsWith("notifications/")) {
+            if ("notifications/cancelled".equals(m) && msg.get("params") instanceof Map<?, ?> params) {
+                if (scope != null) {
+                    inFlight.cancel(InFlightCalls.key(scope, params.get("requestId")), (String) params.get("reason"));
+                } else {
+                    log.debug("Ignoring notifications/cancelled without a known {}", McpHttpSessions.HEADER);
+                }
             }
+            deferred.setResult(ResponseEntity.status(HttpStatus.ACCEPTED).build());
+            return deferred;
+        }
+
+        String callKey = InFlightCalls.key(scope, id);
+        InFlightCalls.Call call = inFlight.register(callKey);
+        if (call == null) {
+            deferred.setResult(json(jsonRpcError(id, -32600, "Invalid Request", Map.of(
+                "error", "Request id " + id + " is already in flight in this session"
+            ))));
+            return deferred;
+        }
+        String issuedSession = "initialize".equals(msg.get("method")) ? sessions.issue() : null;
+        String origin = originOf(servletRequest);
+        ExecutionLanes.Lane lane = lanes.laneFor((String) msg.get("method"), (Map<?, ?>) msg.get("params"));
+        if ("tools/call".equals(msg.get("method")) && acceptsEventStream(accept)) {
+            deferred.setResult(stream(msg, lane, callKey, call, origin));
+            return deferred;
+        }
+
+        deferred.onTimeout(() -> {
+            call.cancel();
+            deferred.setResult(json(jsonRpcError(id, -32000, "Request timed out", Map.of(
+                "timeoutMs", responseTimeoutMs
+            ))));
+        });
+        try {
+            lanes.execute(lane, () -> deferred.setResult(json(dispatch(msg, callKey, call, origin), issuedSession)));
+        } catch (ExecutionLanes.Rejected e) {
+            inFlight.done(callKey, call);
+            deferred.setResult(json(busy(id, e)));
+        }
+        return deferred;
+    }
+
+    private Map<String, Object> dispatch(Map<String, Object> msg, String callKey, InFlightCalls.Call call, String origin) {
+        cancellationContext.bind(call);
+        originContext.bind(origin);
+        try {
+            return dispatch(msg);
+        } finally {
+            originContext.clear();
+            cancellationContext.clear();
+            inFlight.done(callKey, call);
         }
+    }
 
+    private Map<String, Object> dispatch(Map<String, Object> msg) {
         Object id = msg.get("id");
         String method = (String) msg.get("method");
         @SuppressWarnings("unchecked")
@@ -69,12 +219,14 @@ public class McpHttpJsonRpcController {
 
         try {
             return switch (method) {
+                case "ping" -> jsonRpcResult(id, Map.of());
                 case "initialize" -> jsonRpcResult(id, Map.of(
                     "protocolVersion", PROTOCOL_VERSION,
                     "capabilities", Map.of("tools", Map.of()),
-                    "serverInfo", Map.of("name", SERVER_NAME, "version", SERVER_VERSION)
+                    "serverInfo", Map.of("name", SERVER_NAME, "version", SERVER_VERSION),
+                    "_meta", warmUp.readiness()
                 ));
-                case "tools/list" -> jsonRpcResult(id, Map.of("tools", toolList()));
+                case "tools/list" -> jsonRpcResult(id, Map.of("tools", useCase.toolList()));
                 case "tools/call" -> handleToolCall(id, params);
                 case "shutdown", "exit" -> jsonRpcResult(id, Map.of());
                 default -> jsonRpcError(id, -32601, "Method not found", Map.of(
@@ -87,6 +239,111 @@ public class McpHttpJsonRpcController {
         }
     }
 
+    private SseEmitter stream(Map<String, Object> msg, ExecutionLanes.Lane lane, String callKey, InFlightCalls.Call call,
+                              String origin) {
+        Object id = msg.get("id");
+        Object progressToken = null;
+        if (msg.get("params") instanceof Map<?, ?> params && params.get("_meta") instanceof Map<?, ?> meta) {
+            progressToken = meta.get("progressToken");
+        }
+
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        SseEventStream stream = new SseEventStream(emitter, sseSender, sseBufferSize, progressToken);
+        openStreams.add(stream);
+        // Once the client is gone nobody waits for the result: cancel the call (a no-op after it finished).
+        Runnable close = () -> {
+            stream.markClosed();
+            openStreams.remove(stream);
+            call.cancel();
+        };
+        emitter.onCompletion(close);
+        emitter.onTimeout(close);
+        emitter.onError(t -> close.run());
+
+        try {
+            lanes.execute(lane, () -> {
+                Map<String, Object> result;
+                progressContext.bind(stream);
+                try {
+                    result = dispatch(msg, callKey, call, origin);
+                } finally {
+                    progressContext.clear();
+                }
+                stream.complete(result);
+            });
+        } catch (ExecutionLanes.Rejected e) {
+            inFlight.done(callKey, call);
+            stream.complete(busy(id, e));
+        }
+        return emitter;
+    }
+
+    private void sendKeepAlives() {
+        long now = System.nanoTime();
+        for (SseEventStream stream : openStreams) {
+            if (stream.isClosed()) {
+                openStreams.remove(stream);
+            } else {
+                stream.keepAlive(now, keepAliveNanos);
+            }
+        }
+    }
+
+    private static ResponseEntity<Map<String, Object>> json(Map<String, Object> body) {
+        return json(body, null);
+    }
+
+    private static ResponseEntity<Map<String, Object>> json(Map<String, Object> body, String sessionId) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+        if (sessionId != null) {
+            response.header(McpHttpSessions.HEADER, sessionId);
+        }
+        return response.body(body);
+    }
+
+    private static Map<String, Object> busy(Object id, ExecutionLanes.Rejected e) {
+        log.warn("Rejecting MCP message: {}", e.getMessage());
+        return jsonRpcError(id, -32000, "Server busy", Map.of(
+            "lane", e.lane().name().toLowerCase(Locale.ROOT),
+            "reason", e.reason()
+        ));
+    }
+
+    /**
+     * Client address of the request: {@code mcp.http.client-ip-header} when set (a header written by the proxy in
+     * front of this server, such as {@code Fly-Client-IP}), otherwise the peer address.
+     */
+    private String originOf(HttpServletRequest request) {
+        if (clientIpHeader != null && !clientIpHeader.isBlank()) {
+            String forwarded = request.getHeader(clientIpHeader);
+            if (forwarded != null && !forwarded.isBlank()) {
+                return forwarded.trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private boolean isAuthorized(String authorization) {
+        if (httpAuthToken == null || httpAuthToken.isBlank()) {
+            return true;
+        }
+        String token = extractBearer(authorization);
+        return token != null && httpAuthToken.equals(token);
+    }
+
+    private static boolean acceptsEventStream(String accept) {
+        return accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
     @SuppressWarnings("unchecked")
     private Map<String, Object> handleToolCall(Object id, Map<String, Object> params) throws Exception {
         String name = (String) params.get("name");
@@ -112,6 +369,13 @@ public class McpHttpJsonRpcController {
             if (outcome instanceof McpSuccess success) {
                 String jsonText = objectMapper.writeValueAsString(success.result());
                 content = Map.of("type", "text", "text", jsonText);
+            } else if (outcome instanceof McpFailure failure
+                && ToolRateLimiter.ERROR_CODE.equals(failure.error().code())) {
+                // Rejected before the tool ran: a protocol-level error the client can back off on.
+                return jsonRpcError(id, ToolRateLimiter.JSON_RPC_CODE, failure.error().message(), failure.error().details());
+            } else if (outcome instanceof McpFailure failure
+                && CallCancelledException.ERROR_CODE.equals(failure.error().code())) {
+                return jsonRpcError(id, CallCancelledException.JSON_RPC_CODE, failure.error().message(), Map.of());
             } else {
                 var failure = (McpFailure) outcome;
                 Map<String, Object> errorObj = Map.of(
@@ -129,82 +393,6 @@ public class McpHttpJsonRpcController {
         }
     }
 
-    private List<Map<String, Object>> toolList() {
-        return List.of(
-            Map.of(
-                "name", "ping",
-                "description", "Health check: returns pong.",
-                "inputSchema", Map.of(
-                    "type", "object",
-                    "properties", Map.of(),
-                    "additionalProperties", false
-                )
-            ),
-            Map.of(
-                "name", "login",
-                "description", "Login and store session token server-side keyed by clientId.",
-                "inputSchema", Map.of(
-                    "type", "object",
-                    "properties", Map.of(
-                        "username", Map.of("type", "string"),
-                        "password", Map.of("type", "string"),
-                        "companyname", Map.of("type", "string"),
-                        "clientId", Map.of("type", "string"),
-                        "authBaseUrl", Map.of("type", "string", "description", "Optional. Override upstream Auth base URL (bridge-injected)."),
-                        "appsBaseUrl", Map.of("type", "string", "description", "Optional. Override upstream Apps base URL (bridge-injected).")
-                    ),
-                    "required", List.of("username", "password", "companyname", "clientId"),
-                    "additionalProperties", false
-                )
-            ),
-            Map.of(
-                "name", "create_app",
-                "description", "Create app via saveApp. You can provide only appName; other fields are optional and will be auto-filled.",
-                "inputSchema", Map.of(
-                    "type", "object",
-                    "properties", Map.of(
-                        "clientId", Map.of("type", "string"),
-                        "sessionToken", Map.of("type", "string", "description",
-                            "Optional. If provided, bypasses stored login session and uses this token for the call."),
-                        "authBaseUrl", Map.of("type", "string", "description", "Optional. Override upstream Auth base URL (bridge-injected)."),
-                        "appsBaseUrl", Map.of("type", "string", "description", "Optional. Override upstream Apps base URL (bridge-injected)."),
-                        "AppearOnMobile", Map.of("type", "boolean", "description", "Optional. Default: true"),
-                        "appName", Map.of("type", "string", "description", "Required. App display name."),
-                        "appIdentifier", Map.of("type", "string", "description", "Optional. Default: derived 3-letter code from appName."),
-                        "shortNotes", Map.of("type", "string", "description", "Optional. Default: appName"),
-                        "icon", Map.of("type", "string", "description", "Optional. Default: fa fa-heart")
-                    ),
-                    "required", List.of("appName"),
-                    "additionalProperties", false
-                )
-            ),
-            Map.of(
-                "name", "import_app",
-                "description", "Import an app from MCP storage by appName using Import/Export APIs (uploadFile -> validateAppIdentifier -> importApp).",
-                "inputSchema", Map.of(
-                    "type", "object",
-                    "properties", Map.of(
-                        "clientId", Map.of("type", "string"),
-                        "sessionToken", Map.of("type", "string", "description",
-                            "Optional. If provided, bypasses stored login session and uses this token for the call."),
-                        "authBaseUrl", Map.of("type", "string", "description", "Optional. Override upstream Auth base URL (bridge-injected)."),
-                        "appsBaseUrl", Map.of("type", "string", "description", "Optional. Override upstream Apps base URL (bridge-injected)."),
-                        "appName", Map.of("type", "string", "description",
-                            "Required. App name (folder name under MCP_IMPORT_APPS_DIR). Server chooses the newest file in that folder."),
-                        "newAppIdentifier", Map.of("type", "string", "description",
-                            "Optional. Used only if the app already exists. New 3-letter identifier to import under."),
-                        "newAppName", Map.of("type", "string", "description",
-                            "Optional. Used only if the app already exists. New app name to import under."),
-                        "debug", Map.of("type", "boolean", "description",
-                            "Optional. If true, include full upstream API payloads for debugging. Default: false.")
-                    ),
-                    "required", List.of("appName"),
-                    "additionalProperties", false
-                )
-            )
-        );
-    }
-
     private static Map<String, Object> jsonRpcResult(Object id, Object result) {
         Map<String, Object> response = new HashMap<>();
         response.put("jsonrpc", "2.0");
@@ -0,0 +1,82 @@
+package com.ntg.appsbroker.mcp.adapter.http;
+
+import com.ntg.appsbroker.ports.MetricsSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * MCP over HTTP sessions: the {@code Mcp-Session-Id} handed out on {@code initialize}, which scopes request ids for
+ * {@code notifications/cancelled}.
+ *
+ * <p>Ids are random UUIDs issued by this server; the last {@code mcp.http.sessions.max-entries} used are kept (LRU),
+ * so ids sent by a client that never got them from here, or that were evicted, are unknown.</p>
+ */
+@Component
+public class McpHttpSessions implements MetricsSource {
+    public static final String HEADER = "Mcp-Session-Id";
+
+    private final Map<String, Boolean> sessions;
+    private final LongAdder issued = new LongAdder();
+    private final LongAdder unknown = new LongAdder();
+
+    public McpHttpSessions(@Value("${mcp.http.sessions.max-entries:4096}") int maxEntries) {
+        int capacity = Math.max(1, maxEntries);
+        this.sessions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * A new session id.
+     */
+    public String issue() {
+        String id = UUID.randomUUID().toString();
+        synchronized (sessions) {
+            sessions.put(id, Boolean.TRUE);
+        }
+        issued.increment();
+        return id;
+    }
+
+    /**
+     * Cancellation scope of a session id; null when it was not issued by this server (or has been evicted).
+     */
+    public String scope(String sessionId) {
+        if (sessionId == null || sessionId.isBlank()) {
+            return null;
+        }
+        synchronized (sessions) {
+            if (sessions.get(sessionId) != null) {
+                return "http:" + sessionId;
+            }
+        }
+        unknown.increment();
+        return null;
+    }
+
+    @Override
+    public String metricsName() {
+        return "http.sessions";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        int size;
+        synchronized (sessions) {
+            size = sessions.size();
+        }
+        return Map.of(
+            "sessions", size,
+            "issued", issued.sum(),
+            "unknown", unknown.sum()
+        );
+    }
+}
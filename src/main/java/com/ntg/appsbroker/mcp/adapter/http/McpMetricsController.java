@@ -0,0 +1,49 @@
+package com.ntg.appsbroker.mcp.adapter.http;
+
+import com.ntg.appsbroker.ports.MetricsSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Metrics over HTTP: JSON snapshot of every {@link MetricsSource} bean.
+ *
+ * Endpoint: GET /metrics (same bearer token as /mcp when MCP_HTTP_AUTH_TOKEN is set)
+ */
+@RestController
+public class McpMetricsController {
+    private final List<MetricsSource> sources;
+    private final String httpAuthToken;
+
+    public McpMetricsController(
+        List<MetricsSource> sources,
+        @Value("${mcp.http.auth-token:}") String httpAuthToken
+    ) {
+        this.sources = sources;
+        this.httpAuthToken = httpAuthToken;
+    }
+
+    @GetMapping(path = "/metrics", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> metrics(
+        @RequestHeader(value = "Authorization", required = false) String authorization
+    ) {
+        if (httpAuthToken != null && !httpAuthToken.isBlank()
+            && !("Bearer " + httpAuthToken).equals(authorization == null ? null : authorization.trim())) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        Map<String, Object> body = new TreeMap<>();
+        for (MetricsSource source : sources) {
+            body.put(source.metricsName(), source.metrics());
+        }
+        return ResponseEntity.ok(body);
+    }
+}
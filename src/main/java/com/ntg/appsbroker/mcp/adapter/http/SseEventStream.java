@@ -0,0 +1,191 @@
+package com.ntg.appsbroker.mcp.adapter.http;
+
+import com.ntg.appsbroker.ports.ProgressReporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * One SSE response stream of the MCP Streamable HTTP transport (POST /mcp answered with text/event-stream).
+ *
+ * <p>Producers (tool worker threads, WebClient/Netty callbacks) only enqueue; a single drain task at a time
+ * writes to the {@link SseEmitter}, so a slow client never blocks the upload or the tool call. The buffer is
+ * bounded: when it is full, the oldest pending progress notification / keep-alive is dropped in favour of the
+ * newer one. The final JSON-RPC response is never dropped.</p>
+ */
+final class SseEventStream implements ProgressReporter {
+    private static final Logger log = LoggerFactory.getLogger(SseEventStream.class);
+
+    private final SseEmitter emitter;
+    private final Executor sender;
+    private final int maxBuffered;
+    private final Object progressToken;
+
+    private final ArrayDeque<Event> pending = new ArrayDeque<>();
+    private boolean draining;
+    private boolean closed;
+    private long dropped;
+    private volatile long lastActivityNanos = System.nanoTime();
+
+    // Progress state (guarded by this)
+    private int step;
+    private int totalSteps;
+    private String stage;
+    private double lastProgress = -1;
+
+    SseEventStream(SseEmitter emitter, Executor sender, int maxBuffered, Object progressToken) {
+        this.emitter = emitter;
+        this.sender = sender;
+        this.maxBuffered = Math.max(1, maxBuffered);
+        this.progressToken = progressToken;
+    }
+
+    @Override
+    public void stage(int step, int totalSteps, String stage) {
+        if (progressToken == null) return;
+        Map<String, Object> notification;
+        synchronized (this) {
+            this.step = step;
+            this.totalSteps = totalSteps;
+            this.stage = stage;
+            notification = progressNotification(step, stage);
+        }
+        if (notification != null) {
+            offer(new Event(notification, true, false));
+        }
+    }
+
+    @Override
+    public void bytes(long done, long total) {
+        if (progressToken == null || total <= 0) return;
+        Map<String, Object> notification;
+        synchronized (this) {
+            // Stay strictly inside the current step so the next stage() is still an increase.
+            double fraction = Math.min(0.99, (double) done / (double) total);
+            notification = progressNotification(step + fraction, stage + ": " + done + "/" + total + " bytes");
+        }
+        if (notification != null) {
+            offer(new Event(notification, true, false));
+        }
+    }
+
+    /**
+     * Sends the JSON-RPC response for the call and completes the stream.
+     */
+    void complete(Map<String, Object> response) {
+        offer(new Event(response, false, true));
+    }
+
+    /**
+     * Emits an SSE comment if nothing was written for {@code idleNanos}, keeping proxies from closing the stream.
+     */
+    void keepAlive(long nowNanos, long idleNanos) {
+        if (nowNanos - lastActivityNanos >= idleNanos) {
+            offer(new Event(null, true, false));
+        }
+    }
+
+    synchronized boolean isClosed() {
+        return closed;
+    }
+
+    synchronized void markClosed() {
+        closed = true;
+        pending.clear();
+    }
+
+    private Map<String, Object> progressNotification(double progress, String message) {
+        // MCP requires progress to increase with each notification.
+        if (progress <= lastProgress) return null;
+        lastProgress = progress;
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("progressToken", progressToken);
+        params.put("progress", progress);
+        if (totalSteps > 0) {
+            params.put("total", totalSteps);
+        }
+        if (message != null) {
+            params.put("message", message);
+        }
+        return Map.of("jsonrpc", "2.0", "method", "notifications/progress", "params", params);
+    }
+
+    private void offer(Event event) {
+        boolean schedule;
+        synchronized (this) {
+            if (closed) return;
+            if (pending.size() >= maxBuffered) {
+                if (!event.droppable) {
+                    dropOldestDroppable();
+                } else if (!dropOldestDroppable()) {
+                    dropped++;
+                    return;
+                }
+            }
+            pending.addLast(event);
+            schedule = !draining;
+            draining = true;
+        }
+        if (schedule) {
+            sender.execute(this::drain);
+        }
+    }
+
+    private boolean dropOldestDroppable() {
+        Iterator<Event> it = pending.iterator();
+        while (it.hasNext()) {
+            if (it.next().droppable) {
+                it.remove();
+                dropped++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void drain() {
+        while (true) {
+            Event event;
+            synchronized (this) {
+                event = closed ? null : pending.pollFirst();
+                if (event == null) {
+                    draining = false;
+                    return;
+                }
+            }
+            try {
+                if (event.payload == null) {
+                    emitter.send(SseEmitter.event().comment("ping"));
+                } else {
+                    emitter.send(SseEmitter.event().data(event.payload, MediaType.APPLICATION_JSON));
+                }
+                lastActivityNanos = System.nanoTime();
+                if (event.last) {
+                    long droppedCount;
+                    synchronized (this) {
+                        droppedCount = dropped;
+                    }
+                    if (droppedCount > 0) {
+                        log.debug("SSE stream completed: droppedEvents={}", droppedCount);
+                    }
+                    markClosed();
+                    emitter.complete();
+                }
+            } catch (Exception e) {
+                log.debug("SSE stream closed by client: {}", e.getMessage());
+                markClosed();
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    private record Event(Map<String, Object> payload, boolean droppable, boolean last) {}
+}
@@ -0,0 +1,35 @@
+package com.ntg.appsbroker.ports;
+
+/**
+ * Port: hands out 3-letter app identifiers (A-Z) that are not in use in the current apps environment.
+ *
+ * <p>Every identifier passed to {@link #allocate} or {@link #claim} stays pending until it is either
+ * {@link #confirm confirmed} (the upstream created the app or reported the identifier as taken) or
+ * {@link #release released} (the call failed or was never sent).</p>
+ */
+public interface AppIdentifierAllocator {
+    /**
+     * Claims {@code preferred} when it is free, otherwise the nearest free identifier (same first two letters, then
+     * same first letter, then any); a blank or non-3-letter {@code preferred} gets a random free identifier.
+     *
+     * @return the claimed identifier, or null when every identifier is taken
+     */
+    String allocate(String preferred, String sessionToken);
+
+    /**
+     * Claims an identifier chosen by the caller.
+     *
+     * @return false when it was already known to be taken (nothing to confirm or release)
+     */
+    boolean claim(String identifier);
+
+    /**
+     * Records that {@code identifier} is in use upstream.
+     */
+    void confirm(String identifier);
+
+    /**
+     * Frees a claimed identifier whose create or import did not take it upstream.
+     */
+    void release(String identifier);
+}
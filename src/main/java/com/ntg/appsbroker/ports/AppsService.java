@@ -1,29 +1,55 @@
 package com.ntg.appsbroker.ports;
 
-import java.nio.file.Path;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Port: Apps service interface for external app management APIs.
+ *
+ * <p>Calls taking a {@link Deadline} give up once it passes ({@link DeadlineExceededException}), and do not start
+ * when it already has.</p>
  */
 public interface AppsService {
     AppsResponse saveApp(Map<String, Object> spec, String sessionToken);
 
+    /**
+     * saveApp for every spec with at most {@code parallelism} calls in flight; results are in spec order. A call
+     * that ended without an HTTP reply (e.g. {@link UpstreamBusyException}) is reported in {@link SaveResult#error()}.
+     */
+    List<SaveResult> saveApps(List<Map<String, Object>> specs, String sessionToken, int parallelism);
+
+    /**
+     * Identifiers of the apps that exist upstream, or null when no listing endpoint is configured.
+     */
+    List<String> listAppIdentifiers(String sessionToken);
+
     /**
      * Upload an exported app package for import (multipart/form-data; part name: file).
+     * On success the body is an {@link UploadedPackage}, which the caller must close.
      */
-    AppsResponse uploadImportFile(Path file, String sessionToken);
+    AppsResponse uploadImportFile(ImportPackage file, String sessionToken, Deadline deadline);
+
+    /**
+     * Export {@code appIdentifier} from the environment at {@code sourceBaseUrl} and stream the package straight into
+     * this environment's uploadFile (nothing is written to disk or held whole in memory).
+     * On success the body is an {@link UploadedPackage}, which the caller must close.
+     */
+    AppsResponse uploadExportedApp(String sourceBaseUrl, String sourceSessionToken, String appIdentifier, String sessionToken,
+                                   Deadline deadline);
 
     /**
      * Validate whether an imported app identifier already exists / can be merged.
      */
-    AppsResponse validateAppIdentifier(Map<String, Object> payload, String sessionToken);
+    AppsResponse validateAppIdentifier(Map<String, Object> payload, String sessionToken, Deadline deadline);
 
     /**
-     * Perform the actual app import using the payload returned from uploadFile (plus override fields).
+     * Perform the import with the raw uploadFile reply as payload; {@code overrides} replace (or add) top-level
+     * fields without decoding the rest of the payload.
      */
-    AppsResponse importApp(Map<String, Object> payload, String sessionToken);
+    AppsResponse importApp(UploadedPackage uploaded, Map<String, Object> overrides, String sessionToken, Deadline deadline);
     
     record AppsResponse(int statusCode, Object body) {}
+
+    record SaveResult(AppsResponse response, RuntimeException error) {}
 }
 
@@ -0,0 +1,16 @@
+package com.ntg.appsbroker.ports;
+
+/**
+ * Port: thrown when the client cancelled the tool call; steps that had not started were skipped and an upstream
+ * exchange in flight was abandoned.
+ */
+public class CallCancelledException extends RuntimeException {
+    /** {@code AppError} code of a cancelled call. */
+    public static final String ERROR_CODE = "cancelled";
+    /** JSON-RPC error code answered for a cancelled call where a response is still due (HTTP). */
+    public static final int JSON_RPC_CODE = -32800;
+
+    public CallCancelledException() {
+        super("Call was cancelled by the client");
+    }
+}
@@ -0,0 +1,14 @@
+package com.ntg.appsbroker.ports;
+
+/**
+ * Port: where the current tool call came from, as identified by the transport (the client address over HTTP,
+ * {@code stdio} for the stdio transport). Unlike tool arguments it cannot be chosen per call by the caller.
+ */
+public interface CallOrigin {
+    String UNKNOWN = "unknown";
+
+    /**
+     * Origin of the call on the current thread; {@link #UNKNOWN} when the transport bound none.
+     */
+    String current();
+}
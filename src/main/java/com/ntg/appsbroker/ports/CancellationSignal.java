@@ -0,0 +1,36 @@
+package com.ntg.appsbroker.ports;
+
+/**
+ * Port: cancellation of the current tool call (MCP {@code notifications/cancelled}).
+ *
+ * Use cases check it before starting a step; upstream-facing services register an action that disposes the
+ * exchange in flight. Calls must be cheap and non-blocking.
+ */
+public interface CancellationSignal {
+    CancellationSignal NONE = new CancellationSignal() {
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public Runnable onCancel(Runnable action) {
+            return () -> {};
+        }
+    };
+
+    boolean isCancelled();
+
+    /**
+     * Runs {@code action} once the call is cancelled (right away when it already is).
+     *
+     * @return deregisters the action
+     */
+    Runnable onCancel(Runnable action);
+
+    default void throwIfCancelled() {
+        if (isCancelled()) {
+            throw new CallCancelledException();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.ntg.appsbroker.ports;
+
+import java.util.List;
+
+/**
+ * Port: ranked search over the files the context providers are allowed to read.
+ */
+public interface ContextFileSearch {
+    SearchResult search(String query, int limit);
+
+    record Hit(String path, double score, int line, String snippet) {}
+
+    /**
+     * {@code complete} is false while the initial index build is still running.
+     */
+    record SearchResult(List<Hit> hits, int indexedFiles, boolean complete) {}
+}
@@ -0,0 +1,50 @@
+package com.ntg.appsbroker.ports;
+
+import java.time.Duration;
+
+/**
+ * Port: point in time ({@link System#nanoTime()} based) by which a tool call must be answered; passed into every
+ * upstream call the call makes. {@link #NONE} never expires.
+ */
+public record Deadline(long atNanos, boolean bounded) {
+    public static final Deadline NONE = new Deadline(0, false);
+
+    public static Deadline after(Duration budget) {
+        return new Deadline(System.nanoTime() + budget.toNanos(), true);
+    }
+
+    public boolean expired() {
+        return bounded && atNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * {@code timeout}, shortened to the time left (zero once expired).
+     */
+    public Duration cap(Duration timeout) {
+        if (!bounded) {
+            return timeout;
+        }
+        long left = Math.max(0, atNanos - System.nanoTime());
+        return left < timeout.toNanos() ? Duration.ofNanos(left) : timeout;
+    }
+
+    /**
+     * Deadline for a step that has to leave {@code reserve} to the steps after it; when less than twice the reserve
+     * is left, the step gets half of the remaining time.
+     */
+    public Deadline leaving(Duration reserve) {
+        if (!bounded) {
+            return this;
+        }
+        long now = System.nanoTime();
+        long left = atNanos - now;
+        long stepNanos = left > 2 * reserve.toNanos() ? left - reserve.toNanos() : left / 2;
+        return new Deadline(now + stepNanos, true);
+    }
+
+    public void throwIfExpired() {
+        if (expired()) {
+            throw new DeadlineExceededException();
+        }
+    }
+}
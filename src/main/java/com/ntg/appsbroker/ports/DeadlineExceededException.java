@@ -0,0 +1,14 @@
+package com.ntg.appsbroker.ports;
+
+/**
+ * Port: thrown when a tool call ran out of its {@link Deadline}; the step in progress was abandoned and the
+ * remaining steps were not started.
+ */
+public class DeadlineExceededException extends RuntimeException {
+    /** {@code AppError} code of a call that missed its deadline. */
+    public static final String ERROR_CODE = "deadline_exceeded";
+
+    public DeadlineExceededException() {
+        super("Deadline exceeded");
+    }
+}
@@ -0,0 +1,23 @@
+package com.ntg.appsbroker.ports;
+
+/**
+ * Port: the source environment's export answered with an error status, so nothing was sent to the target.
+ */
+public class ExportFailedException extends RuntimeException {
+    private final int statusCode;
+    private final String responseBody;
+
+    public ExportFailedException(int statusCode, String responseBody) {
+        super("exportApp failed with status " + statusCode);
+        this.statusCode = statusCode;
+        this.responseBody = responseBody;
+    }
+
+    public int statusCode() {
+        return statusCode;
+    }
+
+    public String responseBody() {
+        return responseBody;
+    }
+}
@@ -0,0 +1,25 @@
+package com.ntg.appsbroker.ports;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Port: one exported app package (.NTGapps) ready to upload for import_app.
+ *
+ * <p>The package may be a file or assembled on demand, so read it through {@link #open()}; every call returns a
+ * fresh stream of exactly {@link #size()} bytes.</p>
+ */
+public interface ImportPackage {
+    String filename();
+
+    /**
+     * Where the package came from (file path or store manifest), for logs and results.
+     */
+    String location();
+
+    long size();
+
+    long lastModifiedMillis();
+
+    InputStream open() throws IOException;
+}
@@ -0,0 +1,26 @@
+package com.ntg.appsbroker.ports;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Port: storage of the app packages offered by import_app.
+ */
+public interface ImportPackageStore {
+    /**
+     * Newest package of {@code appName} (case-insensitive; falls back to packages whose name contains it).
+     *
+     * @throws IOException when the storage or a matching package is missing
+     */
+    ImportPackage resolveNewest(String appName) throws IOException;
+
+    /**
+     * Names of the apps with at least one stored package.
+     */
+    List<String> appNames() throws IOException;
+
+    /**
+     * Storage root, for error details.
+     */
+    String location();
+}
@@ -0,0 +1,15 @@
+package com.ntg.appsbroker.ports;
+
+import java.util.Map;
+
+/**
+ * Port: a component that exposes runtime counters (cache hit ratios, saturation, latencies).
+ *
+ * <p>Beans implementing this are collected by the transports and exported as JSON; snapshots must be cheap
+ * and must not block.</p>
+ */
+public interface MetricsSource {
+    String metricsName();
+
+    Map<String, Object> metrics();
+}
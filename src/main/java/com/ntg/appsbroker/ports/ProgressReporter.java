@@ -0,0 +1,29 @@
+package com.ntg.appsbroker.ports;
+
+/**
+ * Port: Progress reporting for long-running tool calls (e.g. import_app).
+ *
+ * Implementations translate pipeline steps and byte counts into transport-specific
+ * notifications (MCP notifications/progress over SSE). Calls must be cheap and non-blocking.
+ */
+public interface ProgressReporter {
+    ProgressReporter NOOP = new ProgressReporter() {
+        @Override
+        public void stage(int step, int totalSteps, String stage) {
+        }
+
+        @Override
+        public void bytes(long done, long total) {
+        }
+    };
+
+    /**
+     * Reports entering pipeline step {@code step} (0-based) of {@code totalSteps}.
+     */
+    void stage(int step, int totalSteps, String stage);
+
+    /**
+     * Reports bytes transferred within the current step.
+     */
+    void bytes(long done, long total);
+}
@@ -0,0 +1,28 @@
+package com.ntg.appsbroker.ports;
+
+import java.util.Map;
+
+/**
+ * Port: an uploadFile reply kept as raw JSON, with only the fields the import flow reads decoded.
+ *
+ * <p>The rest of the reply (e.g. {@code integrationRepositories}) is never materialized as objects; it is passed
+ * back to {@link AppsService#importApp(UploadedPackage, Map, String, Deadline)} byte for byte. Implementations may
+ * hold the bytes on disk, so callers must {@link #close()} the package when the import is done.</p>
+ */
+public interface UploadedPackage extends AutoCloseable {
+    String appName();
+
+    String appIdentifier();
+
+    String appUuid();
+
+    String version();
+
+    /**
+     * Size of the raw reply in bytes.
+     */
+    long size();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,25 @@
+package com.ntg.appsbroker.ports;
+
+/**
+ * Port: thrown by upstream-facing services when the target upstream has no capacity left for this call.
+ *
+ * <p>Raised before any request is sent, so the call is safe to retry later.</p>
+ */
+public class UpstreamBusyException extends RuntimeException {
+    private final String upstream;
+    private final String reason;
+
+    public UpstreamBusyException(String upstream, String reason) {
+        super("Upstream " + upstream + " is busy (" + reason + "); retry later");
+        this.upstream = upstream;
+        this.reason = reason;
+    }
+
+    public String upstream() {
+        return upstream;
+    }
+
+    public String reason() {
+        return reason;
+    }
+}
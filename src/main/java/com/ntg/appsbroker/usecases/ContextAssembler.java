@@ -0,0 +1,254 @@
+package com.ntg.appsbroker.usecases;
+
+import com.ntg.appsbroker.ports.ContextProvider;
+import com.ntg.appsbroker.ports.MetricsSource;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Use case: assembles allowlisted request context by running every {@link ContextProvider} concurrently.
+ *
+ * <p>Each provider runs on its own small pool, so a slow provider (disk reads in {@code files}) never queues
+ * ahead of the cheap in-memory ones. Each provider also has its own timeout and size budget
+ * ({@code mcp.context.providers.<name>.timeout-ms} / {@code .max-chars}, falling back to
+ * {@code mcp.context.timeout-ms} / {@code mcp.context.max-chars}). A provider that times out or fails is
+ * left out of the result; one that exceeds its budget is trimmed.</p>
+ */
+@Component
+public class ContextAssembler implements MetricsSource {
+    private static final Logger log = LoggerFactory.getLogger(ContextAssembler.class);
+
+    private final Map<String, ContextProvider> providers;
+    private final Map<String, Lane> lanes = new TreeMap<>();
+
+    public ContextAssembler(
+        @Qualifier("contextProviders") Map<String, ContextProvider> providers,
+        Environment environment,
+        @Value("${mcp.context.timeout-ms:250}") long defaultTimeoutMs,
+        @Value("${mcp.context.max-chars:16384}") int defaultMaxChars,
+        @Value("${mcp.context.threads-per-provider:4}") int threadsPerProvider
+    ) {
+        this.providers = providers;
+        for (String name : providers.keySet()) {
+            String prefix = "mcp.context.providers." + name + ".";
+            long timeoutMs = environment.getProperty(prefix + "timeout-ms", Long.class, defaultTimeoutMs);
+            int maxChars = environment.getProperty(prefix + "max-chars", Integer.class, defaultMaxChars);
+            lanes.put(name, new Lane(name, timeoutMs, maxChars, Math.max(1, threadsPerProvider)));
+        }
+        log.info("Context assembly: providers={}", lanes.values().stream()
+            .map(l -> l.name + "(" + l.timeoutMs + "ms/" + l.maxChars + " chars)").toList());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        lanes.values().forEach(l -> l.executor.shutdownNow());
+    }
+
+    /**
+     * Runs all providers for {@code requestParameters} and returns their output keyed by provider name.
+     * Providers with nothing to contribute are omitted; an empty allowlist short-circuits (default-deny).
+     */
+    public Map<String, Object> assemble(Map<String, Object> requestParameters, Set<String> allowlist) {
+        if (allowlist == null || allowlist.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, Object> parameters = requestParameters != null ? requestParameters : Map.of();
+
+        long start = System.nanoTime();
+        Map<String, Future<Map<String, Object>>> pending = new LinkedHashMap<>();
+        Map<String, Object> merged = new TreeMap<>();
+        for (Lane lane : lanes.values()) {
+            ContextProvider provider = providers.get(lane.name);
+            try {
+                pending.put(lane.name, lane.executor.submit(() -> lane.run(provider, parameters, allowlist)));
+            } catch (RejectedExecutionException e) {
+                lane.rejected.increment();
+                log.warn("Context provider '{}' is saturated; skipping", lane.name);
+            }
+        }
+
+        for (Map.Entry<String, Future<Map<String, Object>>> entry : pending.entrySet()) {
+            Lane lane = lanes.get(entry.getKey());
+            Future<Map<String, Object>> future = entry.getValue();
+            // All providers started together, so each deadline is measured from the common start.
+            long remainingNanos = start + TimeUnit.MILLISECONDS.toNanos(lane.timeoutMs) - System.nanoTime();
+            try {
+                Map<String, Object> provided = future.get(Math.max(0, remainingNanos), TimeUnit.NANOSECONDS);
+                if (provided != null && !provided.isEmpty()) {
+                    merged.put(lane.name, lane.fit(provided));
+                }
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                lane.timeouts.increment();
+                log.warn("Context provider '{}' exceeded {} ms; skipping", lane.name, lane.timeoutMs);
+            } catch (ExecutionException e) {
+                lane.failures.increment();
+                log.warn("Context provider '{}' failed: {}", lane.name, String.valueOf(e.getCause()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                pending.values().forEach(f -> f.cancel(true));
+                break;
+            }
+        }
+        return merged;
+    }
+
+    @Override
+    public String metricsName() {
+        return "context.assembly";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> result = new TreeMap<>();
+        lanes.values().forEach(l -> result.put(l.name, l.metrics()));
+        return result;
+    }
+
+    /**
+     * Rough serialized size in characters; good enough to enforce a budget without serializing the value.
+     */
+    static int estimateChars(Object value) {
+        if (value == null) {
+            return 4;
+        }
+        if (value instanceof CharSequence s) {
+            return s.length() + 2;
+        }
+        if (value instanceof Map<?, ?> map) {
+            int size = 2;
+            for (Map.Entry<?, ?> e : map.entrySet()) {
+                size += String.valueOf(e.getKey()).length() + 4 + estimateChars(e.getValue());
+            }
+            return size;
+        }
+        if (value instanceof Collection<?> items) {
+            int size = 2;
+            for (Object item : items) {
+                size += estimateChars(item) + 1;
+            }
+            return size;
+        }
+        if (value instanceof Object[] items) {
+            return estimateChars(List.of(items));
+        }
+        return String.valueOf(value).length();
+    }
+
+    private static final class Lane {
+        final String name;
+        final long timeoutMs;
+        final int maxChars;
+        final ThreadPoolExecutor executor;
+
+        final LongAdder calls = new LongAdder();
+        final LongAdder timeouts = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder truncated = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        final LongAdder totalChars = new LongAdder();
+
+        Lane(String name, long timeoutMs, int maxChars, int threads) {
+            this.name = name;
+            this.timeoutMs = timeoutMs;
+            this.maxChars = maxChars;
+            AtomicInteger counter = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(
+                threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads * 16),
+                r -> {
+                    Thread t = new Thread(r, "mcp-context-" + name + "-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }
+            );
+            this.executor.allowCoreThreadTimeOut(true);
+        }
+
+        Map<String, Object> run(ContextProvider provider, Map<String, Object> parameters, Set<String> allowlist) {
+            long start = System.nanoTime();
+            try {
+                return provider.provide(parameters, allowlist);
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                calls.increment();
+                totalNanos.add(elapsed);
+                maxNanos.accumulate(elapsed);
+            }
+        }
+
+        /**
+         * Keeps entries (and list elements) in order while they fit the budget; the rest is dropped.
+         */
+        Map<String, Object> fit(Map<String, Object> provided) {
+            int size = estimateChars(provided);
+            if (size <= maxChars) {
+                totalChars.add(size);
+                return provided;
+            }
+            truncated.increment();
+            Map<String, Object> kept = new LinkedHashMap<>();
+            int used = 2;
+            for (Map.Entry<String, Object> e : provided.entrySet()) {
+                int keyChars = e.getKey().length() + 4;
+                int valueChars = estimateChars(e.getValue());
+                if (used + keyChars + valueChars <= maxChars) {
+                    kept.put(e.getKey(), e.getValue());
+                    used += keyChars + valueChars;
+                } else if (e.getValue() instanceof List<?> items && used + keyChars + 2 <= maxChars) {
+                    List<Object> partial = new ArrayList<>();
+                    used += keyChars + 2;
+                    for (Object item : items) {
+                        int itemChars = estimateChars(item) + 1;
+                        if (used + itemChars > maxChars) break;
+                        partial.add(item);
+                        used += itemChars;
+                    }
+                    kept.put(e.getKey(), partial);
+                }
+            }
+            kept.put("truncated", true);
+            totalChars.add(used);
+            return kept;
+        }
+
+        Map<String, Object> metrics() {
+            long n = calls.sum();
+            return Map.of(
+                "calls", n,
+                "timeouts", timeouts.sum(),
+                "failures", failures.sum(),
+                "rejected", rejected.sum(),
+                "truncated", truncated.sum(),
+                "avgMicros", n == 0 ? 0.0 : totalNanos.sum() / 1000.0 / n,
+                "maxMicros", maxNanos.get() / 1000,
+                "avgChars", n == 0 ? 0.0 : (double) totalChars.sum() / n
+            );
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.ntg.appsbroker.usecases;
+
+import com.ntg.appsbroker.ports.MetricsSource;
+import com.ntg.appsbroker.usecases.tools.ToolRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Use case: deterministic pre-router for ai.intent.
+ *
+ * <p>Known phrasings ("create app X", "import the app 'Y'", "ping", ...) are compiled at startup into a
+ * word-level trie, restricted to tools present in the {@link ToolRegistry}. A message is routed here only
+ * when exactly one intent matches and its parameters can be extracted; everything else falls back to the
+ * AI gateway. Every phrase names the app (or the tool) explicitly: a bare verb such as "import" also occurs in
+ * ordinary questions ("how do I import data") and is left to the model.</p>
+ */
+@Component
+public class FastPathIntentRouter implements MetricsSource {
+    private static final Logger log = LoggerFactory.getLogger(FastPathIntentRouter.class);
+
+    private static final Pattern QUOTED = Pattern.compile("\"([^\"]+)\"|'([^']+)'|`([^`]+)`");
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}_.\\-]+|\\u0000\\d+");
+    private static final Pattern APP_IDENTIFIER = Pattern.compile(
+        "(?i)\\b(?:app\\s*identifier|identifier|id|code)\\s*(?:=|:|is|of)?\\s*[\"'`]?([A-Za-z]{3})\\b");
+    private static final Pattern TRAILING_PUNCTUATION = Pattern.compile("[.\\-]+$");
+    private static final char QUOTE_MARK = '\u0000';
+
+    private static final Set<String> NAME_FILLERS = Set.of(
+        "a", "an", "the", "new", "app", "application", "called", "named", "for", "me", "please", "my");
+    private static final Set<String> NAME_STOPS = Set.of(
+        "with", "identifier", "id", "code", "as", "using", "and", "from", "to", "in", "on", "please", "into");
+
+    private static final List<Rule> RULES = List.of(
+        new Rule("ping", false, false, "ping", "health check", "healthcheck", "are you alive", "is the server up"),
+        new Rule("login", false, false, "log in", "login", "sign in", "log me in"),
+        new Rule("create_app", true, true,
+            "create app", "create an app", "create a new app", "create the app", "create application",
+            "create an application", "new app", "make an app", "make a new app", "add an app", "add app", "create_app"),
+        new Rule("import_app", true, false,
+            "import app", "import the app", "import an app", "import application", "import the application",
+            "import_app")
+    );
+
+    private final ToolRegistry toolRegistry;
+    private volatile TrieNode root;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder ambiguous = new LongAdder();
+    private final LongAdder routeNanos = new LongAdder();
+    private final LongAdder routeCalls = new LongAdder();
+
+    public FastPathIntentRouter(ToolRegistry toolRegistry) {
+        this.toolRegistry = toolRegistry;
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void compile() {
+        TrieNode trie = new TrieNode();
+        int phrases = 0;
+        for (Rule rule : RULES) {
+            if (toolRegistry.find(rule.intent) == null) {
+                continue;
+            }
+            for (String phrase : rule.phrases) {
+                TrieNode node = trie;
+                for (String word : phrase.split(" ")) {
+                    node = node.next.computeIfAbsent(word, w -> new TrieNode());
+                }
+                node.rule = rule;
+                phrases++;
+            }
+        }
+        root = trie;
+        log.debug("Compiled fast-path intent router: {} phrases", phrases);
+    }
+
+    /**
+     * Returns the routed intent, or empty when the message should go to the model.
+     */
+    public Optional<RoutedIntent> route(String message) {
+        long start = System.nanoTime();
+        try {
+            Optional<RoutedIntent> routed = doRoute(message);
+            if (routed.isPresent()) {
+                hits.increment();
+            } else {
+                misses.increment();
+            }
+            return routed;
+        } finally {
+            routeNanos.add(System.nanoTime() - start);
+            routeCalls.increment();
+        }
+    }
+
+    private Optional<RoutedIntent> doRoute(String message) {
+        if (message == null || message.isBlank()) {
+            return Optional.empty();
+        }
+        TrieNode trie = root;
+        if (trie == null) {
+            compile();
+            trie = root;
+        }
+
+        // Quoted segments become single placeholder tokens so names with spaces survive tokenization.
+        List<String> quoted = new ArrayList<>();
+        Matcher q = QUOTED.matcher(message);
+        StringBuilder text = new StringBuilder();
+        while (q.find()) {
+            String value = q.group(1) != null ? q.group(1) : q.group(2) != null ? q.group(2) : q.group(3);
+            q.appendReplacement(text, " " + QUOTE_MARK + quoted.size() + " ");
+            quoted.add(value.trim());
+        }
+        q.appendTail(text);
+
+        List<String> tokens = new ArrayList<>();
+        Matcher w = WORD.matcher(text);
+        while (w.find()) {
+            tokens.add(w.group());
+        }
+
+        Rule matched = null;
+        String appName = null;
+        for (int i = 0; i < tokens.size(); i++) {
+            TrieNode node = trie;
+            Rule longest = null;
+            int longestEnd = -1;
+            for (int j = i; j < tokens.size(); j++) {
+                node = node.next.get(tokens.get(j).toLowerCase(Locale.ROOT));
+                if (node == null) break;
+                if (node.rule != null) {
+                    longest = node.rule;
+                    longestEnd = j + 1;
+                }
+            }
+            if (longest == null) continue;
+            if (matched != null && matched != longest) {
+                ambiguous.increment();
+                return Optional.empty();
+            }
+            i = longestEnd - 1;
+            if (matched == null) {
+                matched = longest;
+                if (matched.extractAppName) {
+                    // Skip the name so words inside it ("Ping Tracker") are not read as further intents.
+                    NameSpan name = extractName(tokens, longestEnd, quoted);
+                    if (name == null) {
+                        return Optional.empty();
+                    }
+                    appName = name.value;
+                    i = name.end - 1;
+                }
+            }
+        }
+        if (matched == null) {
+            return Optional.empty();
+        }
+
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        if (appName != null) {
+            parameters.put("appName", appName);
+        }
+        if (matched.extractAppIdentifier) {
+            Matcher id = APP_IDENTIFIER.matcher(message);
+            if (id.find()) {
+                parameters.put("appIdentifier", id.group(1).toUpperCase(Locale.ROOT));
+            }
+        }
+        return Optional.of(new RoutedIntent(matched.intent, parameters));
+    }
+
+    private static NameSpan extractName(List<String> tokens, int from, List<String> quoted) {
+        int i = from;
+        while (i < tokens.size() && NAME_FILLERS.contains(tokens.get(i).toLowerCase(Locale.ROOT))) {
+            i++;
+        }
+        if (i >= tokens.size()) {
+            return null;
+        }
+        if (tokens.get(i).charAt(0) == QUOTE_MARK) {
+            return new NameSpan(quoted.get(Integer.parseInt(tokens.get(i).substring(1))), i + 1);
+        }
+        StringBuilder name = new StringBuilder();
+        for (; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            if (token.charAt(0) == QUOTE_MARK || NAME_STOPS.contains(token.toLowerCase(Locale.ROOT))) break;
+            if (name.length() > 0) name.append(' ');
+            name.append(token);
+        }
+        String value = TRAILING_PUNCTUATION.matcher(name).replaceAll("");
+        return value.isBlank() ? null : new NameSpan(value, i);
+    }
+
+    @Override
+    public String metricsName() {
+        return "ai.intent.router";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        long calls = routeCalls.sum();
+        return Map.of(
+            "hits", h,
+            "misses", total - h,
+            "ambiguous", ambiguous.sum(),
+            "hitRatio", total == 0 ? 0.0 : (double) h / total,
+            "avgRouteMicros", calls == 0 ? 0.0 : routeNanos.sum() / 1000.0 / calls
+        );
+    }
+
+    public record RoutedIntent(String intent, Map<String, Object> parameters) {}
+
+    private record NameSpan(String value, int end) {}
+
+    private static final class Rule {
+        final String intent;
+        final boolean extractAppName;
+        final boolean extractAppIdentifier;
+        final String[] phrases;
+
+        Rule(String intent, boolean extractAppName, boolean extractAppIdentifier, String... phrases) {
+            this.intent = intent;
+            this.extractAppName = extractAppName;
+            this.extractAppIdentifier = extractAppIdentifier;
+            this.phrases = phrases;
+        }
+    }
+
+    private static final class TrieNode {
+        final Map<String, TrieNode> next = new HashMap<>();
+        Rule rule;
+    }
+}
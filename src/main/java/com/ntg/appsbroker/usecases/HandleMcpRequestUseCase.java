@@ -1,57 +1,279 @@
 package com.ntg.appsbroker.usecases;
 
+import com.ntg.appsbroker.adapters.schema.SchemaViolation;
 import com.ntg.appsbroker.domain.*;
 import com.ntg.appsbroker.ports.*;
+import com.ntg.appsbroker.usecases.tools.IdempotencyCache;
+import com.ntg.appsbroker.usecases.tools.McpTool;
+import com.ntg.appsbroker.usecases.tools.ToolDefinition;
+import com.ntg.appsbroker.usecases.tools.ToolRateLimiter;
+import com.ntg.appsbroker.usecases.tools.ToolRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.security.SecureRandom;
-import java.util.Comparator;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.stream.Stream;
+import java.util.function.Function;
 
 /**
  * Use case: Handle MCP requests and dispatch to appropriate action handlers.
+ *
+ * <p>Built-in tools are registered in the {@link ToolRegistry} here; additional tools are picked up from
+ * {@link McpTool} beans. Arguments are validated against the tool's compiled input schema before dispatch.</p>
+ *
+ * <p>A call cancelled by the client ({@link CancellationSignal}) skips the steps it has not started and ends with a
+ * {@code cancelled} failure.</p>
+ *
+ * <p>import_app and promote_app run against a deadline of {@code mcp.apps.import.deadline-ms}: each step gets what
+ * is left minus the validate/import timeouts still to come, and no step starts once it has passed.</p>
  */
 @Service
 public class HandleMcpRequestUseCase {
     private static final Logger log = LoggerFactory.getLogger(HandleMcpRequestUseCase.class);
     private static final String DEFAULT_CLIENT_ID = "default";
-    private static final SecureRandom RNG = new SecureRandom();
+    private static final int IMPORT_STEPS = 4;
+
+    private static final ToolDefinition PING = new ToolDefinition(
+        "ping",
+        "Health check: returns pong.",
+        Map.of(
+            "type", "object",
+            "properties", Map.of(),
+            "additionalProperties", false
+        ),
+        false
+    );
+
+    private static final ToolDefinition LOGIN = new ToolDefinition(
+        "login",
+        "Login and store session token server-side keyed by clientId.",
+        Map.of(
+            "type", "object",
+            "properties", Map.of(
+                "username", Map.of("type", "string"),
+                "password", Map.of("type", "string"),
+                "companyname", Map.of("type", "string"),
+                "clientId", Map.of("type", "string")
+            ),
+            "required", List.of("username", "password", "companyname"),
+            "additionalProperties", false
+        ),
+        false
+    );
+
+    private static final Map<String, Object> IDEMPOTENCY_KEY_SCHEMA = Map.of(
+        "type", "string", "minLength", 1, "maxLength", 128,
+        "description", "Optional. Retries with the same key (and arguments) return the first call's result instead of running again."
+    );
+
+    private static final Map<String, Object> APP_SPEC_PROPERTIES = Map.of(
+        "AppearOnMobile", Map.of("type", "boolean", "description", "Optional. Default: true"),
+        "appName", Map.of("type", "string", "description", "Required. App display name."),
+        "appIdentifier", Map.of("type", "string", "description",
+            "Optional. Default: 3-letter code derived from appName (the nearest free code if that one is taken)."),
+        "shortNotes", Map.of("type", "string", "description", "Optional. Default: appName"),
+        "icon", Map.of("type", "string", "description", "Optional. Default: fa fa-heart")
+    );
+
+    private static final ToolDefinition CREATE_APP = new ToolDefinition(
+        "create_app",
+        "Create app via saveApp. You can provide only appName; other fields are optional and will be auto-filled.",
+        Map.of(
+            "type", "object",
+            "properties", withProperty(APP_SPEC_PROPERTIES, IdempotencyCache.ARGUMENT, IDEMPOTENCY_KEY_SCHEMA),
+            "required", List.of("appName"),
+            "additionalProperties", false
+        ),
+        true
+    );
+
+    private static final int CREATE_APPS_MAX_ITEMS = 50;
+
+    private static final ToolDefinition CREATE_APPS = new ToolDefinition(
+        "create_apps",
+        "Create several apps in one call: each item is a create_app spec (defaults filled in the same way). "
+            + "Explicit appIdentifier collisions within the batch are rejected before anything is created; the saveApp "
+            + "calls then run concurrently and the result lists each app's outcome.",
+        Map.of(
+            "type", "object",
+            "properties", Map.of(
+                "apps", Map.of(
+                    "type", "array",
+                    "maxItems", CREATE_APPS_MAX_ITEMS,
+                    "description", "Required. Up to " + CREATE_APPS_MAX_ITEMS + " app specs.",
+                    "items", Map.of(
+                        "type", "object",
+                        "properties", APP_SPEC_PROPERTIES,
+                        "required", List.of("appName"),
+                        "additionalProperties", false
+                    )
+                ),
+                IdempotencyCache.ARGUMENT, IDEMPOTENCY_KEY_SCHEMA
+            ),
+            "required", List.of("apps"),
+            "additionalProperties", false
+        ),
+        true
+    );
+
+    private static final ToolDefinition IMPORT_APP = new ToolDefinition(
+        "import_app",
+        "Import an app from MCP storage by appName using Import/Export APIs (uploadFile -> validateAppIdentifier -> importApp).",
+        Map.of(
+            "type", "object",
+            "properties", Map.of(
+                "appName", Map.of("type", "string", "description",
+                    "Required. App name (folder name under MCP_IMPORT_APPS_DIR). Server chooses the newest file in that folder."),
+                "newAppIdentifier", Map.of("type", "string", "description",
+                    "Optional. Used only if the app already exists. New 3-letter identifier to import under."),
+                "newAppName", Map.of("type", "string", "description",
+                    "Optional. Used only if the app already exists. New app name to import under."),
+                "debug", Map.of("type", "boolean", "description",
+                    "Optional. If true, include upstream status codes and replies for debugging (uploadFile as its summary: "
+                        + "appName, appIdentifier, appUuid, version, and reply size). Default: false."),
+                IdempotencyCache.ARGUMENT, IDEMPOTENCY_KEY_SCHEMA
+            ),
+            "required", List.of("appName"),
+            "additionalProperties", false
+        ),
+        true
+    );
+    
+    private static final ToolDefinition PROMOTE_APP = new ToolDefinition(
+        "promote_app",
+        "Promote an app from a source environment (e.g. UAT) into this one: the source export is streamed straight into "
+            + "uploadFile, then validateAppIdentifier -> importApp run as in import_app.",
+        Map.of(
+            "type", "object",
+            "properties", Map.of(
+                "sourceBaseUrl", Map.of("type", "string", "minLength", 1, "description",
+                    "Required. Base URL of the source Smart2Go environment."),
+                "sourceSessionToken", Map.of("type", "string", "minLength", 1, "description",
+                    "Required. Session token for the source environment."),
+                "appIdentifier", Map.of("type", "string", "minLength", 1, "description",
+                    "Required. Identifier of the app to export from the source."),
+                "newAppIdentifier", Map.of("type", "string", "description",
+                    "Optional. Used only if the app already exists in the target. New 3-letter identifier to import under."),
+                "newAppName", Map.of("type", "string", "description",
+                    "Optional. Used only if the app already exists in the target. New app name to import under."),
+                "debug", Map.of("type", "boolean", "description",
+                    "Optional. If true, include upstream status codes and replies for debugging, as for import_app. Default: false."),
+                IdempotencyCache.ARGUMENT, IDEMPOTENCY_KEY_SCHEMA
+            ),
+            "required", List.of("sourceBaseUrl", "sourceSessionToken", "appIdentifier"),
+            "additionalProperties", false
+        ),
+        true
+    );
     
     private final AuthService authService;
     private final AppsService appsService;
     private final SessionStore sessionStore;
-    private final String importAppsDir;
+    private final ProgressReporter progress;
+    private final CancellationSignal cancellation;
+    private final ToolRegistry toolRegistry;
+    private final ToolRateLimiter rateLimiter;
+    private final CallOrigin origin;
+    private final IdempotencyCache idempotency;
+    private final ImportPackageStore importPackages;
+    private final int createAppsParallelism;
+    private final AppIdentifierAllocator identifiers;
+    private final Duration importDeadline;
+    private final Duration validateTimeout;
+    private final Duration importTimeout;
     
     public HandleMcpRequestUseCase(
         AuthService authService,
         AppsService appsService,
         SessionStore sessionStore,
-        @Value("${mcp.import.apps-dir:storage/import-apps}") String importAppsDir
+        ProgressReporter progress,
+        CancellationSignal cancellation,
+        ToolRegistry toolRegistry,
+        ToolRateLimiter rateLimiter,
+        CallOrigin origin,
+        IdempotencyCache idempotency,
+        ObjectProvider<McpTool> additionalTools,
+        ImportPackageStore importPackages,
+        @Value("${mcp.apps.batch.parallelism:4}") int createAppsParallelism,
+        AppIdentifierAllocator identifiers,
+        @Value("${mcp.apps.import.deadline-ms:900000}") long importDeadlineMs,
+        @Value("${mcp.apps.timeouts.validate-ms:15000}") long validateTimeoutMs,
+        @Value("${mcp.apps.timeouts.import-ms:60000}") long importTimeoutMs
     ) {
         this.authService = authService;
         this.appsService = appsService;
         this.sessionStore = sessionStore;
-        this.importAppsDir = importAppsDir;
+        this.progress = progress;
+        this.cancellation = cancellation;
+        this.toolRegistry = toolRegistry;
+        this.rateLimiter = rateLimiter;
+        this.origin = origin;
+        this.idempotency = idempotency;
+        this.importPackages = importPackages;
+        this.createAppsParallelism = Math.max(1, createAppsParallelism);
+        this.identifiers = identifiers;
+        this.importDeadline = Duration.ofMillis(importDeadlineMs);
+        this.validateTimeout = Duration.ofMillis(validateTimeoutMs);
+        this.importTimeout = Duration.ofMillis(importTimeoutMs);
+
+        toolRegistry.register(PING, (request, clientId) -> handlePing(request));
+        toolRegistry.register(LOGIN, this::handleLogin);
+        toolRegistry.register(CREATE_APP, (request, clientId) -> handleCreateApp(request));
+        toolRegistry.register(CREATE_APPS, (request, clientId) -> handleCreateApps(request));
+        toolRegistry.register(IMPORT_APP, (request, clientId) -> handleImportApp(request));
+        toolRegistry.register(PROMOTE_APP, (request, clientId) -> handlePromoteApp(request));
+        additionalTools.orderedStream().forEach(toolRegistry::register);
+    }
+
+    /**
+     * Tool descriptors for tools/list.
+     */
+    public List<Map<String, Object>> toolList() {
+        return toolRegistry.toolList();
     }
     
     public McpOutcome execute(McpRequestData request, String clientId) {
         log.debug("Executing MCP request: action={}, clientId={}", request.action(), clientId);
+
+        ToolRegistry.RegisteredTool tool = toolRegistry.find(request.action());
+        if (tool == null) {
+            return new McpFailure(
+                request.requestId(),
+                new AppError("invalid_action", "Unknown action", 
+                    Map.of("action", String.valueOf(request.action())))
+            );
+        }
+
+        ToolRateLimiter.Rejection limited = rateLimiter.tryAcquire(
+            origin.current(), rateLimiter.callerOf(sessionTokenOf(request, clientId)), request.action());
+        if (limited != null) {
+            return new McpFailure(
+                request.requestId(),
+                new AppError(ToolRateLimiter.ERROR_CODE,
+                    "Rate limit exceeded for " + request.action() + "; retry after " + limited.retryAfterMs() + " ms",
+                    Map.of("scope", limited.scope(), "tool", limited.tool(), "retryAfterMs", limited.retryAfterMs()))
+            );
+        }
+
+        SchemaViolation violation = tool.validate(request.parameters());
+        if (violation != null) {
+            return new McpFailure(
+                request.requestId(),
+                new AppError("validation_failed", "Invalid arguments for " + request.action() + ": " + violation,
+                    Map.of("path", violation.path(), "error", violation.message()))
+            );
+        }
         
         // Session enforcement for protected actions
-        if (!request.action().equals("ping") && 
-            !request.action().equals("login") &&
-            !request.action().equals("ai.intent")) {
+        if (tool.definition().requiresSession()) {
             
             // Allow callers to pass sessionToken explicitly (e.g., from Cursor env),
             // otherwise fall back to the stored/default token for the provided clientId.
@@ -80,20 +302,38 @@ public class HandleMcpRequestUseCase {
             request = new McpRequestData(request.requestId(), request.action(), params);
             }
         }
-        
-        return switch (request.action()) {
-            case "ping" -> handlePing(request);
-            case "login" -> handleLogin(request, clientId);
-            case "create_app" -> handleCreateApp(request);
-            case "import_app" -> handleImportApp(request);
-            default -> new McpFailure(
-                request.requestId(),
-                new AppError("invalid_action", "Unknown action", 
-                    Map.of("action", request.action()))
-            );
-        };
+
+        if (cancellation.isCancelled()) {
+            return cancelled(request);
+        }
+
+        McpOutcome outcome;
+        if (request.parameters().get(IdempotencyCache.ARGUMENT) instanceof String idempotencyKey && !idempotencyKey.isBlank()) {
+            McpRequestData call = request;
+            outcome = idempotency.execute(
+                clientId == null || clientId.isBlank() ? DEFAULT_CLIENT_ID : clientId,
+                sessionTokenOf(request, clientId), (String) request.parameters().get("appsBaseUrl"),
+                request, idempotencyKey, () -> tool.handler().handle(call, clientId));
+        } else {
+            outcome = tool.handler().handle(request, clientId);
+        }
+        if (tool.definition().requiresSession() && outcome instanceof McpSuccess) {
+            // The upstream accepted the token: from now on it has its own rate-limit budget.
+            rateLimiter.verified((String) request.parameters().get("sessionToken"));
+        }
+        return outcome;
     }
     
+    /**
+     * The caller's session token: the explicit {@code sessionToken} argument, else the one stored for its clientId.
+     */
+    private String sessionTokenOf(McpRequestData request, String clientId) {
+        if (request.parameters().get("sessionToken") instanceof String s && !s.isBlank()) {
+            return s;
+        }
+        return sessionStore.getToken(clientId == null || clientId.isBlank() ? DEFAULT_CLIENT_ID : clientId);
+    }
+
     private McpOutcome handlePing(McpRequestData request) {
         return new McpSuccess(request.requestId(), Map.of("message", "pong"));
     }
@@ -118,6 +358,7 @@ public class HandleMcpRequestUseCase {
             String stableClientId = clientId != null && !clientId.isBlank() ? clientId : 
                 companyname + "::" + username;
             sessionStore.setToken(stableClientId, result.sessionToken());
+            rateLimiter.verified(result.sessionToken());
             
             log.info("Login successful: clientId={}", stableClientId);
             
@@ -128,6 +369,8 @@ public class HandleMcpRequestUseCase {
                     "clientId", stableClientId
                 )
             );
+        } catch (UpstreamBusyException e) {
+            return upstreamBusy(request, e);
         } catch (Exception e) {
             log.error("Login failed", e);
             return new McpFailure(
@@ -142,42 +385,14 @@ public class HandleMcpRequestUseCase {
         Map<String, Object> params = request.parameters();
         
         // Validation
-        Object appearOnMobileObj = params.get("AppearOnMobile");
-        Boolean appearOnMobile = appearOnMobileObj instanceof Boolean ? 
-            (Boolean) appearOnMobileObj : true;
-        
-        String appName = (String) params.get("appName");
-        String appIdentifier = (String) params.get("appIdentifier");
-        String shortNotes = (String) params.getOrDefault("shortNotes", null);
-        String icon = (String) params.getOrDefault("icon", null);
-        
-        if (appName == null || appName.isBlank()) {
+        Map<String, Object> spec = resolveAppSpec(params);
+        if (spec == null) {
             return new McpFailure(
                 request.requestId(),
                 new AppError("validation_failed", 
                     "appName is required", null)
             );
         }
-
-        String resolvedAppName = appName.trim();
-        String resolvedAppIdentifier = (appIdentifier == null || appIdentifier.isBlank())
-            ? generateAppIdentifier(resolvedAppName)
-            : appIdentifier.trim();
-        String resolvedShortNotes = (shortNotes == null || shortNotes.isBlank())
-            ? resolvedAppName
-            : shortNotes;
-        String resolvedIcon = (icon == null || icon.isBlank())
-            ? "fa fa-heart"
-            : icon;
-        
-        Map<String, Object> spec = Map.of(
-            "AppearOnMobile", appearOnMobile,
-            "appName", resolvedAppName,
-            "appIdentifier", resolvedAppIdentifier,
-            "shortNotes", resolvedShortNotes,
-            "icon", resolvedIcon
-        );
-        
         String sessionToken = (String) params.get("sessionToken");
         if (sessionToken == null || sessionToken.isBlank()) {
             return new McpFailure(
@@ -185,9 +400,26 @@ public class HandleMcpRequestUseCase {
                 new AppError("validation_failed", "Missing sessionToken", null)
             );
         }
+
+        // A derived identifier moves to the nearest free one; an explicit identifier is sent as given.
+        String appIdentifier = (String) spec.get("appIdentifier");
+        boolean claimed;
+        if (isBlank((String) params.get("appIdentifier"))) {
+            appIdentifier = identifiers.allocate(appIdentifier, sessionToken);
+            if (appIdentifier == null) {
+                return identifiersExhausted(request);
+            }
+            spec = withProperty(spec, "appIdentifier", appIdentifier);
+            claimed = true;
+        } else {
+            claimed = identifiers.claim(appIdentifier);
+        }
+        Object resolvedAppName = spec.get("appName");
         
+        int statusCode = 0;
         try {
             var response = appsService.saveApp(spec, sessionToken);
+            statusCode = response.statusCode();
             if (response.statusCode() != 200) {
                 String message = "Apps service returned non-success status";
                 if (response.statusCode() == 401 || response.statusCode() == 403) {
@@ -204,7 +436,7 @@ public class HandleMcpRequestUseCase {
                 );
             }
             
-            log.info("App created successfully: appName={}, appIdentifier={}", resolvedAppName, resolvedAppIdentifier);
+            log.info("App created successfully: appName={}, appIdentifier={}", resolvedAppName, appIdentifier);
             
             return new McpSuccess(
                 request.requestId(),
@@ -216,13 +448,188 @@ public class HandleMcpRequestUseCase {
                     )
                 )
             );
+        } catch (UpstreamBusyException e) {
+            return upstreamBusy(request, e);
+        } catch (CallCancelledException e) {
+            return cancelled(request);
         } catch (Exception e) {
             log.error("Failed to create app", e);
             return new McpFailure(
                 request.requestId(),
                 new AppError("internal_error", e.getMessage(), null)
             );
+        } finally {
+            settleIdentifier(appIdentifier, claimed, statusCode);
+        }
+    }
+
+    /**
+     * saveApp spec from create_app arguments (or one create_apps item), with defaults filled in; null when
+     * appName is missing.
+     */
+    private static Map<String, Object> resolveAppSpec(Map<String, Object> params) {
+        Object appearOnMobileObj = params.get("AppearOnMobile");
+        Boolean appearOnMobile = appearOnMobileObj instanceof Boolean ? 
+            (Boolean) appearOnMobileObj : true;
+        
+        String appName = (String) params.get("appName");
+        String appIdentifier = (String) params.get("appIdentifier");
+        String shortNotes = (String) params.getOrDefault("shortNotes", null);
+        String icon = (String) params.getOrDefault("icon", null);
+        
+        if (appName == null || appName.isBlank()) {
+            return null;
+        }
+
+        String resolvedAppName = appName.trim();
+        String resolvedAppIdentifier = (appIdentifier == null || appIdentifier.isBlank())
+            ? generateAppIdentifier(resolvedAppName)
+            : appIdentifier.trim();
+        String resolvedShortNotes = (shortNotes == null || shortNotes.isBlank())
+            ? resolvedAppName
+            : shortNotes;
+        String resolvedIcon = (icon == null || icon.isBlank())
+            ? "fa fa-heart"
+            : icon;
+        
+        return Map.of(
+            "AppearOnMobile", appearOnMobile,
+            "appName", resolvedAppName,
+            "appIdentifier", resolvedAppIdentifier,
+            "shortNotes", resolvedShortNotes,
+            "icon", resolvedIcon
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    private McpOutcome handleCreateApps(McpRequestData request) {
+        Map<String, Object> params = request.parameters();
+        List<Map<String, Object>> items = (List<Map<String, Object>>) params.get("apps");
+        if (items == null || items.isEmpty()) {
+            return new McpFailure(
+                request.requestId(),
+                new AppError("validation_failed", "apps must contain at least one app", null)
+            );
         }
+
+        String sessionToken = (String) params.get("sessionToken");
+        if (sessionToken == null || sessionToken.isBlank()) {
+            return new McpFailure(
+                request.requestId(),
+                new AppError("validation_failed", "Missing sessionToken", null)
+            );
+        }
+
+        // Resolve every spec and reject collisions between explicit identifiers before any upstream call.
+        List<Map<String, Object>> specs = new ArrayList<>(items.size());
+        boolean[] derived = new boolean[items.size()];
+        Map<String, List<Integer>> byIdentifier = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            Map<String, Object> spec = resolveAppSpec(items.get(i));
+            if (spec == null) {
+                return new McpFailure(
+                    request.requestId(),
+                    new AppError("validation_failed", "appName is required", Map.of("index", i))
+                );
+            }
+            specs.add(spec);
+            derived[i] = isBlank((String) items.get(i).get("appIdentifier"));
+            if (!derived[i]) {
+                byIdentifier.computeIfAbsent(String.valueOf(spec.get("appIdentifier")).toUpperCase(), k -> new ArrayList<>())
+                    .add(i);
+            }
+        }
+        List<Map<String, Object>> collisions = new ArrayList<>();
+        byIdentifier.forEach((identifier, indexes) -> {
+            if (indexes.size() > 1) {
+                collisions.add(Map.of(
+                    "appIdentifier", identifier,
+                    "indexes", indexes,
+                    "appNames", indexes.stream().map(i -> specs.get(i).get("appName")).toList()
+                ));
+            }
+        });
+        if (!collisions.isEmpty()) {
+            return new McpFailure(
+                request.requestId(),
+                new AppError("validation_failed",
+                    "appIdentifier collisions within the batch; pass distinct appIdentifier values for these apps",
+                    Map.of("collisions", collisions))
+            );
+        }
+
+        // Explicit identifiers are claimed first so that derived ones are allocated around them.
+        boolean[] claimed = new boolean[specs.size()];
+        for (int i = 0; i < specs.size(); i++) {
+            if (!derived[i]) {
+                claimed[i] = identifiers.claim((String) specs.get(i).get("appIdentifier"));
+            }
+        }
+        List<AppsService.SaveResult> results = null;
+        try {
+            for (int i = 0; i < specs.size(); i++) {
+                if (derived[i]) {
+                    String allocated = identifiers.allocate((String) specs.get(i).get("appIdentifier"), sessionToken);
+                    if (allocated == null) {
+                        return identifiersExhausted(request);
+                    }
+                    specs.set(i, withProperty(specs.get(i), "appIdentifier", allocated));
+                    claimed[i] = true;
+                }
+            }
+            results = appsService.saveApps(specs, sessionToken, createAppsParallelism);
+        } finally {
+            for (int i = 0; i < specs.size(); i++) {
+                AppsService.SaveResult result = results != null ? results.get(i) : null;
+                settleIdentifier((String) specs.get(i).get("appIdentifier"), claimed[i],
+                    result != null && result.response() != null ? result.response().statusCode() : 0);
+            }
+        }
+        if (cancellation.isCancelled()) {
+            return cancelled(request);
+        }
+
+        List<Map<String, Object>> outcomes = new ArrayList<>(specs.size());
+        int created = 0;
+        for (int i = 0; i < specs.size(); i++) {
+            Map<String, Object> spec = specs.get(i);
+            AppsService.SaveResult result = results.get(i);
+            Map<String, Object> outcome = new LinkedHashMap<>();
+            outcome.put("index", i);
+            outcome.put("app", spec);
+            if (result.error() != null) {
+                RuntimeException e = result.error();
+                log.error("Failed to create app {}", spec.get("appName"), e);
+                outcome.put("status", "failed");
+                outcome.put("error", e instanceof UpstreamBusyException busy
+                    ? Map.of("code", "upstream_busy", "message", String.valueOf(busy.getMessage()),
+                        "upstream", busy.upstream(), "reason", busy.reason())
+                    : Map.of("code", "internal_error", "message", String.valueOf(e.getMessage())));
+            } else {
+                AppsService.AppsResponse response = result.response();
+                boolean ok = response.statusCode() == 200;
+                if (ok) {
+                    created++;
+                }
+                outcome.put("status", ok ? "created" : "failed");
+                outcome.put("appsService", Map.of(
+                    "status_code", response.statusCode(),
+                    "body", response.body() != null ? response.body() : Map.of()
+                ));
+            }
+            outcomes.add(outcome);
+        }
+        log.info("create_apps: {} of {} apps created", created, specs.size());
+
+        return new McpSuccess(
+            request.requestId(),
+            Map.of(
+                "total", specs.size(),
+                "created", created,
+                "failed", specs.size() - created,
+                "results", outcomes
+            )
+        );
     }
 
     private McpOutcome handleImportApp(McpRequestData request) {
@@ -247,22 +654,85 @@ public class HandleMcpRequestUseCase {
         String requestedNewAppIdentifier = (String) params.get("newAppIdentifier");
         String requestedNewAppName = (String) params.get("newAppName");
         boolean debug = Boolean.TRUE.equals(params.get("debug"));
+        Deadline deadline = Deadline.after(importDeadline);
 
-        Path selectedFile;
+        ImportPackage selectedFile;
         try {
-            selectedFile = resolveNewestImportFile(appName.trim());
+            stage(0, "resolve", deadline);
+            selectedFile = importPackages.resolveNewest(appName.trim());
+        } catch (CallCancelledException e) {
+            return cancelled(request);
+        } catch (DeadlineExceededException e) {
+            return deadlineExceeded(request);
         } catch (Exception e) {
             return new McpFailure(
                 request.requestId(),
                 new AppError("not_found", e.getMessage(), Map.of(
-                    "importAppsDir", importAppsDir,
+                    "importAppsDir", importPackages.location(),
                     "appName", appName
                 ))
             );
         }
 
+        return uploadAndImport(request, deadline, by -> appsService.uploadImportFile(selectedFile, sessionToken, by),
+            sessionToken, requestedNewAppIdentifier, requestedNewAppName, debug,
+            Map.of("selectedFile", selectedFile.location()));
+    }
+
+    private McpOutcome handlePromoteApp(McpRequestData request) {
+        Map<String, Object> params = request.parameters();
+        String sourceBaseUrl = (String) params.get("sourceBaseUrl");
+        String sourceSessionToken = (String) params.get("sourceSessionToken");
+        String appIdentifier = (String) params.get("appIdentifier");
+        String sessionToken = (String) params.get("sessionToken");
+        if (isBlank(sessionToken)) {
+            return new McpFailure(
+                request.requestId(),
+                new AppError("validation_failed", "Missing sessionToken", null)
+            );
+        }
+        // The schema rejects empty strings; whitespace-only values are caught here.
+        if (isBlank(sourceBaseUrl) || isBlank(sourceSessionToken) || isBlank(appIdentifier)) {
+            return new McpFailure(
+                request.requestId(),
+                new AppError("validation_failed", "sourceBaseUrl, sourceSessionToken and appIdentifier must not be blank", null)
+            );
+        }
+
+        return uploadAndImport(
+            request,
+            Deadline.after(importDeadline),
+            by -> appsService.uploadExportedApp(sourceBaseUrl.trim(), sourceSessionToken, appIdentifier.trim(), sessionToken, by),
+            sessionToken,
+            (String) params.get("newAppIdentifier"),
+            (String) params.get("newAppName"),
+            Boolean.TRUE.equals(params.get("debug")),
+            Map.of("promotedFrom", Map.of("sourceBaseUrl", sourceBaseUrl.trim(), "appIdentifier", appIdentifier.trim()))
+        );
+    }
+
+    /**
+     * Shared upload -> validateAppIdentifier -> importApp pipeline of import_app and promote_app; {@code source}
+     * entries describe where the package came from and are added to the result. {@code upload} is given the
+     * deadline of the upload step.
+     */
+    private McpOutcome uploadAndImport(
+        McpRequestData request,
+        Deadline deadline,
+        Function<Deadline, AppsService.AppsResponse> upload,
+        String sessionToken,
+        String requestedNewAppIdentifier,
+        String requestedNewAppName,
+        boolean debug,
+        Map<String, Object> source
+    ) {
+        UploadedPackage uploaded = null;
+        String importIdentifier = null;
+        boolean claimed = false;
+        int importStatus = 0;
         try {
-            var uploadResp = appsService.uploadImportFile(selectedFile, sessionToken);
+            stage(1, "upload", deadline);
+            var uploadResp = upload.apply(deadline.leaving(validateTimeout.plus(importTimeout)));
             if (uploadResp.statusCode() != 200) {
                 return new McpFailure(
                     request.requestId(),
@@ -273,12 +743,19 @@ public class HandleMcpRequestUseCase {
                 );
             }
 
-            Map<String, Object> uploadBody = asMap(uploadResp.body());
+            if (!(uploadResp.body() instanceof UploadedPackage pkg)) {
+                return new McpFailure(
+                    request.requestId(),
+                    new AppError("upstream_error", "uploadFile returned no package", null)
+                );
+            }
+            uploaded = pkg;
+            Map<String, Object> uploadSummary = uploadSummary(uploaded);
 
-            // Important note: uuid/appPath/... come from uploadFile response.
-            String uploadedAppName = asString(uploadBody.get("appName"));
-            String uploadedAppIdentifier = asString(uploadBody.get("appIdentifier"));
-            String uploadedAppUuid = asString(uploadBody.get("appUuid"));
+            // Important note: uuid/appPath/... come from uploadFile response (kept raw, only the summary is decoded).
+            String uploadedAppName = uploaded.appName();
+            String uploadedAppIdentifier = uploaded.appIdentifier();
+            String uploadedAppUuid = uploaded.appUuid();
 
             if (isBlank(uploadedAppName) || isBlank(uploadedAppIdentifier) || isBlank(uploadedAppUuid)) {
                 return new McpFailure(
@@ -289,7 +766,7 @@ public class HandleMcpRequestUseCase {
                             isBlank(uploadedAppIdentifier) ? "appIdentifier" : null,
                             isBlank(uploadedAppUuid) ? "appUuid" : null
                         ).stream().filter(x -> x != null).toList(),
-                        "uploadBody", uploadBody
+                        "uploaded", uploadSummary
                     ))
                 );
             }
@@ -300,7 +777,9 @@ public class HandleMcpRequestUseCase {
                 "appUuid", uploadedAppUuid
             );
 
-            var validateResp = appsService.validateAppIdentifier(validatePayload, sessionToken);
+            stage(2, "validate", deadline);
+            var validateResp = appsService.validateAppIdentifier(validatePayload, sessionToken,
+                deadline.leaving(importTimeout));
             if (validateResp.statusCode() != 200) {
                 return new McpFailure(
                     request.requestId(),
@@ -314,7 +793,8 @@ public class HandleMcpRequestUseCase {
             Map<String, Object> validateBody = asMap(validateResp.body());
             boolean exists = !isBlank(asString(validateBody.get("existAppName"))) || Boolean.TRUE.equals(validateBody.get("allowMerge"));
 
-            Map<String, Object> importPayload = new HashMap<>(uploadBody);
+            // Fields spliced into the raw uploadFile reply to form the importApp payload.
+            Map<String, Object> importOverrides = new HashMap<>();
 
             Map<String, Object> conflictResolution = Map.of(
                 "exists", exists,
@@ -323,20 +803,36 @@ public class HandleMcpRequestUseCase {
             );
 
             if (exists) {
+                identifiers.confirm(uploadedAppIdentifier);
                 String newAppName = !isBlank(requestedNewAppName)
                     ? requestedNewAppName.trim()
                     : (uploadedAppName + " (Imported)");
 
-                String newAppIdentifier = !isBlank(requestedNewAppIdentifier)
-                    ? requestedNewAppIdentifier.trim().toUpperCase()
-                    : generateRandomAppIdentifier();
+                // Without a requested identifier, take the free one nearest to the package's own.
+                String newAppIdentifier;
+                if (!isBlank(requestedNewAppIdentifier)) {
+                    newAppIdentifier = requestedNewAppIdentifier.trim().toUpperCase();
+                    claimed = identifiers.claim(newAppIdentifier);
+                } else {
+                    newAppIdentifier = identifiers.allocate(uploadedAppIdentifier, sessionToken);
+                    if (newAppIdentifier == null) {
+                        return identifiersExhausted(request);
+                    }
+                    claimed = true;
+                }
+                importIdentifier = newAppIdentifier;
 
-                importPayload.put("replaceAppIdentifier", true);
-                importPayload.put("newAppIdentifier", newAppIdentifier);
-                importPayload.put("newAppName", newAppName);
+                importOverrides.put("replaceAppIdentifier", true);
+                importOverrides.put("newAppIdentifier", newAppIdentifier);
+                importOverrides.put("newAppName", newAppName);
+            } else {
+                importIdentifier = uploadedAppIdentifier;
+                claimed = identifiers.claim(uploadedAppIdentifier);
             }
 
-            var importResp = appsService.importApp(importPayload, sessionToken);
+            stage(3, "import", deadline);
+            var importResp = appsService.importApp(uploaded, importOverrides, sessionToken, deadline);
+            importStatus = importResp.statusCode();
             if (importResp.statusCode() != 200) {
                 return new McpFailure(
                     request.requestId(),
@@ -348,13 +844,6 @@ public class HandleMcpRequestUseCase {
             }
 
             // Return a clean summary by default (avoid dumping large upstream payloads like integrationRepositories).
-            Map<String, Object> uploadSummary = Map.of(
-                "appName", asString(uploadBody.get("appName")),
-                "appIdentifier", asString(uploadBody.get("appIdentifier")),
-                "appUuid", asString(uploadBody.get("appUuid")),
-                "version", asString(uploadBody.get("version"))
-            );
-
             Map<String, Object> validateSummary = Map.of(
                 "isValid", validateBody.get("isValid"),
                 "existAppName", validateBody.get("existAppName"),
@@ -368,7 +857,7 @@ public class HandleMcpRequestUseCase {
 
             Map<String, Object> baseResult = new HashMap<>();
             baseResult.put("message", exists ? "imported_with_conflict_resolution" : "imported");
-            baseResult.put("selectedFile", selectedFile.toString());
+            baseResult.putAll(source);
             baseResult.put("uploaded", uploadSummary);
             baseResult.put("validate", validateSummary);
             baseResult.put("import", importSummary);
@@ -376,85 +865,148 @@ public class HandleMcpRequestUseCase {
 
             if (exists) {
                 baseResult.put("importedAs", Map.of(
-                    "newAppName", importPayload.getOrDefault("newAppName", ""),
-                    "newAppIdentifier", importPayload.getOrDefault("newAppIdentifier", "")
+                    "newAppName", importOverrides.getOrDefault("newAppName", ""),
+                    "newAppIdentifier", importOverrides.getOrDefault("newAppIdentifier", "")
                 ));
             }
 
             if (debug) {
                 baseResult.put("debugUpstream", Map.of(
-                    "uploadFile", Map.of("status_code", uploadResp.statusCode(), "body", uploadBody),
+                    "uploadFile", Map.of("status_code", uploadResp.statusCode(), "body", uploadSummary,
+                        "bytes", uploaded.size()),
                     "validateAppIdentifier", Map.of("status_code", validateResp.statusCode(), "body", validateBody),
                     "importApp", Map.of("status_code", importResp.statusCode(), "body", importResp.body())
                 ));
             }
 
+            progress.stage(IMPORT_STEPS, IMPORT_STEPS, "done");
             return new McpSuccess(
                 request.requestId(),
                 baseResult
             );
+        } catch (ExportFailedException e) {
+            return new McpFailure(
+                request.requestId(),
+                new AppError("upstream_error", "exportApp failed", Map.of(
+                    "status_code", e.statusCode(),
+                    "body", e.responseBody()
+                ))
+            );
+        } catch (UpstreamBusyException e) {
+            return upstreamBusy(request, e);
+        } catch (CallCancelledException e) {
+            return cancelled(request);
+        } catch (DeadlineExceededException e) {
+            return deadlineExceeded(request);
         } catch (Exception e) {
             log.error("Failed to import app", e);
             return new McpFailure(
                 request.requestId(),
                 new AppError("internal_error", e.getMessage(), null)
             );
+        } finally {
+            if (importIdentifier != null) {
+                settleIdentifier(importIdentifier, claimed, importStatus);
+            }
+            if (uploaded != null) {
+                uploaded.close();
+            }
         }
     }
 
-    private Path resolveNewestImportFile(String appName) throws IOException {
-        Path root = Paths.get(importAppsDir);
-        if (!Files.exists(root) || !Files.isDirectory(root)) {
-            throw new IOException("Import storage directory not found: " + root.toAbsolutePath());
-        }
-
-        Path resolvedAppDir = root.resolve(appName);
-        if (!Files.exists(resolvedAppDir) || !Files.isDirectory(resolvedAppDir)) {
-            // Try case-insensitive match by scanning directories (useful on Linux with mixed casing)
-            try (Stream<Path> dirs = Files.list(root)) {
-                Optional<Path> match = dirs
-                    .filter(Files::isDirectory)
-                    .filter(p -> p.getFileName().toString().equalsIgnoreCase(appName))
-                    .findFirst();
-                if (match.isPresent()) {
-                    resolvedAppDir = match.get();
-                }
-            }
-        }
+    /**
+     * Enters import pipeline step {@code step}, unless the call has been cancelled or is past its deadline.
+     */
+    private void stage(int step, String stage, Deadline deadline) {
+        cancellation.throwIfCancelled();
+        deadline.throwIfExpired();
+        progress.stage(step, IMPORT_STEPS, stage);
+    }
 
-        if (Files.exists(resolvedAppDir) && Files.isDirectory(resolvedAppDir)) {
-            final Path appDir = resolvedAppDir;
-            try (Stream<Path> files = Files.list(appDir)) {
-                return files
-                    .filter(Files::isRegularFile)
-                    .max(Comparator.comparingLong(p -> {
-                        try {
-                            return Files.getLastModifiedTime(p).toMillis();
-                        } catch (IOException e) {
-                            return 0L;
-                        }
-                    }))
-                    .orElseThrow(() -> new IOException("No files found in import folder: " + appDir.toAbsolutePath()));
-            }
+    private static Map<String, Object> uploadSummary(UploadedPackage uploaded) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("appName", uploaded.appName());
+        summary.put("appIdentifier", uploaded.appIdentifier());
+        summary.put("appUuid", uploaded.appUuid());
+        summary.put("version", uploaded.version());
+        return summary;
+    }
+
+    /**
+     * After a create or import: any reply other than an auth rejection may mean the identifier is now in use upstream;
+     * without a reply ({@code statusCode} 0) our claim is freed again.
+     */
+    /**
+     * Confirms the identifier when the upstream created the app (200) or reported it as existing (409); any other
+     * reply (bad input, unauthorized, 5xx) or none at all releases a claim, so a corrected retry can have it.
+     */
+    private void settleIdentifier(String identifier, boolean claimed, int statusCode) {
+        if (statusCode == 200 || statusCode == 409) {
+            identifiers.confirm(identifier);
+        } else if (claimed) {
+            identifiers.release(identifier);
         }
+    }
 
-        // Fallback: allow flat files under root that match appName (helps when users just drop files into /apps)
-        try (Stream<Path> files = Files.list(root)) {
-            return files
-                .filter(Files::isRegularFile)
-                .filter(p -> p.getFileName().toString().toLowerCase().contains(appName.toLowerCase()))
-                .max(Comparator.comparingLong(p -> {
-                    try {
-                        return Files.getLastModifiedTime(p).toMillis();
-                    } catch (IOException e) {
-                        return 0L;
-                    }
-                }))
-                .orElseThrow(() -> new IOException(
-                    "No folder or matching file found for appName under import storage: " + appName +
-                        " (looked in: " + root.toAbsolutePath() + ")"
-                ));
+    private static McpOutcome identifiersExhausted(McpRequestData request) {
+        return new McpFailure(
+            request.requestId(),
+            new AppError("internal_error", "No free app identifier left in this environment", null)
+        );
+    }
+
+    private static Map<String, Object> withProperty(Map<String, Object> properties, String name, Object schema) {
+        Map<String, Object> result = new LinkedHashMap<>(properties);
+        result.put(name, schema);
+        return result;
+    }
+
+    private static McpOutcome upstreamBusy(McpRequestData request, UpstreamBusyException e) {
+        log.warn("Upstream busy: upstream={}, reason={}", e.upstream(), e.reason());
+        return new McpFailure(
+            request.requestId(),
+            new AppError("upstream_busy", e.getMessage(), Map.of(
+                "upstream", e.upstream(),
+                "reason", e.reason()
+            ))
+        );
+    }
+
+    private static McpOutcome cancelled(McpRequestData request) {
+        log.info("Call cancelled by the client: action={}", request.action());
+        return new McpFailure(
+            request.requestId(),
+            new AppError(CallCancelledException.ERROR_CODE, "Call was cancelled by the client", null)
+        );
+    }
+
+    private McpOutcome deadlineExceeded(McpRequestData request) {
+        log.warn("Deadline exceeded: action={}, deadlineMs={}", request.action(), importDeadline.toMillis());
+        return new McpFailure(
+            request.requestId(),
+            new AppError(DeadlineExceededException.ERROR_CODE,
+                request.action() + " ran out of its " + importDeadline.toMillis() + " ms deadline",
+                Map.of("deadlineMs", importDeadline.toMillis()))
+        );
+    }
+
+    /**
+     * Resolves the newest package of every app in the import storage (warms the directory and
+     * attribute caches the first import_app would otherwise pay for).
+     *
+     * @return number of apps with an importable package
+     */
+    public int primeImportCatalog() throws IOException {
+        int resolved = 0;
+        for (String app : importPackages.appNames()) {
+            try {
+                importPackages.resolveNewest(app);
+                resolved++;
+            } catch (IOException e) {
+                log.debug("Import catalog: no package for {}: {}", app, e.getMessage());
+            }
         }
+        return resolved;
     }
 
     @SuppressWarnings("unchecked")
@@ -473,14 +1025,6 @@ public class HandleMcpRequestUseCase {
         return s == null || s.isBlank();
     }
 
-    private static String generateRandomAppIdentifier() {
-        // 3-letter A-Z identifier
-        char a = (char) ('A' + RNG.nextInt(26));
-        char b = (char) ('A' + RNG.nextInt(26));
-        char c = (char) ('A' + RNG.nextInt(26));
-        return "" + a + b + c;
-    }
-
     private static String generateAppIdentifier(String appName) {
         // Generate a 3-letter identifier from the app name (A-Z only), padding with X as needed.
         String lettersOnly = appName.replaceAll("[^A-Za-z]", "").toUpperCase();
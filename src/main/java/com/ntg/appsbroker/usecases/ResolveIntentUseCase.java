@@ -0,0 +1,140 @@
+package com.ntg.appsbroker.usecases;
+
+import com.ntg.appsbroker.adapters.PromptBuilder;
+import com.ntg.appsbroker.domain.*;
+import com.ntg.appsbroker.ports.AIGateway;
+import com.ntg.appsbroker.usecases.tools.McpTool;
+import com.ntg.appsbroker.usecases.tools.ToolDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Use case: ai.intent - classify a free-text user message into a tool call.
+ *
+ * <p>Common phrasings are answered by the {@link FastPathIntentRouter}; only the rest go to the AI gateway,
+ * with the allowlisted context gathered by the {@link ContextAssembler} added to the prompt.</p>
+ */
+@Service
+public class ResolveIntentUseCase implements McpTool {
+    private static final Logger log = LoggerFactory.getLogger(ResolveIntentUseCase.class);
+
+    /** Expected model output; a constant so the parser's compiled-schema cache hits on every call. */
+    static final Map<String, Object> INTENT_SCHEMA = Map.of(
+        "type", "object",
+        "properties", Map.of(
+            "intent", Map.of("type", "string", "maxLength", 64),
+            "parameters", Map.of("type", "object"),
+            "confidence", Map.of("type", "number")
+        ),
+        "required", List.of("intent"),
+        "additionalProperties", true
+    );
+
+    private static final ToolDefinition DEFINITION = new ToolDefinition(
+        "ai.intent",
+        "Resolve a natural-language request into an intent (tool name) and extracted parameters.",
+        Map.of(
+            "type", "object",
+            "properties", Map.of(
+                "message", Map.of("type", "string", "description", "Required. The user's message."),
+                "model", Map.of("type", "string", "description", "Optional. Model name. Default: mcp.ai.model."),
+                "context", Map.of("type", "object", "description",
+                    "Optional. Extra context included in the prompt; also the input to the context providers "
+                        + "(user_id, tenant_id, roles, files: [{path, content?, select?, startLine?, endLine?}])."),
+                "contextAllowlist", Map.of("type", "array", "items", Map.of("type", "string"), "description",
+                    "Optional. Context keys the providers may return (e.g. user.id, system.timezone, file paths). "
+                        + "Default: none.")
+            ),
+            "required", List.of("message"),
+            "additionalProperties", false
+        ),
+        false
+    );
+
+    private final AIGateway aiGateway;
+    private final PromptBuilder promptBuilder;
+    private final FastPathIntentRouter router;
+    private final ContextAssembler contextAssembler;
+
+    public ResolveIntentUseCase(
+        @Lazy AIGateway aiGateway, // off the startup path: the tool is registered eagerly, the model is not
+        PromptBuilder promptBuilder,
+        FastPathIntentRouter router,
+        @Lazy ContextAssembler contextAssembler
+    ) {
+        this.aiGateway = aiGateway;
+        this.promptBuilder = promptBuilder;
+        this.router = router;
+        this.contextAssembler = contextAssembler;
+    }
+
+    @Override
+    public ToolDefinition definition() {
+        return DEFINITION;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public McpOutcome handle(McpRequestData request, String clientId) {
+        Map<String, Object> params = request.parameters();
+        String message = (String) params.get("message");
+        if (message == null || message.isBlank()) {
+            return new McpFailure(
+                request.requestId(),
+                new AppError("validation_failed", "message is required", null)
+            );
+        }
+
+        var routed = router.route(message);
+        if (routed.isPresent()) {
+            return new McpSuccess(request.requestId(), Map.of(
+                "intent", routed.get().intent(),
+                "parameters", routed.get().parameters(),
+                "confidence", 1.0,
+                "source", "rules"
+            ));
+        }
+
+        String model = (String) params.get("model");
+        Map<String, Object> context = params.get("context") instanceof Map<?, ?> m
+            ? (Map<String, Object>) m
+            : Map.of();
+
+        Set<String> allowlist = params.get("contextAllowlist") instanceof List<?> l
+            ? l.stream().map(String::valueOf).collect(Collectors.toSet())
+            : Set.of();
+
+        try {
+            Map<String, Object> promptContext = new LinkedHashMap<>(context);
+            promptContext.remove("files");
+            promptContext.putAll(contextAssembler.assemble(context, allowlist));
+            String prompt = promptBuilder.buildIntentPrompt(message.trim(), promptContext);
+            Map<String, Object> output = aiGateway.generateStructured(prompt, model, INTENT_SCHEMA);
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("intent", output.get("intent"));
+            result.put("parameters", output.get("parameters") != null ? output.get("parameters") : Map.of());
+            if (output.get("confidence") != null) {
+                result.put("confidence", output.get("confidence"));
+            }
+            result.put("source", "model");
+            return new McpSuccess(request.requestId(), result);
+        } catch (Exception e) {
+            log.error("Failed to resolve intent", e);
+            return new McpFailure(
+                request.requestId(),
+                new AppError("ai_error", "Intent resolution failed: " + e.getMessage(),
+                    e.getCause() != null ? Map.of("error", String.valueOf(e.getCause().getMessage())) : null)
+            );
+        }
+    }
+}
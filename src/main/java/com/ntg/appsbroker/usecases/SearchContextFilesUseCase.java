@@ -0,0 +1,83 @@
+package com.ntg.appsbroker.usecases;
+
+import com.ntg.appsbroker.domain.*;
+import com.ntg.appsbroker.ports.ContextFileSearch;
+import com.ntg.appsbroker.usecases.tools.McpTool;
+import com.ntg.appsbroker.usecases.tools.ToolDefinition;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Use case: search_context_files - find files under the allowed roots by content or name.
+ *
+ * <p>Returns ranked paths with a snippet of the best-matching line; the paths can then be passed to ai.intent
+ * as file context. File contents are exposed, so the tool requires a session like the other data tools.</p>
+ */
+@Service
+public class SearchContextFilesUseCase implements McpTool {
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 50;
+
+    private static final ToolDefinition DEFINITION = new ToolDefinition(
+        "search_context_files",
+        "Search files under the configured allowed roots (mcp.file.allowed-roots) and return ranked paths with snippets.",
+        Map.of(
+            "type", "object",
+            "properties", Map.of(
+                "query", Map.of("type", "string", "maxLength", 256, "description", "Required. Words to search for."),
+                "limit", Map.of("type", "integer", "description", "Optional. Max results (1-" + MAX_LIMIT
+                    + "). Default: " + DEFAULT_LIMIT + ".")
+            ),
+            "required", List.of("query"),
+            "additionalProperties", false
+        ),
+        true
+    );
+
+    private final ContextFileSearch search;
+
+    public SearchContextFilesUseCase(ContextFileSearch search) {
+        this.search = search;
+    }
+
+    @Override
+    public ToolDefinition definition() {
+        return DEFINITION;
+    }
+
+    @Override
+    public McpOutcome handle(McpRequestData request, String clientId) {
+        Map<String, Object> params = request.parameters();
+        String query = (String) params.get("query");
+        if (query == null || query.isBlank()) {
+            return new McpFailure(
+                request.requestId(),
+                new AppError("validation_failed", "query is required", null)
+            );
+        }
+        int limit = params.get("limit") instanceof Number n
+            ? Math.max(1, Math.min(MAX_LIMIT, n.intValue()))
+            : DEFAULT_LIMIT;
+
+        long start = System.nanoTime();
+        ContextFileSearch.SearchResult result = search.search(query, limit);
+        List<Map<String, Object>> results = new ArrayList<>(result.hits().size());
+        for (ContextFileSearch.Hit hit : result.hits()) {
+            results.add(Map.of(
+                "path", hit.path(),
+                "score", hit.score(),
+                "line", hit.line(),
+                "snippet", hit.snippet()
+            ));
+        }
+        return new McpSuccess(request.requestId(), Map.of(
+            "results", results,
+            "indexedFiles", result.indexedFiles(),
+            "indexComplete", result.complete(),
+            "tookMicros", (System.nanoTime() - start) / 1000
+        ));
+    }
+}
@@ -0,0 +1,225 @@
+package com.ntg.appsbroker.usecases.tools;
+
+import com.ntg.appsbroker.domain.AppError;
+import com.ntg.appsbroker.domain.McpFailure;
+import com.ntg.appsbroker.domain.McpOutcome;
+import com.ntg.appsbroker.domain.McpRequestData;
+import com.ntg.appsbroker.domain.TokenDigest;
+import com.ntg.appsbroker.ports.MetricsSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Use case: outcomes of calls that carry an {@code idempotencyKey}, so a retried mutating call is answered from
+ * the first execution instead of running again.
+ *
+ * <p>Entries are keyed by (clientId, session, environment, tool, idempotencyKey), where the session is a digest of
+ * the caller's session token and the environment its {@code appsBaseUrl}, so callers sharing a clientId (or the
+ * default one) never see each other's outcomes. They are kept for {@code mcp.idempotency.ttl-ms} and bounded by
+ * {@code mcp.idempotency.max-entries} (oldest first). A duplicate that arrives while the first call is still running
+ * waits for its outcome. Reusing a key with different arguments is rejected. Only successes and definitive
+ * rejections (an upstream 4xx other than 408/429, or invalid arguments) are kept; any other failure (upstream 5xx,
+ * busy, internal error, not logged in, cancelled) is handed to callers already waiting but not kept, so a later retry
+ * runs again.</p>
+ */
+@Component
+public class IdempotencyCache implements MetricsSource {
+    public static final String ARGUMENT = "idempotencyKey";
+    /** Arguments that may legitimately differ between retries of the same call (tokens get refreshed). */
+    private static final Set<String> IGNORED_ARGUMENTS = Set.of(ARGUMENT, "sessionToken", "sourceSessionToken");
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final long inFlightWaitMs;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>();
+
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder joined = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+
+    public IdempotencyCache(
+        @Value("${mcp.idempotency.ttl-ms:600000}") long ttlMs,
+        @Value("${mcp.idempotency.max-entries:10000}") int maxEntries,
+        @Value("${mcp.idempotency.in-flight-wait-ms:120000}") long inFlightWaitMs
+    ) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, ttlMs));
+        this.maxEntries = Math.max(1, maxEntries);
+        this.inFlightWaitMs = Math.max(1, inFlightWaitMs);
+    }
+
+    /**
+     * Runs {@code call} once per (clientId, session, environment, tool, key); duplicates get the first outcome.
+     *
+     * @param sessionToken the token the call runs with (explicit or stored for the clientId)
+     * @param environment  the caller's {@code appsBaseUrl} override, or {@code null} for the configured one
+     */
+    public McpOutcome execute(String clientId, String sessionToken, String environment, McpRequestData request,
+                              String idempotencyKey, Supplier<McpOutcome> call) {
+        Key key = new Key(clientId, TokenDigest.of(sessionToken), normalize(environment), request.action(), idempotencyKey);
+        Map<String, Object> arguments = fingerprint(request.parameters());
+        Entry mine = new Entry(arguments, System.nanoTime());
+        Entry existing;
+        synchronized (entries) {
+            existing = entries.get(key);
+            if (existing != null && existing.expired(mine.createdNanos, ttlNanos)) {
+                entries.remove(key);
+                existing = null;
+            }
+            if (existing == null) {
+                entries.put(key, mine);
+                evict(mine.createdNanos);
+            }
+        }
+
+        if (existing != null) {
+            if (!existing.arguments.equals(arguments)) {
+                conflicts.increment();
+                return new McpFailure(request.requestId(), new AppError("idempotency_conflict",
+                    ARGUMENT + " was already used with different arguments", Map.of("idempotencyKey", idempotencyKey)));
+            }
+            (existing.outcome.isDone() ? replayed : joined).increment();
+            return await(existing, request, idempotencyKey);
+        }
+
+        executed.increment();
+        McpOutcome outcome;
+        try {
+            outcome = call.get();
+        } catch (RuntimeException e) {
+            forget(key, mine);
+            mine.outcome.completeExceptionally(e);
+            throw e;
+        }
+        if (!isFinal(outcome)) {
+            forget(key, mine);
+        }
+        mine.outcome.complete(outcome);
+        return outcome;
+    }
+
+    /**
+     * Whether a retry would get the same outcome: a success, an upstream 4xx (except 408 and 429), or arguments
+     * rejected before any upstream call.
+     */
+    private static boolean isFinal(McpOutcome outcome) {
+        if (!(outcome instanceof McpFailure failure)) {
+            return true;
+        }
+        Map<String, Object> details = failure.error().details();
+        if (details != null && details.get("status_code") instanceof Number status) {
+            int code = status.intValue();
+            return code >= 400 && code < 500 && code != 408 && code != 429;
+        }
+        return "validation_failed".equals(failure.error().code());
+    }
+
+    @Override
+    public String metricsName() {
+        return "idempotency";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return Map.of(
+            "entries", size,
+            "executed", executed.sum(),
+            "replayed", replayed.sum(),
+            "joinedInFlight", joined.sum(),
+            "conflicts", conflicts.sum()
+        );
+    }
+
+    private McpOutcome await(Entry entry, McpRequestData request, String idempotencyKey) {
+        try {
+            return entry.outcome.get(inFlightWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return new McpFailure(request.requestId(), new AppError("idempotency_in_flight",
+                "The first call with this " + ARGUMENT + " is still running; retry later",
+                Map.of("idempotencyKey", idempotencyKey)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new McpFailure(request.requestId(), new AppError("internal_error", "Interrupted", null));
+        } catch (ExecutionException e) {
+            return new McpFailure(request.requestId(), new AppError("internal_error",
+                String.valueOf(e.getCause().getMessage()), null));
+        }
+    }
+
+    private void forget(Key key, Entry entry) {
+        synchronized (entries) {
+            entries.remove(key, entry);
+        }
+    }
+
+    /**
+     * Drops expired entries from the head (insertion order is creation order), then the oldest completed ones
+     * while over capacity. In-flight entries are never evicted.
+     */
+    private void evict(long now) {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            boolean over = entries.size() > maxEntries;
+            if (!entry.expired(now, ttlNanos) && !over) {
+                return;
+            }
+            if (entry.outcome.isDone()) {
+                it.remove();
+            } else if (!over) {
+                return;
+            }
+        }
+    }
+
+    private static Map<String, Object> fingerprint(Map<String, Object> parameters) {
+        Map<String, Object> arguments = new HashMap<>(parameters);
+        arguments.keySet().removeAll(IGNORED_ARGUMENTS);
+        return arguments;
+    }
+
+    private static String normalize(String environment) {
+        if (environment == null || environment.isBlank()) {
+            return "";
+        }
+        String trimmed = environment.trim();
+        while (trimmed.endsWith("/")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1);
+        }
+        return trimmed.toLowerCase(Locale.ROOT);
+    }
+
+    private record Key(String clientId, String session, String environment, String tool, String idempotencyKey) {}
+
+    private static final class Entry {
+        final Map<String, Object> arguments;
+        final long createdNanos;
+        final CompletableFuture<McpOutcome> outcome = new CompletableFuture<>();
+
+        Entry(Map<String, Object> arguments, long createdNanos) {
+            this.arguments = arguments;
+            this.createdNanos = createdNanos;
+        }
+
+        boolean expired(long now, long ttlNanos) {
+            return outcome.isDone() && now - createdNanos > ttlNanos;
+        }
+    }
+}
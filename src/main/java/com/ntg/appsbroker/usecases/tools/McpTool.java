@@ -0,0 +1,9 @@
+package com.ntg.appsbroker.usecases.tools;
+
+/**
+ * Use case: a self-describing tool. Spring beans implementing this are registered in the {@link ToolRegistry}
+ * at startup, so new tools need no change to the dispatcher.
+ */
+public interface McpTool extends ToolHandler {
+    ToolDefinition definition();
+}
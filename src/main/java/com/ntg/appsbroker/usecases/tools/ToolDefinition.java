@@ -0,0 +1,15 @@
+package com.ntg.appsbroker.usecases.tools;
+
+import java.util.Map;
+
+/**
+ * Use case: declaration of an MCP tool (what tools/list advertises and what arguments are validated against).
+ *
+ * @param requiresSession whether the call needs a session token (explicit or stored for the clientId)
+ */
+public record ToolDefinition(
+    String name,
+    String description,
+    Map<String, Object> inputSchema,
+    boolean requiresSession
+) {}
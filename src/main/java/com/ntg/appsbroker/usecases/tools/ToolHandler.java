@@ -0,0 +1,12 @@
+package com.ntg.appsbroker.usecases.tools;
+
+import com.ntg.appsbroker.domain.McpOutcome;
+import com.ntg.appsbroker.domain.McpRequestData;
+
+/**
+ * Use case: handles one tool call whose arguments already passed schema validation.
+ */
+@FunctionalInterface
+public interface ToolHandler {
+    McpOutcome handle(McpRequestData request, String clientId);
+}
@@ -0,0 +1,275 @@
+package com.ntg.appsbroker.usecases.tools;
+
+import com.ntg.appsbroker.domain.TokenDigest;
+import com.ntg.appsbroker.ports.MetricsSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Use case: token-bucket rate limits per (origin, tool), per (caller, tool) and per tool.
+ *
+ * <p>Limits come from {@code mcp.ratelimit.tools.<tool>.per-source.*}, {@code .per-client.*} and {@code .total.*}
+ * ({@code rate-per-sec}, {@code burst}), falling back to {@code mcp.ratelimit.default.*}; a rate of 0 disables that
+ * limit. Each bucket is a single {@link AtomicLong} updated by CAS (GCRA: the stored value is the time at which
+ * the bucket would be full again), so concurrent callers never block each other.</p>
+ *
+ * <p>The origin is what the transport saw (client address, stdio). The caller is a session token only once it is
+ * known to be valid ({@link #verified}: stored by login, or accepted upstream); otherwise it is the origin. Neither
+ * {@code clientId} nor an unchecked {@code sessionToken} argument can buy a fresh budget.</p>
+ */
+@Component
+public class ToolRateLimiter implements MetricsSource {
+    /** AppError code of a rejected call; transports report it as a JSON-RPC error with {@link #JSON_RPC_CODE}. */
+    public static final String ERROR_CODE = "rate_limited";
+    public static final int JSON_RPC_CODE = -32029;
+    private static final int SWEEP_THRESHOLD = 10_000;
+    private static final int MAX_VERIFIED = 10_000;
+
+    private final Environment environment;
+    private final boolean enabled;
+    private final Limit defaultPerSource;
+    private final Limit defaultPerClient;
+    private final Limit defaultTotal;
+
+    private final Map<String, ToolLimits> limits = new ConcurrentHashMap<>();
+    private final Map<String, Bucket> sourceBuckets = new ConcurrentHashMap<>();
+    private final Map<String, Bucket> clientBuckets = new ConcurrentHashMap<>();
+    private final Map<String, Bucket> toolBuckets = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> verified = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MAX_VERIFIED;
+        }
+    };
+
+    public ToolRateLimiter(
+        Environment environment,
+        @Value("${mcp.ratelimit.enabled:true}") boolean enabled,
+        @Value("${mcp.ratelimit.default.per-source.rate-per-sec:50}") double perSourceRate,
+        @Value("${mcp.ratelimit.default.per-source.burst:100}") int perSourceBurst,
+        @Value("${mcp.ratelimit.default.per-client.rate-per-sec:10}") double perClientRate,
+        @Value("${mcp.ratelimit.default.per-client.burst:20}") int perClientBurst,
+        @Value("${mcp.ratelimit.default.total.rate-per-sec:0}") double totalRate,
+        @Value("${mcp.ratelimit.default.total.burst:0}") int totalBurst
+    ) {
+        this.environment = environment;
+        this.enabled = enabled;
+        this.defaultPerSource = Limit.of(perSourceRate, perSourceBurst);
+        this.defaultPerClient = Limit.of(perClientRate, perClientBurst);
+        this.defaultTotal = Limit.of(totalRate, totalBurst);
+    }
+
+    /**
+     * Records that {@code sessionToken} is valid (stored by login, or accepted by the upstream), so calls carrying it
+     * get their own budget. The last {@value #MAX_VERIFIED} tokens are remembered, by digest.
+     */
+    public void verified(String sessionToken) {
+        String digest = TokenDigest.of(sessionToken);
+        if (digest != null) {
+            synchronized (verified) {
+                verified.put(digest, Boolean.TRUE);
+            }
+        }
+    }
+
+    /**
+     * Bucket key of a caller: the digest of its session token when that token is {@link #verified}, otherwise
+     * {@code null} (the call is limited by its origin).
+     */
+    public String callerOf(String sessionToken) {
+        String digest = TokenDigest.of(sessionToken);
+        if (digest == null) {
+            return null;
+        }
+        synchronized (verified) {
+            return verified.get(digest) != null ? "session:" + digest : null;
+        }
+    }
+
+    /**
+     * Takes one token from the origin's bucket, the caller's bucket and the tool's bucket.
+     *
+     * @param origin transport-level origin of the call ({@link com.ntg.appsbroker.ports.CallOrigin})
+     * @param caller bucket key from {@link #callerOf}; {@code null} to limit the call by its origin
+     * @return {@code null} when allowed, otherwise the rejection with a retry-after hint
+     */
+    public Rejection tryAcquire(String origin, String caller, String tool) {
+        if (!enabled) {
+            return null;
+        }
+        ToolLimits toolLimits = limits.computeIfAbsent(tool, this::resolve);
+        long now = System.nanoTime();
+        String source = "origin:" + origin;
+
+        Bucket perSource = null;
+        if (toolLimits.perSource != null) {
+            perSource = bucket(sourceBuckets, source + '\u0000' + tool, toolLimits.perSource, now);
+            long wait = perSource.tryTake(now);
+            if (wait > 0) {
+                toolLimits.rejected.increment();
+                return new Rejection("source", tool, TimeUnit.NANOSECONDS.toMillis(wait) + 1);
+            }
+        }
+        Bucket client = null;
+        if (toolLimits.perClient != null) {
+            client = bucket(clientBuckets, (caller != null ? caller : source) + '\u0000' + tool, toolLimits.perClient, now);
+            long wait = client.tryTake(now);
+            if (wait > 0) {
+                refund(perSource);
+                toolLimits.rejected.increment();
+                return new Rejection("client", tool, TimeUnit.NANOSECONDS.toMillis(wait) + 1);
+            }
+        }
+        if (toolLimits.total != null) {
+            long wait = bucket(toolBuckets, tool, toolLimits.total, now).tryTake(now);
+            if (wait > 0) {
+                refund(perSource);
+                refund(client);
+                toolLimits.rejected.increment();
+                return new Rejection("tool", tool, TimeUnit.NANOSECONDS.toMillis(wait) + 1);
+            }
+        }
+        toolLimits.allowed.increment();
+        return null;
+    }
+
+    @Override
+    public String metricsName() {
+        return "ratelimit";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> tools = new TreeMap<>();
+        limits.forEach((tool, l) -> tools.put(tool, Map.of(
+            "allowed", l.allowed.sum(),
+            "rejected", l.rejected.sum()
+        )));
+        int verifiedSessions;
+        synchronized (verified) {
+            verifiedSessions = verified.size();
+        }
+        return Map.of(
+            "enabled", enabled,
+            "sourceBuckets", sourceBuckets.size(),
+            "clientBuckets", clientBuckets.size(),
+            "verifiedSessions", verifiedSessions,
+            "tools", tools
+        );
+    }
+
+    private ToolLimits resolve(String tool) {
+        String prefix = "mcp.ratelimit.tools." + tool + ".";
+        return new ToolLimits(limit(prefix + "per-source.", defaultPerSource),
+            limit(prefix + "per-client.", defaultPerClient), limit(prefix + "total.", defaultTotal));
+    }
+
+    private Limit limit(String prefix, Limit fallback) {
+        Double rate = environment.getProperty(prefix + "rate-per-sec", Double.class);
+        Integer burst = environment.getProperty(prefix + "burst", Integer.class);
+        if (rate == null && burst == null) {
+            return fallback;
+        }
+        return Limit.of(
+            rate != null ? rate : fallback != null ? fallback.ratePerSec : 0,
+            burst != null ? burst : fallback != null ? fallback.burst : 1
+        );
+    }
+
+    private static void refund(Bucket bucket) {
+        if (bucket != null) {
+            bucket.refund();
+        }
+    }
+
+    private static Bucket bucket(Map<String, Bucket> buckets, String key, Limit limit, long now) {
+        Bucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= SWEEP_THRESHOLD) {
+            // Buckets that have refilled completely carry no state worth keeping.
+            buckets.values().removeIf(b -> b.isFull(now));
+        }
+        return buckets.computeIfAbsent(key, k -> new Bucket(limit, now));
+    }
+
+    /**
+     * @param scope       {@code source} (the origin's budget for the tool), {@code client} (this caller's budget for the
+     *                     tool) or {@code tool} (the tool's total budget)
+     * @param retryAfterMs time until a token is available again
+     */
+    public record Rejection(String scope, String tool, long retryAfterMs) {}
+
+    private record Limit(double ratePerSec, int burst, long intervalNanos, long toleranceNanos) {
+        static Limit of(double ratePerSec, int burst) {
+            if (ratePerSec <= 0) {
+                return null;
+            }
+            long interval = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSec));
+            int b = Math.max(1, burst);
+            return new Limit(ratePerSec, b, interval, interval * (b - 1));
+        }
+    }
+
+    private static final class ToolLimits {
+        final Limit perSource;
+        final Limit perClient;
+        final Limit total;
+        final LongAdder allowed = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+
+        ToolLimits(Limit perSource, Limit perClient, Limit total) {
+            this.perSource = perSource;
+            this.perClient = perClient;
+            this.total = total;
+        }
+    }
+
+    /**
+     * GCRA token bucket: {@code tat} is the theoretical arrival time of the next conforming request.
+     */
+    private static final class Bucket {
+        private final Limit limit;
+        private final AtomicLong tat;
+
+        Bucket(Limit limit, long now) {
+            this.limit = limit;
+            this.tat = new AtomicLong(now);
+        }
+
+        /**
+         * @return 0 when a token was taken, otherwise nanoseconds until one is available
+         */
+        long tryTake(long now) {
+            while (true) {
+                long current = tat.get();
+                long base = Math.max(current, now);
+                long wait = base - limit.toleranceNanos - now;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (tat.compareAndSet(current, base + limit.intervalNanos)) {
+                    return 0;
+                }
+            }
+        }
+
+        void refund() {
+            tat.addAndGet(-limit.intervalNanos);
+        }
+
+        boolean isFull(long now) {
+            return tat.get() <= now;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.ntg.appsbroker.usecases.tools;
+
+import com.ntg.appsbroker.adapters.schema.CompiledSchema;
+import com.ntg.appsbroker.adapters.schema.SchemaViolation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Use case: registry of MCP tools keyed by name.
+ *
+ * <p>Each tool declares its input schema once; the schema is compiled at registration into a
+ * {@link CompiledSchema} so arguments are validated before the handler runs. Transport-level arguments
+ * (clientId, sessionToken, upstream base URLs) are accepted by every tool and added to each schema here.</p>
+ */
+@Component
+public class ToolRegistry {
+    private static final Logger log = LoggerFactory.getLogger(ToolRegistry.class);
+
+    private static final Map<String, Object> ENVELOPE_PROPERTIES = Map.of(
+        "clientId", Map.of("type", "string"),
+        "sessionToken", Map.of("type", "string", "description",
+            "Optional. If provided, bypasses stored login session and uses this token for the call."),
+        "authBaseUrl", Map.of("type", "string", "description", "Optional. Override upstream Auth base URL (bridge-injected)."),
+        "appsBaseUrl", Map.of("type", "string", "description", "Optional. Override upstream Apps base URL (bridge-injected).")
+    );
+
+    private final Map<String, RegisteredTool> tools = new ConcurrentHashMap<>();
+    private final List<RegisteredTool> ordered = new CopyOnWriteArrayList<>();
+
+    public void register(McpTool tool) {
+        register(tool.definition(), tool);
+    }
+
+    public void register(ToolDefinition definition, ToolHandler handler) {
+        Map<String, Object> schema = withEnvelope(definition.inputSchema());
+        ToolDefinition effective = new ToolDefinition(
+            definition.name(), definition.description(), schema, definition.requiresSession());
+        RegisteredTool registered = new RegisteredTool(effective, CompiledSchema.compile(schema), handler);
+
+        if (tools.putIfAbsent(definition.name(), registered) != null) {
+            throw new IllegalStateException("Duplicate MCP tool registration: " + definition.name());
+        }
+        ordered.add(registered);
+        log.debug("Registered MCP tool: {}", definition.name());
+    }
+
+    /**
+     * Returns the tool registered under {@code name}, or {@code null}.
+     */
+    public RegisteredTool find(String name) {
+        return name == null ? null : tools.get(name);
+    }
+
+    /**
+     * Tool descriptors for tools/list, in registration order.
+     */
+    public List<Map<String, Object>> toolList() {
+        List<Map<String, Object>> list = new ArrayList<>(ordered.size());
+        for (RegisteredTool tool : ordered) {
+            list.add(Map.of(
+                "name", tool.definition().name(),
+                "description", tool.definition().description(),
+                "inputSchema", tool.definition().inputSchema()
+            ));
+        }
+        return list;
+    }
+
+    private static Map<String, Object> withEnvelope(Map<String, Object> schema) {
+        Map<String, Object> result = new LinkedHashMap<>(schema != null ? schema : Map.of());
+        result.putIfAbsent("type", "object");
+
+        Map<String, Object> properties = new LinkedHashMap<>();
+        if (result.get("properties") instanceof Map<?, ?> declared) {
+            declared.forEach((k, v) -> properties.put(String.valueOf(k), v));
+        }
+        ENVELOPE_PROPERTIES.forEach(properties::putIfAbsent);
+        result.put("properties", properties);
+        return result;
+    }
+
+    public record RegisteredTool(ToolDefinition definition, CompiledSchema schema, ToolHandler handler) {
+
+        /**
+         * Returns {@code null} when the arguments conform to the tool's input schema.
+         */
+        public SchemaViolation validate(Map<String, Object> arguments) {
+            return schema.validate(arguments);
+        }
+    }
+}